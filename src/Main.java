@@ -1,4 +1,11 @@
+import bench.LoadTest;
 import controller.ManagementController;
+import java.io.IOException;
+import java.util.Arrays;
+import controller.ShardedController;
+import util.ReplicaClient;
+import util.ShardCoordinator;
+import util.ShardServer;
 
 /**
  * Main class for the Software Developer Management System.
@@ -8,10 +15,81 @@ public class Main {
     /**
      * Entry point of the application.
      * 
-     * @param args Command line arguments (not used).
+     * @param args Command line arguments: none, "--primary port" to accept
+     *             replicas, "--replica host:port" to run as a read-only
+     *             replica of a primary, "--shards n" to partition the data
+     *             over n local shard processes, "--shard port" to run one
+     *             shard, or "--loadtest [options]" to run a load test (see
+     *             {@link LoadTest}).
      */
     public static void main(String[] args) {
-        ManagementController controller = new ManagementController();
+        if (args.length >= 1 && args[0].equals("--loadtest")) {
+            LoadTest.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length >= 2 && (args[0].equals("--shard") || args[0].equals("--shards"))) {
+            runSharded(args);
+            return;
+        }
+        ManagementController controller;
+        if (args.length == 2 && (args[0].equals("--primary") || args[0].equals("--replica"))) {
+            controller = startReplication(args[0], args[1]);
+            if (controller == null) {
+                return;
+            }
+        } else {
+            controller = new ManagementController();
+        }
         controller.run();
     }
+
+    // Returns null after reporting why the primary or replica could not start.
+    private static ManagementController startReplication(String mode, String address) {
+        try {
+            if (mode.equals("--primary")) {
+                ManagementController controller = new ManagementController();
+                controller.startPrimary(Integer.parseInt(address));
+                return controller;
+            }
+            String[] hostPort = address.split(":", 2);
+            if (hostPort.length != 2) {
+                throw new IllegalArgumentException("expected host:port, got " + address);
+            }
+            return new ManagementController(ReplicaClient.connect(hostPort[0], Integer.parseInt(hostPort[1])));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Cannot start replication: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void runSharded(String[] args) {
+        try {
+            if (args[0].equals("--shard")) {
+                if (args.length > 2 && args[2].equals("--attached")) {
+                    exitWhenParentExits();
+                }
+                ShardServer.serve(Integer.parseInt(args[1]));
+            } else {
+                new ShardedController(ShardCoordinator.launchLocal(Integer.parseInt(args[1]))).run();
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Cannot start shards: " + e.getMessage());
+        }
+    }
+
+    // A shard started by the coordinator stops when the coordinator's end of stdin closes.
+    private static void exitWhenParentExits() {
+        Thread t = new Thread(() -> {
+            try {
+                while (System.in.read() >= 0) {
+                    // Ignore input
+                }
+            } catch (IOException e) {
+                // Treat as closed
+            }
+            System.exit(0);
+        }, "shard-parent-watch");
+        t.setDaemon(true);
+        t.start();
+    }
 }
@@ -0,0 +1,103 @@
+package bench;
+
+import entity.Developer;
+import entity.Project;
+import util.FileService;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares plain, GZIP and dictionary-Deflate data files: file size and
+ * write/read throughput. Not part of the application menu.
+ *
+ * Usage: java -cp build/classes bench.CompressionBenchmark [rows] [dir]
+ */
+public class CompressionBenchmark {
+    private static final String[] SKILLS = { "Java", "C++", "Python", "Scala", "C#", "Golang", "React",
+            "JavaScript", "Spring", "Kotlin", "SQL", "Docker" };
+    private static final String[] CLIENTS = { "TechVina Corp", "FPT Software", "VietBank", "Viettel Group",
+            "Samsung VN", "CMC Global" };
+    private static final String[] LAST_NAMES = { "Nguyen", "Tran", "Le", "Pham", "Hoang", "Vu", "Dang" };
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional row count and output directory.
+     * @throws IOException if a benchmark file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        File dir = new File(args.length > 1 ? args[1] : System.getProperty("java.io.tmpdir"));
+
+        List<Developer> developers = generateDevelopers(rows);
+        List<Project> projects = generateProjects(rows, developers);
+
+        System.out.printf("%-10s | %-14s | %12s | %9s | %12s | %12s%n",
+                "Data", "Format", "Bytes", "Ratio", "Write MB/s", "Read MB/s");
+        long plainDev = 0;
+        long plainProj = 0;
+        for (String ext : new String[] { ".txt", ".txt.gz", ".txt.deflate" }) {
+            File devFile = new File(dir, "bench_developers" + ext);
+            File projFile = new File(dir, "bench_projects" + ext);
+
+            long t0 = System.nanoTime();
+            FileService.saveDevelopers(devFile.getPath(), developers);
+            long t1 = System.nanoTime();
+            List<Developer> loadedDevs = FileService.loadDevelopers(devFile.getPath());
+            long t2 = System.nanoTime();
+            FileService.saveProjects(projFile.getPath(), projects);
+            long t3 = System.nanoTime();
+            List<Project> loadedProjs = FileService.loadProjects(projFile.getPath());
+            long t4 = System.nanoTime();
+
+            if (loadedDevs.size() != rows || loadedProjs.size() != rows) {
+                System.err.println("Round trip lost rows for " + ext);
+            }
+            if (plainDev == 0) {
+                plainDev = devFile.length();
+                plainProj = projFile.length();
+            }
+            // Throughput is measured against the uncompressed text size.
+            report("developers", ext, devFile.length(), plainDev, t1 - t0, t2 - t1);
+            report("projects", ext, projFile.length(), plainProj, t3 - t2, t4 - t3);
+            devFile.delete();
+            projFile.delete();
+        }
+    }
+
+    private static void report(String data, String format, long bytes, long plainBytes, long writeNanos,
+            long readNanos) {
+        double mb = plainBytes / (1024.0 * 1024.0);
+        System.out.printf("%-10s | %-14s | %12d | %8.2fx | %12.1f | %12.1f%n", data, format, bytes,
+                (double) plainBytes / bytes, mb / (writeNanos / 1e9), mb / (readNanos / 1e9));
+    }
+
+    private static List<Developer> generateDevelopers(int rows) {
+        Random random = new Random(42);
+        List<Developer> developers = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            String name = LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " Van " + (char) ('A' + random.nextInt(26));
+            List<String> skills = new ArrayList<>(Arrays.asList(SKILLS[random.nextInt(SKILLS.length)],
+                    SKILLS[random.nextInt(SKILLS.length)]));
+            developers.add(new Developer(String.format("DEV%03d", i), name, skills, 1000 + random.nextInt(50) * 100));
+        }
+        return developers;
+    }
+
+    private static List<Project> generateProjects(int rows, List<Developer> developers) {
+        Random random = new Random(7);
+        List<Project> projects = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            String devId = developers.get(random.nextInt(developers.size())).getId();
+            String date = String.format("%02d/%02d/2026", 1 + random.nextInt(28), 1 + random.nextInt(12));
+            projects.add(new Project(String.format("PROJ%02d", i), devId, "Management System", 1 + random.nextInt(24),
+                    date, CLIENTS[random.nextInt(CLIENTS.length)]));
+        }
+        return projects;
+    }
+}
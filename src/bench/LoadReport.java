@@ -0,0 +1,221 @@
+package bench;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Results of one load test run: per operation type the count, throughput,
+ * latency percentiles, allocation per operation and an estimate of the GC
+ * time it caused.
+ *
+ * GC time is measured for the whole JVM; it is attributed to operation
+ * types in proportion to the bytes they allocated, which is what drives
+ * young collections.
+ */
+public class LoadReport {
+    private static final String CSV_HEADER = "op,count,ops_per_sec,mean_us,p50_us,p90_us,p99_us,p999_us,max_us,"
+            + "alloc_bytes_per_op,gc_ms";
+    private static final double[] PERCENTILES = { 0.50, 0.90, 0.99, 0.999 };
+
+    private final Map<String, String> settings;
+    private final double seconds;
+    private final long gcMillis;
+    private final long gcCount;
+    private final Map<OpType, Row> rows = new EnumMap<>(OpType.class);
+
+    /**
+     * Statistics of one operation type.
+     */
+    public static class Row {
+        final long count;
+        final double opsPerSecond;
+        final double meanMicros;
+        final double[] percentileMicros;
+        final double maxMicros;
+        final long allocBytesPerOp;
+        final long gcMillis;
+
+        Row(long count, double opsPerSecond, double meanMicros, double[] percentileMicros, double maxMicros,
+                long allocBytesPerOp, long gcMillis) {
+            this.count = count;
+            this.opsPerSecond = opsPerSecond;
+            this.meanMicros = meanMicros;
+            this.percentileMicros = percentileMicros;
+            this.maxMicros = maxMicros;
+            this.allocBytesPerOp = allocBytesPerOp;
+            this.gcMillis = gcMillis;
+        }
+    }
+
+    /**
+     * Builds the report from raw measurements.
+     *
+     * @param settings     Workload settings, printed in the header.
+     * @param seconds      Wall-clock duration of the measured phase.
+     * @param latencies    Per operation type, every latency in nanoseconds
+     *                     (sorted in place).
+     * @param counts       Per operation type, number of operations.
+     * @param allocated    Per operation type, bytes allocated in total, or
+     *                     -1 if the JVM cannot measure it.
+     * @param gcMillis     GC time during the measured phase.
+     * @param gcCount      Collections during the measured phase.
+     */
+    LoadReport(Map<String, String> settings, double seconds, long[][] latencies, int[] counts, long[] allocated,
+            long gcMillis, long gcCount) {
+        this.settings = settings;
+        this.seconds = seconds;
+        this.gcMillis = gcMillis;
+        this.gcCount = gcCount;
+        long totalAllocated = 0;
+        for (long a : allocated) {
+            totalAllocated += Math.max(0, a);
+        }
+        for (OpType op : OpType.values()) {
+            int n = counts[op.ordinal()];
+            if (n == 0) {
+                continue;
+            }
+            long[] sorted = latencies[op.ordinal()];
+            Arrays.sort(sorted, 0, n);
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += sorted[i];
+            }
+            double[] pct = new double[PERCENTILES.length];
+            for (int i = 0; i < pct.length; i++) {
+                pct[i] = sorted[Math.min(n - 1, (int) Math.ceil(PERCENTILES[i] * n) - 1)] / 1000.0;
+            }
+            long alloc = allocated[op.ordinal()];
+            long gc = alloc < 0 || totalAllocated == 0 ? 0 : Math.round((double) gcMillis * alloc / totalAllocated);
+            rows.put(op, new Row(n, n / seconds, sum / n / 1000.0, pct, sorted[n - 1] / 1000.0,
+                    alloc < 0 ? -1 : alloc / n, gc));
+        }
+    }
+
+    /**
+     * @return operations per second over all types.
+     */
+    public double getThroughput() {
+        long total = 0;
+        for (Row r : rows.values()) {
+            total += r.count;
+        }
+        return total / seconds;
+    }
+
+    /**
+     * @return the report as a table.
+     */
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("--- Load Test Report ---\n");
+        for (Map.Entry<String, String> e : settings.entrySet()) {
+            sb.append(String.format("%-10s %s%n", e.getKey() + ":", e.getValue()));
+        }
+        sb.append(String.format("%-10s %.2f s, %.0f ops/s%n", "duration:", seconds, getThroughput()));
+        sb.append(String.format("%-10s %d ms in %d collections%n", "gc:", gcMillis, gcCount));
+        sb.append(String.format("%n%-14s %9s %10s %9s %9s %9s %9s %9s %10s %12s %7s%n", "Operation", "Count",
+                "Ops/s", "Mean us", "p50 us", "p90 us", "p99 us", "p99.9 us", "Max us", "Alloc B/op", "GC ms"));
+        for (Map.Entry<OpType, Row> e : rows.entrySet()) {
+            Row r = e.getValue();
+            sb.append(String.format("%-14s %9d %10.0f %9.1f %9.1f %9.1f %9.1f %9.1f %10.1f %12s %7d%n",
+                    e.getKey().name().toLowerCase(), r.count, r.opsPerSecond, r.meanMicros, r.percentileMicros[0],
+                    r.percentileMicros[1], r.percentileMicros[2], r.percentileMicros[3], r.maxMicros,
+                    r.allocBytesPerOp < 0 ? "n/a" : String.valueOf(r.allocBytesPerOp), r.gcMillis));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the report as text and as CSV (settings as "# name=value"
+     * comment lines) so later runs can be compared with {@link #compare}.
+     *
+     * @param dir  Directory for the reports; created if missing.
+     * @param name File name without extension.
+     * @return the CSV file.
+     * @throws IOException if a file cannot be written.
+     */
+    public File save(File dir, String name) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        try (BufferedWriter w = new BufferedWriter(new FileWriter(new File(dir, name + ".txt")))) {
+            w.write(format());
+        }
+        File csv = new File(dir, name + ".csv");
+        try (BufferedWriter w = new BufferedWriter(new FileWriter(csv))) {
+            for (Map.Entry<String, String> e : settings.entrySet()) {
+                w.write("# " + e.getKey() + "=" + e.getValue());
+                w.newLine();
+            }
+            w.write(CSV_HEADER);
+            w.newLine();
+            for (Map.Entry<OpType, Row> e : rows.entrySet()) {
+                Row r = e.getValue();
+                w.write(String.format(Locale.ROOT, "%s,%d,%.1f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%d,%d",
+                        opName(e.getKey()), r.count, r.opsPerSecond, r.meanMicros,
+                        r.percentileMicros[0], r.percentileMicros[1], r.percentileMicros[2], r.percentileMicros[3],
+                        r.maxMicros, r.allocBytesPerOp, r.gcMillis));
+                w.newLine();
+            }
+        }
+        return csv;
+    }
+
+    /**
+     * Compares throughput, p99 latency and allocation with an earlier run.
+     *
+     * @param baselineCsv A CSV written by {@link #save}.
+     * @return the comparison as a table.
+     * @throws IOException if the file cannot be read.
+     */
+    public String compare(File baselineCsv) throws IOException {
+        Map<String, String[]> baseline = new LinkedHashMap<>();
+        try (BufferedReader r = new BufferedReader(new FileReader(baselineCsv))) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                if (!line.startsWith("#") && !line.equals(CSV_HEADER) && !line.trim().isEmpty()) {
+                    String[] f = line.split(",");
+                    baseline.put(f[0], f);
+                }
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n--- Compared with ").append(baselineCsv.getName()).append(" ---\n");
+        sb.append(String.format("%-14s %12s %12s %12s%n", "Operation", "Ops/s", "p99", "Alloc/op"));
+        for (Map.Entry<OpType, Row> e : rows.entrySet()) {
+            String[] f = baseline.get(opName(e.getKey()));
+            if (f == null) {
+                sb.append(String.format(Locale.ROOT, "%-14s %12s%n", opName(e.getKey()), "(new)"));
+                continue;
+            }
+            Row r = e.getValue();
+            sb.append(String.format(Locale.ROOT, "%-14s %12s %12s %12s%n", opName(e.getKey()),
+                    change(Double.parseDouble(f[2]), r.opsPerSecond),
+                    change(Double.parseDouble(f[6]), r.percentileMicros[2]),
+                    change(Double.parseDouble(f[9]), r.allocBytesPerOp)));
+        }
+        return sb.toString();
+    }
+
+    private static String change(double before, double after) {
+        if (before <= 0 || after < 0) {
+            return "n/a";
+        }
+        return String.format(Locale.ROOT, "%+.1f%%", (after - before) * 100 / before);
+    }
+
+    // The CSV is read back by compare, so its names and numbers must not depend on the default locale.
+    private static String opName(OpType type) {
+        return type.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,310 @@
+package bench;
+
+import controller.ManagementController;
+import entity.Developer;
+import entity.Project;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import util.AsyncPersistenceService;
+import util.Roster;
+
+/**
+ * Replays a mixed operation trace against a {@link ManagementController}
+ * without the console and reports how it behaved.
+ *
+ * With --threads the operations run concurrently without a lock in front of
+ * the controller: changes go through its optimistic transactions and its
+ * indexes are updated under its own lock. Each thread measures every
+ * operation's latency and the bytes its own thread allocated (file writes
+ * done by the autosave thread are not counted); a warm-up phase runs first
+ * so the JIT and the caches settle.
+ *
+ * Usage: java -cp classes bench.LoadTest [--devs n] [--projects n] [--ops n]
+ * [--warmup n] [--threads n] [--zipf s] [--seed n] [--no-cache]
+ * [--mix lookup=500,language=250,...] [--out dir] [--baseline earlier.csv]
+ */
+public class LoadTest {
+    private static final String DEFAULT_REPORT_DIR = "bench-reports";
+
+    private final Workload workload;
+    private final ManagementController controller;
+    private final AsyncPersistenceService persistence;
+    private final AtomicInteger nextProject;
+    private final AtomicInteger nextDeveloper;
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final boolean allocationSupported;
+
+    /**
+     * Builds the data set and a controller over it. Saves go to a temporary
+     * directory.
+     *
+     * @param workload The settings.
+     * @throws IOException if the temporary directory cannot be created.
+     */
+    public LoadTest(Workload workload) throws IOException {
+        this.workload = workload;
+        File dir = Files.createTempDirectory("loadtest").toFile();
+        dir.deleteOnExit();
+        File devFile = new File(dir, "developers.txt");
+        File projFile = new File(dir, "projects.txt");
+        devFile.deleteOnExit();
+        projFile.deleteOnExit();
+        this.persistence = new AsyncPersistenceService(devFile.getPath(), projFile.getPath());
+        this.controller = new ManagementController(
+                new Roster(workload.createDevelopers(), workload.createProjects()), persistence);
+        controller.getQueryCache().setEnabled(workload.isCacheEnabled());
+        this.nextProject = new AtomicInteger(workload.getProjects());
+        this.nextDeveloper = new AtomicInteger(workload.getDevelopers());
+        this.allocationSupported = threadBean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported();
+        if (allocationSupported) {
+            ((com.sun.management.ThreadMXBean) threadBean).setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    /**
+     * Runs the warm-up and the measured phase.
+     *
+     * @return the report of the measured phase.
+     * @throws InterruptedException if interrupted while waiting for the
+     *                              threads.
+     */
+    public LoadReport run() throws InterruptedException {
+        int threads = workload.getThreads();
+        if (workload.getWarmup() > 0) {
+            replay(workload.createTraces(workload.getWarmup() / threads, 0));
+        }
+        List<Workload.Trace> traces = workload.createTraces(workload.getOperations() / threads, 1);
+        controller.getQueryCache().resetStatistics();
+        System.gc();
+
+        long gcTimeBefore = gcTime();
+        long gcCountBefore = gcCount();
+        long start = System.nanoTime();
+        List<Recorder> recorders = replay(traces);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long gcMillis = gcTime() - gcTimeBefore;
+        long gcCount = gcCount() - gcCountBefore;
+        persistence.shutdown();
+
+        int types = OpType.values().length;
+        int[] counts = new int[types];
+        long[] allocated = new long[types];
+        for (Recorder r : recorders) {
+            for (int t = 0; t < types; t++) {
+                counts[t] += r.counts[t];
+                allocated[t] = allocationSupported ? allocated[t] + r.allocated[t] : -1;
+            }
+        }
+        long[][] latencies = new long[types][];
+        for (int t = 0; t < types; t++) {
+            latencies[t] = new long[counts[t]];
+            int at = 0;
+            for (Recorder r : recorders) {
+                System.arraycopy(r.latencies[t], 0, latencies[t], at, r.counts[t]);
+                at += r.counts[t];
+            }
+        }
+        return new LoadReport(workload.describe(), seconds, latencies, counts, allocated, gcMillis, gcCount);
+    }
+
+    /**
+     * @return the controller's query cache hit rate in the measured phase.
+     */
+    public double getCacheHitRate() {
+        return controller.getQueryCache().getHitRate();
+    }
+
+    // Runs one trace per thread, all starting together.
+    private List<Recorder> replay(List<Workload.Trace> traces) throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(traces.size());
+        CountDownLatch go = new CountDownLatch(1);
+        List<Recorder> recorders = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < traces.size(); i++) {
+            Recorder recorder = new Recorder(traces.get(i).length());
+            Workload.Trace trace = traces.get(i);
+            recorders.add(recorder);
+            Thread t = new Thread(() -> {
+                ready.countDown();
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int step = 0; step < trace.length(); step++) {
+                    recorder.measure(trace.ops[step], trace.keys[step], trace.values[step]);
+                }
+            }, "loadtest-" + i);
+            threads.add(t);
+            t.start();
+        }
+        ready.await();
+        go.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        return recorders;
+    }
+
+    private void execute(OpType op, int key, int value) {
+        String devId = Workload.developerId(key);
+        switch (op) {
+            case LOOKUP:
+                controller.findDeveloper(devId);
+                break;
+            case LANGUAGE:
+                controller.findDevelopersByLanguage(Workload.LANGUAGES[key]);
+                break;
+            case EXPERIENCE:
+                controller.getTotalExperience(devId);
+                break;
+            case SORT:
+                controller.getDevelopersSortedBySalary();
+                break;
+            case GROUPED:
+                controller.getProjectsByDeveloper();
+                break;
+            case SIMILAR:
+                controller.findSimilarDevelopers(devId, 10, true);
+                break;
+            case UPDATE_SALARY:
+                controller.updateSalary(devId, value);
+                break;
+            case ADD_PROJECT:
+                int id = nextProject.getAndIncrement();
+                controller.addProject(new Project(Workload.projectId(id), devId, "Project " + id,
+                        1 + value % 24, "01/01/2025", "Load test"));
+                break;
+            case ONBOARD:
+                onboard(value);
+                break;
+            case SAVE:
+                try {
+                    controller.save();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unhandled operation " + op);
+        }
+    }
+
+    private void onboard(int value) {
+        int key = nextDeveloper.getAndIncrement();
+        List<Project> projects = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            int id = nextProject.getAndIncrement();
+            projects.add(new Project(Workload.projectId(id), "", "Project " + id, 1 + (value + i) % 24,
+                    "01/01/2025", "Load test"));
+        }
+        controller.addDeveloperWithProjects(new Developer(Workload.developerId(key), "Developer " + key,
+                Arrays.asList(Workload.LANGUAGES[value % Workload.LANGUAGES.length]), value), projects);
+    }
+
+    private static long gcTime() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    // Per-thread measurements, merged after the run so recording needs no synchronization.
+    private class Recorder {
+        final long[][] latencies = new long[OpType.values().length][];
+        final int[] counts = new int[OpType.values().length];
+        final long[] allocated = new long[OpType.values().length];
+
+        Recorder(int capacity) {
+            for (int t = 0; t < latencies.length; t++) {
+                latencies[t] = new long[Math.min(capacity, 1024)];
+            }
+        }
+
+        void measure(OpType op, int key, int value) {
+            long threadId = Thread.currentThread().getId();
+            long allocBefore = allocationSupported
+                    ? ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(threadId)
+                    : 0;
+            long start = System.nanoTime();
+            execute(op, key, value);
+            long elapsed = System.nanoTime() - start;
+            if (allocationSupported) {
+                allocated[op.ordinal()] += ((com.sun.management.ThreadMXBean) threadBean)
+                        .getThreadAllocatedBytes(threadId) - allocBefore;
+            }
+            int t = op.ordinal();
+            if (counts[t] == latencies[t].length) {
+                latencies[t] = Arrays.copyOf(latencies[t], counts[t] * 2);
+            }
+            latencies[t][counts[t]++] = elapsed;
+        }
+    }
+
+    /**
+     * Runs a load test from the command line, prints the report and saves it
+     * under the output directory.
+     *
+     * @param args Options, see the class comment.
+     */
+    public static void main(String[] args) {
+        Workload workload;
+        try {
+            workload = Workload.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: bench.LoadTest [--devs n] [--projects n] [--ops n] [--warmup n] "
+                    + "[--threads n] [--zipf s] [--seed n] [--no-cache] [--mix op=weight,...] "
+                    + "[--out dir] [--baseline file.csv]");
+            return;
+        }
+        File out = new File(option(args, "--out", DEFAULT_REPORT_DIR));
+        String baseline = option(args, "--baseline", null);
+        try {
+            LoadTest test = new LoadTest(workload);
+            LoadReport report = test.run();
+            System.out.print(report.format());
+            System.out.printf("Query cache hit rate: %.1f%%%n", test.getCacheHitRate() * 100);
+            File csv = report.save(out, "loadtest-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()));
+            System.out.println("Report saved to " + csv.getPath());
+            if (baseline != null) {
+                System.out.print(report.compare(new File(baseline)));
+            }
+        } catch (IOException e) {
+            System.err.println("Load test failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String option(String[] args, String name, String defaultValue) {
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return defaultValue;
+    }
+}
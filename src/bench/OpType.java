@@ -0,0 +1,54 @@
+package bench;
+
+/**
+ * Controller operations a load test can mix. Each name is also its key in
+ * the "--mix" option, in lower case.
+ */
+public enum OpType {
+    /** Search a developer by ID (option 3). */
+    LOOKUP(false),
+    /** List developers by language (option 5). */
+    LANGUAGE(false),
+    /** Total experience of a developer (option 8). */
+    EXPERIENCE(false),
+    /** Developers sorted by salary (option 10). */
+    SORT(false),
+    /** Projects grouped by developer (option 7). */
+    GROUPED(false),
+    /** Developers with the most similar skills (option 25). */
+    SIMILAR(false),
+    /** Update a developer's salary (option 4). */
+    UPDATE_SALARY(true),
+    /** Add a project for an existing developer (option 6). */
+    ADD_PROJECT(true),
+    /** Add a developer with three projects in one transaction. */
+    ONBOARD(true),
+    /** Save data to files (option 11). */
+    SAVE(true);
+
+    private final boolean write;
+
+    OpType(boolean write) {
+        this.write = write;
+    }
+
+    /**
+     * @return true if the operation changes data (or writes files).
+     */
+    public boolean isWrite() {
+        return write;
+    }
+
+    /**
+     * @param name Name as used on the command line, any case.
+     * @return the operation.
+     * @throws IllegalArgumentException if there is no such operation.
+     */
+    public static OpType parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown operation: " + name);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package bench;
+
+import entity.Developer;
+import entity.Project;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Settings of a load test, the synthetic data set it runs on and the
+ * operation traces it replays.
+ *
+ * Traces are generated up front (one per thread, from the seed) so drawing
+ * keys is not part of what is measured and two runs with the same settings
+ * replay exactly the same operations.
+ */
+public class Workload {
+    static final String[] LANGUAGES = { "Java", "Python", "C++", "C#", "Golang", "JavaScript", "TypeScript",
+            "Kotlin", "Scala", "Rust", "Ruby", "PHP", "Swift", "React", "SQL", "Dart" };
+    private static final String[] CLIENTS = { "FPT", "Viettel", "VNG", "Tiki", "Shopee", "Grab", "MoMo", "VinAI" };
+
+    private int developers = 10_000;
+    private int projects = 20_000;
+    private int operations = 50_000;
+    private int warmup = 10_000;
+    private int threads = 1;
+    private double zipfExponent = 1.0;
+    private long seed = 42;
+    private boolean cache = true;
+    private final Map<OpType, Integer> mix = new EnumMap<>(OpType.class);
+
+    /**
+     * One thread's sequence of operations: operation, key and value per step.
+     */
+    public static class Trace {
+        final OpType[] ops;
+        final int[] keys;
+        final int[] values;
+
+        Trace(int length) {
+            ops = new OpType[length];
+            keys = new int[length];
+            values = new int[length];
+        }
+
+        public int length() {
+            return ops.length;
+        }
+    }
+
+    /**
+     * Creates the default workload: mostly lookups and language filters, with
+     * some salary updates, project adds and periodic saves.
+     */
+    public Workload() {
+        mix.put(OpType.LOOKUP, 500);
+        mix.put(OpType.LANGUAGE, 250);
+        mix.put(OpType.EXPERIENCE, 80);
+        mix.put(OpType.SORT, 19);
+        mix.put(OpType.SIMILAR, 0);
+        mix.put(OpType.UPDATE_SALARY, 100);
+        mix.put(OpType.ADD_PROJECT, 50);
+        mix.put(OpType.ONBOARD, 0);
+        mix.put(OpType.SAVE, 1);
+    }
+
+    /**
+     * Reads "--name value" options over the defaults.
+     *
+     * @param args Command line options.
+     * @return the workload.
+     * @throws IllegalArgumentException for an unknown option or bad value.
+     */
+    public static Workload parse(String[] args) {
+        Workload w = new Workload();
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("--no-cache")) {
+                w.cache = false;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--devs":
+                    w.developers = positive(option, value);
+                    break;
+                case "--projects":
+                    w.projects = Integer.parseInt(value);
+                    break;
+                case "--ops":
+                    w.operations = positive(option, value);
+                    break;
+                case "--warmup":
+                    w.warmup = Integer.parseInt(value);
+                    break;
+                case "--threads":
+                    w.threads = positive(option, value);
+                    break;
+                case "--zipf":
+                    w.zipfExponent = Double.parseDouble(value);
+                    break;
+                case "--seed":
+                    w.seed = Long.parseLong(value);
+                    break;
+                case "--mix":
+                    w.setMix(value);
+                    break;
+                default:
+                    // Options for the driver (--out, --baseline) are read there.
+                    if (!option.equals("--out") && !option.equals("--baseline")) {
+                        throw new IllegalArgumentException("Unknown option: " + option);
+                    }
+            }
+        }
+        return w;
+    }
+
+    private static int positive(String option, String value) {
+        int n = Integer.parseInt(value);
+        if (n <= 0) {
+            throw new IllegalArgumentException(option + " must be positive");
+        }
+        return n;
+    }
+
+    // "lookup=600,language=300,save=1": listed operations get these weights, the rest 0.
+    private void setMix(String spec) {
+        mix.clear();
+        for (OpType op : OpType.values()) {
+            mix.put(op, 0);
+        }
+        for (String part : spec.split(",")) {
+            String[] kv = part.split("=", 2);
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Mix entries look like lookup=500: " + part);
+            }
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight: " + part);
+            }
+            mix.put(OpType.parse(kv[0]), weight);
+        }
+        if (totalWeight() == 0) {
+            throw new IllegalArgumentException("The mix has no operations");
+        }
+    }
+
+    private int totalWeight() {
+        int total = 0;
+        for (int w : mix.values()) {
+            total += w;
+        }
+        return total;
+    }
+
+    /**
+     * @return developers with IDs DEV000000.., two or three languages each.
+     */
+    public List<Developer> createDevelopers() {
+        Random random = new Random(seed);
+        List<Developer> list = new ArrayList<>(developers);
+        for (int i = 0; i < developers; i++) {
+            int skillCount = 2 + random.nextInt(2);
+            List<String> skills = new ArrayList<>(skillCount);
+            while (skills.size() < skillCount) {
+                String s = LANGUAGES[random.nextInt(LANGUAGES.length)];
+                if (!skills.contains(s)) {
+                    skills.add(s);
+                }
+            }
+            list.add(new Developer(developerId(i), "Developer " + i, skills, 1000 + random.nextInt(9000)));
+        }
+        return list;
+    }
+
+    /**
+     * @return projects PRJ000000.., each assigned to a random developer.
+     */
+    public List<Project> createProjects() {
+        Random random = new Random(seed + 1);
+        List<Project> list = new ArrayList<>(projects);
+        for (int i = 0; i < projects; i++) {
+            String start = String.format("%02d/%02d/%d", 1 + random.nextInt(28), 1 + random.nextInt(12),
+                    2015 + random.nextInt(10));
+            list.add(new Project(projectId(i), developerId(random.nextInt(developers)), "Project " + i,
+                    1 + random.nextInt(24), start, CLIENTS[random.nextInt(CLIENTS.length)]));
+        }
+        return list;
+    }
+
+    /**
+     * Generates one trace per thread. Developer keys and languages follow
+     * the Zipfian skew.
+     *
+     * @param length Operations per thread.
+     * @param round  Distinguishes the warm-up traces from the measured ones.
+     * @return the traces.
+     */
+    public List<Trace> createTraces(int length, int round) {
+        ZipfGenerator devKeys = new ZipfGenerator(developers, zipfExponent, seed);
+        ZipfGenerator languageKeys = new ZipfGenerator(LANGUAGES.length, zipfExponent, seed);
+        OpType[] table = new OpType[totalWeight()];
+        int at = 0;
+        for (Map.Entry<OpType, Integer> e : mix.entrySet()) {
+            Arrays.fill(table, at, at + e.getValue(), e.getKey());
+            at += e.getValue();
+        }
+        List<Trace> traces = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(seed * 31 + round * 1_000_003L + t);
+            Trace trace = new Trace(length);
+            for (int i = 0; i < length; i++) {
+                OpType op = table[random.nextInt(table.length)];
+                trace.ops[i] = op;
+                trace.keys[i] = op == OpType.LANGUAGE ? languageKeys.next(random) : devKeys.next(random);
+                trace.values[i] = 1000 + random.nextInt(9000);
+            }
+            traces.add(trace);
+        }
+        return traces;
+    }
+
+    static String developerId(int key) {
+        return String.format("DEV%06d", key);
+    }
+
+    static String projectId(int key) {
+        return String.format("PRJ%06d", key);
+    }
+
+    public int getDevelopers() {
+        return developers;
+    }
+
+    public int getProjects() {
+        return projects;
+    }
+
+    public int getOperations() {
+        return operations;
+    }
+
+    public int getWarmup() {
+        return warmup;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public boolean isCacheEnabled() {
+        return cache;
+    }
+
+    /**
+     * @return the settings as name/value pairs, for the report header.
+     */
+    public Map<String, String> describe() {
+        Map<String, String> d = new LinkedHashMap<>();
+        d.put("devs", String.valueOf(developers));
+        d.put("projects", String.valueOf(projects));
+        d.put("ops", String.valueOf(operations));
+        d.put("warmup", String.valueOf(warmup));
+        d.put("threads", String.valueOf(threads));
+        d.put("zipf", String.valueOf(zipfExponent));
+        d.put("seed", String.valueOf(seed));
+        d.put("cache", cache ? "on" : "off");
+        StringBuilder m = new StringBuilder();
+        for (Map.Entry<OpType, Integer> e : mix.entrySet()) {
+            if (e.getValue() > 0) {
+                m.append(m.length() == 0 ? "" : ",").append(e.getKey().name().toLowerCase()).append('=')
+                        .append(e.getValue());
+            }
+        }
+        d.put("mix", m.toString());
+        return d;
+    }
+}
@@ -0,0 +1,64 @@
+package bench;
+
+import java.util.Random;
+
+/**
+ * Draws keys 0..n-1 with Zipfian skew: the key of rank r is drawn with
+ * probability proportional to 1 / r^s. Ranks are shuffled over the keys, so
+ * the hot keys are spread over the data set instead of all being the first
+ * rows. An exponent of 0 gives uniform keys.
+ */
+public class ZipfGenerator {
+    private final double[] cumulative;
+    private final int[] keyOfRank;
+
+    /**
+     * @param n        Number of keys.
+     * @param exponent Skew; 0 is uniform, around 1 is typical of real traffic.
+     * @param seed     Seed for the rank shuffle.
+     */
+    public ZipfGenerator(int n, double exponent, long seed) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Zipf generator needs at least one key");
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int r = 0; r < n; r++) {
+            sum += 1 / Math.pow(r + 1, exponent);
+            cumulative[r] = sum;
+        }
+        for (int r = 0; r < n; r++) {
+            cumulative[r] /= sum;
+        }
+        keyOfRank = new int[n];
+        for (int i = 0; i < n; i++) {
+            keyOfRank[i] = i;
+        }
+        Random random = new Random(seed);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = keyOfRank[i];
+            keyOfRank[i] = keyOfRank[j];
+            keyOfRank[j] = t;
+        }
+    }
+
+    /**
+     * @param random Source of randomness (one per thread).
+     * @return the next key.
+     */
+    public int next(Random random) {
+        double u = random.nextDouble();
+        int lo = 0;
+        int hi = cumulative.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cumulative[mid] < u) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return keyOfRank[lo];
+    }
+}
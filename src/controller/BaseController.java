@@ -0,0 +1,192 @@
+package controller;
+
+import entity.Developer;
+import view.ConsoleView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Abstract base class for the console controllers.
+ * Holds the menu handlers whose flow is the same wherever the data lives
+ * (options 2, 3, 4, 5, 8, 9 and 10); subclasses supply the data operations
+ * they call.
+ */
+public abstract class BaseController {
+    protected final ConsoleView view = new ConsoleView();
+
+    // ==================== OPERATIONS ====================
+
+    /**
+     * @param id Developer ID, any case.
+     * @return the developer, or null.
+     */
+    public abstract Developer findDeveloper(String id);
+
+    /**
+     * @param language A skill, any case.
+     * @return developers having it (do not modify).
+     */
+    public abstract List<Developer> findDevelopersByLanguage(String language);
+
+    /**
+     * @return developers by ascending salary (do not modify).
+     */
+    public abstract List<Developer> getDevelopersSortedBySalary();
+
+    /**
+     * @param devId Developer ID, any case.
+     * @return total months over the developer's projects.
+     */
+    public abstract int getTotalExperience(String devId);
+
+    /**
+     * @param developer The new developer.
+     * @throws IllegalArgumentException if the ID already exists.
+     */
+    public abstract void addDeveloper(Developer developer);
+
+    /**
+     * @param id     Developer ID, any case.
+     * @param salary The new salary.
+     * @throws IllegalArgumentException if the developer does not exist.
+     */
+    public abstract void updateSalary(String id, int salary);
+
+    /**
+     * @param id Developer ID, any case.
+     * @throws IllegalArgumentException if the developer does not exist or is
+     *                                  assigned to projects.
+     */
+    public abstract void removeDeveloper(String id);
+
+    // ==================== 2. ADD A NEW DEVELOPER ====================
+    protected void addDeveloper() {
+        if (!checkWritable()) {
+            return;
+        }
+        view.displayMessage("\n--- Add New Developer ---");
+
+        String id = view.getDeveloperIdInput();
+        if (findDeveloper(id) != null) {
+            view.displayError("Developer ID already exists!");
+            return;
+        }
+
+        String name = view.getDeveloperNameInput();
+        String skillsInput = view.getSkillsInput();
+        List<String> skills = new ArrayList<>();
+        for (String s : skillsInput.split(",")) {
+            skills.add(s.trim());
+        }
+
+        int salary = view.getSalaryInput();
+
+        addDeveloper(new Developer(id, name, skills, salary));
+        view.displayMessage("Developer added successfully!");
+    }
+
+    // ==================== 3. SEARCH DEVELOPER BY ID ====================
+    protected void searchDeveloperById() {
+        view.displayMessage("\n--- Search Developer by ID ---");
+        String id = view.getDeveloperIdSearchInput();
+        Developer dev = findDeveloper(id);
+
+        if (dev == null) {
+            view.displayError("Developer ID does not exist!");
+        } else {
+            view.displayDeveloper(dev);
+        }
+    }
+
+    // ==================== 4. UPDATE DEVELOPER'S SALARY ====================
+    protected void updateDeveloperSalary() {
+        if (!checkWritable()) {
+            return;
+        }
+        view.displayMessage("\n--- Update Developer Salary ---");
+        String id = view.getDeveloperIdSearchInput();
+        Developer dev = findDeveloper(id);
+
+        if (dev == null) {
+            view.displayError("Developer ID does not exist!");
+            return;
+        }
+
+        view.displayDeveloper(dev);
+        view.displayMessage("\nEnter new salary:");
+        int newSalary = view.getSalaryInput();
+        updateSalary(dev.getId(), newSalary);
+        view.displayMessage("Developer salary updated successfully!");
+    }
+
+    // ==================== 5. LIST DEVELOPERS BY LANGUAGE ====================
+    protected void listDevelopersByLanguage() {
+        view.displayMessage("\n--- List Developers by Language ---");
+        String language = view.getLanguageSearchInput();
+
+        List<Developer> filtered = findDevelopersByLanguage(language);
+
+        if (filtered.isEmpty()) {
+            view.displayMessage("No developers found with language: " + language);
+        } else {
+            view.displayMessage("Developers with " + language + ":");
+            view.displayDeveloperList(filtered);
+        }
+    }
+
+    // ==================== 8. CALCULATE TOTAL EXPERIENCE ====================
+    protected void calculateTotalExperience() {
+        view.displayMessage("\n--- Calculate Total Experience ---");
+        String id = view.getDeveloperIdSearchInput();
+        Developer dev = findDeveloper(id);
+
+        if (dev == null) {
+            view.displayError("Developer ID does not exist!");
+            return;
+        }
+
+        view.displayTotalExperience(id, getTotalExperience(id));
+    }
+
+    // ==================== 9. REMOVE DEVELOPER BY ID ====================
+    protected void removeDeveloper() {
+        if (!checkWritable()) {
+            return;
+        }
+        view.displayMessage("\n--- Remove Developer ---");
+        String id = view.getDeveloperIdSearchInput();
+        Developer dev = findDeveloper(id);
+
+        if (dev == null) {
+            view.displayError("Developer ID does not exist!");
+            return;
+        }
+
+        // Refused if the developer is still assigned to projects
+        try {
+            removeDeveloper(dev.getId());
+            view.displayMessage("Developer removed successfully!");
+        } catch (IllegalArgumentException e) {
+            view.displayError(e.getMessage());
+        }
+    }
+
+    // ==================== 10. SORT DEVELOPERS BY SALARY ====================
+    protected void sortDevelopersBySalary() {
+        view.displayMessage("\n--- Developers Sorted by Salary (Ascending) ---");
+        view.displayDeveloperList(getDevelopersSortedBySalary());
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * Called before a change option prompts for anything.
+     *
+     * @return true if changes are allowed here; otherwise the reason has
+     *         been shown.
+     */
+    protected boolean checkWritable() {
+        return true;
+    }
+}
@@ -2,38 +2,187 @@ package controller;
 
 import entity.Developer;
 import entity.Project;
+import util.AssignmentEngine;
+import util.AsyncPersistenceService;
+import util.ChangeLogSink;
+import util.EventBus;
 import util.FileService;
+import util.IndexSidecar;
+import util.IntegrityChecker;
+import util.Mutation;
+import util.NameIndex;
+import util.ProjectArchive;
+import util.ProjectIntervalIndex;
+import util.ProjectTextIndex;
+import util.QueryCache;
+import util.ReplicaClient;
+import util.ReplicationServer;
+import util.Roster;
+import util.SalaryAdjustment;
+import util.SalaryHistory;
+import util.SimilarityIndex;
+import util.SkillIndex;
+import util.Transaction;
 import util.Validation;
-import view.ConsoleView;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Predicate;
 
 /**
  * Controller class managing the application flow and business logic.
  * Implements all 12 menu functions as per Lab211 requirements.
+ * All data lives in a versioned {@link Roster}: every operation reads one
+ * immutable snapshot and every change goes through {@link #apply(Mutation)}.
  */
-public class ManagementController {
-    private List<Developer> developers;
-    private List<Project> projects;
+public class ManagementController extends BaseController {
+    private Roster roster;
     private static final String DEV_FILE = "developers.txt";
     private static final String PROJ_FILE = "projects.txt";
-    private ConsoleView view;
-    private boolean hasUnsavedChanges = false;
+    private static final String DEV_QUARANTINE_FILE = "developers_quarantine.txt";
+    private static final String PROJ_QUARANTINE_FILE = "projects_quarantine.txt";
+    private static final String INCOMING_FILE = "incoming_projects.txt";
+    private static final String SIDECAR_FILE = "roster.idx";
+    private static final String ARCHIVE_DIR = "archive";
+    private static final String CHANGE_LOG_FILE = "changes.log";
+    private static final int CHANGE_LOG_BATCH = 256;
+    private static final String SALARY_HISTORY_FILE = "salary_history.dat";
+    private static final int SALARY_HISTORY_BATCH = 1024;
+    private static final int SUGGESTION_COUNT = 5;
+    private static final int NAME_SEARCH_LIMIT = 10;
+    private static final double SIMILAR_SALARY_WEIGHT = 0.2;
+    private static final double SIMILAR_EXPERIENCE_WEIGHT = 0.2;
+    private static final int QUERY_CACHE_SIZE = 64;
+    private static final Set<QueryCache.Collection> DEVELOPERS = EnumSet.of(QueryCache.Collection.DEVELOPERS);
+    private static final Set<QueryCache.Collection> PROJECTS = EnumSet.of(QueryCache.Collection.PROJECTS);
+    private static final Set<QueryCache.Collection> ALL_COLLECTIONS = EnumSet.allOf(QueryCache.Collection.class);
+    private AsyncPersistenceService persistence;
+    // Guards the derived indexes below, which describe indexedSnapshot. Writers
+    // on several threads update them in version order (see afterChange).
+    private final Object indexLock = new Object();
+    private final TreeMap<Long, PendingChange> pendingChanges = new TreeMap<>();
+    private Roster.Snapshot indexedSnapshot;
+    private ProjectIntervalIndex timeline;
+    private SkillIndex skillIndex;
+    private SimilarityIndex similarityIndex;
+    private NameIndex nameIndex;
+    private ProjectTextIndex projectTextIndex;
+    private ReplicationServer replication;
+    private ReplicaClient replica;
+    private EventBus events;
+    private ChangeLogSink changeLog;
+    private SalaryHistory salaryHistory;
+    private EventBus.Subscription salaryHistoryFeed;
+    private volatile IndexSidecar sidecar;
+    private long sidecarVersion;
+    private final QueryCache queryCache = new QueryCache(QUERY_CACHE_SIZE);
+    private ProjectArchive archive;
 
     /**
      * Constructor initializes the controller with a view and loads data.
      */
     public ManagementController() {
-        this.developers = FileService.loadDevelopers(DEV_FILE);
-        this.projects = FileService.loadProjects(PROJ_FILE);
-        this.view = new ConsoleView();
+        List<Developer> developers = FileService.loadDevelopers(DEV_FILE);
+        this.archive = new ProjectArchive(ARCHIVE_DIR);
+        List<Project> projects = archive.retainUnarchived(FileService.loadProjects(PROJ_FILE),
+                LocalDate.now().toEpochDay());
+        this.roster = new Roster(developers, projects);
+        syncIndexes();
+        this.persistence = new AsyncPersistenceService(DEV_FILE, PROJ_FILE);
+        persistence.setSidecarFile(SIDECAR_FILE);
+        openSidecar(developers, projects);
+        this.events = new EventBus(roster);
+        try {
+            this.changeLog = new ChangeLogSink(CHANGE_LOG_FILE);
+            events.subscribe("change-log", changeLog, CHANGE_LOG_BATCH);
+        } catch (IOException e) {
+            view.displayError("Warning: change log disabled: " + e.getMessage());
+        }
+        try {
+            this.salaryHistory = new SalaryHistory(SALARY_HISTORY_FILE);
+            salaryHistory.recordBaseline(developers, System.currentTimeMillis());
+            this.salaryHistoryFeed = events.subscribe("salary-history", salaryHistory::record,
+                    SALARY_HISTORY_BATCH);
+        } catch (IOException e) {
+            view.displayError("Warning: salary history disabled: " + e.getMessage());
+            this.salaryHistory = null;
+        }
+
+        // A current sidecar already counted the problems in this data.
+        IndexSidecar index = sidecar;
+        int issues = index != null ? index.getIssueCount()
+                : IntegrityChecker.check(developers, projects).getIssueCount();
+        if (issues > 0) {
+            view.displayError("Warning: " + issues + " data integrity problem(s) found. Use option 13 for details.");
+        }
     }
 
     /**
-     * Starts the main application loop with 12 menu options.
+     * Constructor for a read-only replica: data comes from the primary, not
+     * from files, and every change option is refused. Archived projects are
+     * read from the primary's archive directory, so a replica runs in the
+     * primary's working directory.
+     *
+     * @param replica A connected replica client.
+     */
+    public ManagementController(ReplicaClient replica) {
+        this.replica = replica;
+        this.roster = replica.getRoster();
+        // The primary's archive, read from the shared working directory.
+        this.archive = new ProjectArchive(ARCHIVE_DIR);
+        syncIndexes();
+    }
+
+    /**
+     * Constructor for scripted use without the console (load tests): works on
+     * the given roster and persists through the given service. There are no
+     * change events, salary history or index sidecar.
+     *
+     * @param roster      The data to operate on.
+     * @param persistence Where saves go.
+     */
+    public ManagementController(Roster roster, AsyncPersistenceService persistence) {
+        this.roster = roster;
+        this.persistence = persistence;
+        syncIndexes();
+    }
+
+    /**
+     * @return the change-event bus, for in-process subscribers (null on a
+     *         replica).
+     */
+    public EventBus getEvents() {
+        return events;
+    }
+
+    /**
+     * @return the query result cache, e.g. to turn it off for a benchmark.
+     */
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * Lets replicas connect to this controller's roster.
+     *
+     * @param port The loopback port to listen on.
+     * @throws IOException if the port cannot be opened.
+     */
+    public void startPrimary(int port) throws IOException {
+        replication = new ReplicationServer(roster, port);
+        view.displayMessage("Accepting replicas on port " + replication.getPort() + ".");
+    }
+
+    /**
+     * Starts the main application loop with 12 menu options plus maintenance
+     * options.
      */
     public void run() {
         while (true) {
+            syncIndexes();
             view.displayMenu();
             int choice = view.getUserChoice();
             switch (choice) {
@@ -71,240 +220,1137 @@ public class ManagementController {
                     saveData();
                     break;
                 case 12:
-                    quitProgram();
-                    return;
+                    if (quitProgram()) {
+                        return;
+                    }
+                    break;
+                case 13:
+                    checkDataIntegrity();
+                    break;
+                case 14:
+                    projectTimelineQueries();
+                    break;
+                case 15:
+                    autoAssignProjects();
+                    break;
+                case 16:
+                    searchDeveloperByName();
+                    break;
+                case 17:
+                    searchProjectsByText();
+                    break;
+                case 18:
+                    undoLastChange();
+                    break;
+                case 19:
+                    showReplicationStatus();
+                    break;
+                case 20:
+                    showEventSubscribers();
+                    break;
+                case 21:
+                    bulkAdjustSalaries();
+                    break;
+                case 22:
+                    salaryHistoryQueries();
+                    break;
+                case 23:
+                    showQueryCache();
+                    break;
+                case 24:
+                    projectArchive();
+                    break;
+                case 25:
+                    findSimilarDevelopers();
+                    break;
                 default:
-                    view.displayError("Invalid option! Please choose 1-12.");
+                    view.displayError("Invalid option! Please choose 1-25.");
             }
         }
     }
 
     // ==================== 1. LIST ALL DEVELOPERS ====================
     private void listAllDevelopers() {
-        view.displayDeveloperList(developers);
+        view.displayDeveloperList(roster.snapshot().getDevelopers());
     }
 
-    // ==================== 2. ADD A NEW DEVELOPER ====================
-    private void addDeveloper() {
-        view.displayMessage("\n--- Add New Developer ---");
+    // ==================== 6. ADD A NEW PROJECT ====================
+    private void addProject() {
+        if (!checkWritable()) {
+            return;
+        }
+        view.displayMessage("\n--- Add New Project ---");
 
-        String id = view.getDeveloperIdInput();
-        if (findDeveloperById(id) != null) {
-            view.displayError("Developer ID already exists!");
+        List<Developer> developers = roster.snapshot().getDevelopers();
+        if (developers.isEmpty()) {
+            view.displayError("No developers exist! Please add a developer first.");
             return;
         }
 
-        String name = view.getDeveloperNameInput();
-        String skillsInput = view.getSkillsInput();
-        List<String> skills = new ArrayList<>();
-        for (String s : skillsInput.split(",")) {
-            skills.add(s.trim());
+        String projId = view.getProjectIdInput();
+        if (projectIdExists(projId)) {
+            view.displayError("Project ID already exists!");
+            return;
         }
 
-        int salary = view.getSalaryInput();
+        String name = view.getProjectNameInput();
+        int duration = view.getDurationInput();
+        String startDate = view.getStartDateInput();
+        String clientName = view.getClientNameInput();
+        List<String> requiredSkills = parseSkills(view.getRequiredSkillsInput());
+
+        // Suggest the best-fitting developers, then select from menu
+        Project project = new Project(projId, "", name, duration, startDate, clientName);
+        view.displayCandidates(newAssignmentEngine().rank(project, requiredSkills, SUGGESTION_COUNT));
+        view.displayDeveloperMenu(developers);
+        int selection = view.getDeveloperSelection(developers.size());
+        project.setDevId(developers.get(selection - 1).getId());
 
-        developers.add(new Developer(id, name, skills, salary));
-        hasUnsavedChanges = true;
-        view.displayMessage("Developer added successfully!");
+        addProject(project);
+        view.displayMessage("Project added successfully!");
     }
 
-    // ==================== 3. SEARCH DEVELOPER BY ID ====================
-    private void searchDeveloperById() {
-        view.displayMessage("\n--- Search Developer by ID ---");
-        String id = view.getDeveloperIdSearchInput();
-        Developer dev = findDeveloperById(id);
+    // ==================== 7. LIST PROJECTS BY DEVELOPER (GROUPED)
+    // ====================
+    private void listProjectsByDeveloper() {
+        view.displayProjectsByDeveloper(getProjectsByDeveloper());
 
-        if (dev == null) {
-            view.displayError("Developer ID does not exist!");
-        } else {
-            view.displayDeveloper(dev);
+        List<Project> orphans = queryCache.get("orphaned-projects", ALL_COLLECTIONS, () -> {
+            Roster.Snapshot snapshot = roster.snapshot();
+            IndexSidecar index = currentSidecar(snapshot);
+            return Collections.unmodifiableList(index != null ? index.orphanedProjects(snapshot.getProjects())
+                    : IntegrityChecker.findOrphanedProjects(snapshot.getDevelopers(), snapshot.getProjects()));
+        });
+        if (!orphans.isEmpty()) {
+            view.displayError("\nProjects assigned to a developer that does not exist:");
+            view.displayProjectList(orphans);
+        }
+        refreshArchive();
+        if (archive != null && archive.getProjectCount() > 0) {
+            view.displayMessage("\n" + archive.getProjectCount()
+                    + " completed project(s) are archived (option 24); experience totals include them.");
         }
     }
 
-    // ==================== 4. UPDATE DEVELOPER'S SALARY ====================
-    private void updateDeveloperSalary() {
-        view.displayMessage("\n--- Update Developer Salary ---");
-        String id = view.getDeveloperIdSearchInput();
-        Developer dev = findDeveloperById(id);
+    private Map<Developer, List<Project>> groupProjectsByDeveloper() {
+        Roster.Snapshot snapshot = roster.snapshot();
+        List<Developer> developers = snapshot.getDevelopers();
+        List<Project> projects = snapshot.getProjects();
+        IndexSidecar index = currentSidecar(snapshot);
+        if (index != null) {
+            return Collections.unmodifiableMap(index.groupProjects(developers, projects));
+        }
+        Map<Developer, List<Project>> grouped = new LinkedHashMap<>();
 
-        if (dev == null) {
-            view.displayError("Developer ID does not exist!");
-            return;
+        for (Developer dev : developers) {
+            List<Project> devProjects = new ArrayList<>();
+            for (Project p : projects) {
+                if (p.getDevId().equalsIgnoreCase(dev.getId())) {
+                    devProjects.add(p);
+                }
+            }
+            grouped.put(dev, devProjects);
         }
+        return Collections.unmodifiableMap(grouped);
+    }
 
-        view.displayDeveloper(dev);
-        view.displayMessage("\nEnter new salary:");
-        int newSalary = view.getSalaryInput();
-        dev.setSalary(newSalary);
-        hasUnsavedChanges = true;
-        view.displayMessage("Developer salary updated successfully!");
+    // ==================== 11. SAVE DATA TO FILES ====================
+    // Returns false if the data could not be saved; the changes stay queued.
+    private boolean saveData() {
+        if (!checkWritable()) {
+            return false;
+        }
+        try {
+            save();
+        } catch (IOException e) {
+            view.displayError("Error saving data: " + e.getMessage());
+            return false;
+        }
+        view.displaySaveSuccess();
+        return true;
     }
 
-    // ==================== 5. LIST DEVELOPERS BY LANGUAGE ====================
-    private void listDevelopersByLanguage() {
-        view.displayMessage("\n--- List Developers by Language ---");
-        String language = view.getLanguageSearchInput();
+    // ==================== 12. QUIT PROGRAM ====================
+    // Returns false to stay in the menu when the chosen save failed.
+    private boolean quitProgram() {
+        if (replica != null) {
+            view.displayMessage("Goodbye!");
+            return true;
+        }
+        if (persistence.hasPendingChanges()) {
+            boolean save = view.getSaveConfirmation();
+            if (save) {
+                if (!saveData()) {
+                    view.displayError("Not quitting: save again, or quit without saving.");
+                    return false;
+                }
+            } else {
+                persistence.discardPending();
+            }
+        }
+        if (replication != null) {
+            replication.close();
+        }
+        persistence.shutdown();
+        events.close();
+        if (changeLog != null) {
+            changeLog.close();
+        }
+        view.displayMessage("Goodbye!");
+        return true;
+    }
 
-        List<Developer> filtered = new ArrayList<>();
-        for (Developer d : developers) {
-            for (String s : d.getSkills()) {
-                if (s.equalsIgnoreCase(language)) {
-                    filtered.add(d);
-                    break;
+    // ==================== 13. CHECK DATA INTEGRITY ====================
+    private void checkDataIntegrity() {
+        Roster.Snapshot snapshot = roster.snapshot();
+        IntegrityChecker.Report report = IntegrityChecker.check(snapshot.getDevelopers(), snapshot.getProjects());
+        view.displayIntegrityReport(report);
+        if (report.isClean() || replica != null) {
+            return;
+        }
+        if (view.getQuarantineConfirmation()) {
+            List<Developer> developers = new ArrayList<>(snapshot.getDevelopers());
+            List<Project> projects = new ArrayList<>(snapshot.getProjects());
+            try {
+                IntegrityChecker.quarantine(report, developers, projects, DEV_QUARANTINE_FILE,
+                        PROJ_QUARANTINE_FILE);
+            } catch (IOException e) {
+                view.displayError("Quarantine failed, the roster was not changed: " + e.getMessage());
+                return;
+            }
+            apply(Mutation.replaceAll(developers, projects));
+            // Undoing would bring the rows back while they stay in the quarantine files.
+            roster.clearUndo();
+            view.displayMessage(report.getIssueCount() + " row(s) moved to " + DEV_QUARANTINE_FILE + " / "
+                    + PROJ_QUARANTINE_FILE + ".");
+        }
+    }
+
+    // ==================== 14. PROJECT TIMELINE QUERIES ====================
+    private void projectTimelineQueries() {
+        view.displayTimelineMenu();
+        int choice = view.getUserChoice();
+        switch (choice) {
+            case 1: {
+                String date = view.getDateInput("date");
+                List<Project> active = getTimeline().activeAt(Project.parseEpochDay(date));
+                view.displayMessage("Projects active on " + date + ":");
+                view.displayProjectList(active);
+                break;
+            }
+            case 2: {
+                long[] range = getDateRangeInput();
+                if (range != null) {
+                    view.displayProjectList(getTimeline().overlapping(range[0], range[1]));
+                }
+                break;
+            }
+            case 3: {
+                long[] range = getDateRangeInput();
+                if (range != null) {
+                    view.displayDeveloperList(findFreeDevelopers(range[0], range[1]));
                 }
+                break;
             }
+            default:
+                view.displayError("Invalid option! Please choose 1-3.");
         }
+    }
 
-        if (filtered.isEmpty()) {
-            view.displayMessage("No developers found with language: " + language);
-        } else {
-            view.displayMessage("Developers with " + language + ":");
-            view.displayDeveloperList(filtered);
+    // Returns [from, to) in epoch-days with the end date included, or null.
+    private long[] getDateRangeInput() {
+        long from = view.getEpochDayInput("start date");
+        long to = view.getEpochDayInput("end date");
+        if (to < from) {
+            view.displayError("End date must not be before start date!");
+            return null;
         }
+        return new long[] { from, to + 1 };
     }
 
-    // ==================== 6. ADD A NEW PROJECT ====================
-    private void addProject() {
-        view.displayMessage("\n--- Add New Project ---");
+    private static String formatDate(long epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return String.format("%02d/%02d/%04d", date.getDayOfMonth(), date.getMonthValue(), date.getYear());
+    }
 
-        if (developers.isEmpty()) {
+    private List<Developer> findFreeDevelopers(long fromDay, long toDay) {
+        Set<String> busy = new HashSet<>();
+        for (Project p : getTimeline().overlapping(fromDay, toDay)) {
+            busy.add(p.getDevId().toUpperCase());
+        }
+        List<Developer> free = new ArrayList<>();
+        for (Developer d : roster.snapshot().getDevelopers()) {
+            if (!busy.contains(d.getId().toUpperCase())) {
+                free.add(d);
+            }
+        }
+        return free;
+    }
+
+    // ==================== 15. AUTO-ASSIGN INCOMING PROJECTS ====================
+    private void autoAssignProjects() {
+        if (!checkWritable()) {
+            return;
+        }
+        view.displayMessage("\n--- Auto-assign Incoming Projects ---");
+        if (roster.snapshot().getDevelopers().isEmpty()) {
             view.displayError("No developers exist! Please add a developer first.");
             return;
         }
 
-        String projId = view.getProjectIdInput();
-        if (findProjectById(projId) != null) {
-            view.displayError("Project ID already exists!");
+        String file = view.getIncomingFileInput(INCOMING_FILE);
+        List<AssignmentEngine.Request> requests = new ArrayList<>();
+        List<String> rejected = new ArrayList<>();
+        List<AssignmentEngine.Request> loaded = FileService.loadIncomingProjects(file, rejected);
+        for (String reason : rejected) {
+            view.displayError("Skipping " + reason);
+        }
+        for (AssignmentEngine.Request r : loaded) {
+            if (projectIdExists(r.getProject().getId())) {
+                view.displayError("Skipping " + r.getProject().getId() + ": Project ID already exists!");
+            } else {
+                requests.add(r);
+            }
+        }
+        if (requests.isEmpty()) {
+            view.displayMessage("No incoming projects to assign.");
             return;
         }
 
-        // Select developer from menu
-        view.displayDeveloperMenu(developers);
-        int selection = view.getDeveloperSelection(developers.size());
-        Developer selectedDev = developers.get(selection - 1);
+        Map<AssignmentEngine.Request, AssignmentEngine.Candidate> assignments = newAssignmentEngine()
+                .assignBatch(requests);
+        view.displayAssignments(assignments);
+        if (assignments.size() < requests.size()) {
+            view.displayError((requests.size() - assignments.size()) + " project(s) have no suitable developer.");
+        }
+        if (!assignments.isEmpty() && view.getConfirmation("Add these projects?")) {
+            for (Map.Entry<AssignmentEngine.Request, AssignmentEngine.Candidate> entry : assignments.entrySet()) {
+                entry.getKey().getProject().setDevId(entry.getValue().getDeveloper().getId());
+            }
+            // All or nothing: one bad row (e.g. a duplicate ID in the file) adds none of them.
+            try {
+                commit(tx -> {
+                    for (AssignmentEngine.Request r : assignments.keySet()) {
+                        tx.addProject(r.getProject());
+                    }
+                });
+            } catch (IllegalArgumentException e) {
+                view.displayError(e.getMessage() + " No projects were added.");
+                return;
+            }
+            view.displayMessage(assignments.size() + " project(s) added successfully!");
+        }
+    }
 
-        String name = view.getProjectNameInput();
-        int duration = view.getDurationInput();
-        String startDate = view.getStartDateInput();
-        String clientName = view.getClientNameInput();
+    // ==================== 16. SEARCH DEVELOPERS BY NAME ====================
+    private void searchDeveloperByName() {
+        view.displayMessage("\n--- Search Developers by Name ---");
+        String query = view.getNameSearchInput();
+        List<Developer> found;
+        synchronized (indexLock) {
+            found = getNameIndex().search(query, NAME_SEARCH_LIMIT);
+        }
+        if (found.isEmpty()) {
+            view.displayError("No developer found with name like: " + query);
+        } else {
+            view.displayDeveloperList(found);
+        }
+    }
 
-        projects.add(new Project(projId, selectedDev.getId(), name, duration, startDate, clientName));
-        hasUnsavedChanges = true;
-        view.displayMessage("Project added successfully!");
+    // ==================== 17. SEARCH PROJECTS BY NAME OR CLIENT ====================
+    private void searchProjectsByText() {
+        view.displayMessage("\n--- Search Projects ---");
+        String query = view.getProjectSearchInput();
+
+        Map<String, Developer> devById = new HashMap<>();
+        for (Developer d : roster.snapshot().getDevelopers()) {
+            devById.putIfAbsent(d.getId().toUpperCase(), d);
+        }
+        List<Project> matches;
+        synchronized (indexLock) {
+            matches = getProjectTextIndex().search(query);
+        }
+        Map<Project, Developer> results = new LinkedHashMap<>();
+        for (Project p : matches) {
+            results.put(p, devById.get(p.getDevId().toUpperCase()));
+        }
+        view.displayProjectSearchResults(results);
     }
 
-    // ==================== 7. LIST PROJECTS BY DEVELOPER (GROUPED)
-    // ====================
-    private void listProjectsByDeveloper() {
-        Map<Developer, List<Project>> grouped = new LinkedHashMap<>();
+    // ==================== 18. UNDO LAST CHANGE ====================
+    private void undoLastChange() {
+        if (!checkWritable()) {
+            return;
+        }
+        Mutation inverse = roster.undo();
+        if (inverse == null) {
+            view.displayError("Nothing to undo.");
+            return;
+        }
+        // Undo does not report the version it produced, so reindex rather than patch.
+        synchronized (indexLock) {
+            rebuildIndexes(roster.snapshot());
+            persistence.markChanged(indexedSnapshot);
+        }
+        view.displayMessage("Last change undone (" + roster.getUndoDepth() + " more can be undone).");
+    }
 
-        for (Developer dev : developers) {
-            List<Project> devProjects = new ArrayList<>();
-            for (Project p : projects) {
-                if (p.getDevId().equalsIgnoreCase(dev.getId())) {
-                    devProjects.add(p);
-                }
+    // ==================== 19. REPLICATION STATUS ====================
+    private void showReplicationStatus() {
+        if (replica != null) {
+            view.displayReplicaStatus(replica.isConnected(), replica.getAppliedVersion(),
+                    replica.getPrimaryVersion(), replica.getLag(), replica.getMillisSinceContact());
+        } else if (replication != null) {
+            view.displayPrimaryStatus(replication.getPort(), replication.getVersion(),
+                    replication.getReplicaStatus());
+        } else {
+            view.displayMessage("Replication is off (start with --primary <port> to accept replicas).");
+        }
+    }
+
+    // ==================== 20. CHANGE-EVENT SUBSCRIBERS ====================
+    private void showEventSubscribers() {
+        if (events == null) {
+            view.displayError("Change events are published by the primary only.");
+            return;
+        }
+        view.displayEventSubscribers(events.getPublished(), events.getSubscriptions());
+    }
+
+    // ==================== 21. BULK SALARY ADJUSTMENT ====================
+    private void bulkAdjustSalaries() {
+        if (!checkWritable()) {
+            return;
+        }
+        Predicate<Developer> filter;
+        view.displayBulkFilterMenu();
+        switch (view.getUserChoice()) {
+            case 1:
+                filter = SalaryAdjustment.hasSkill(view.getLanguageSearchInput());
+                break;
+            case 2: {
+                int min = view.getAmountInput("lowest salary in the band");
+                int max = view.getAmountInput("highest salary in the band");
+                filter = SalaryAdjustment.salaryBetween(min, max);
+                break;
             }
-            grouped.put(dev, devProjects);
+            case 3:
+                filter = d -> true;
+                break;
+            default:
+                view.displayError("Invalid option! Please choose 1-3.");
+                return;
+        }
+
+        IntUnaryOperator transform;
+        view.displayBulkTransformMenu();
+        switch (view.getUserChoice()) {
+            case 1:
+                transform = SalaryAdjustment.percent(view.getPercentInput("raise"));
+                break;
+            case 2:
+                transform = SalaryAdjustment.fixed(view.getAmountInput("raise in USD"));
+                break;
+            case 3:
+                transform = SalaryAdjustment.percent(-view.getPercentInput("cut"));
+                break;
+            case 4:
+                transform = SalaryAdjustment.fixed(-view.getAmountInput("cut in USD"));
+                break;
+            default:
+                view.displayError("Invalid option! Please choose 1-4.");
+                return;
         }
 
-        view.displayProjectsByDeveloper(grouped);
+        SalaryAdjustment.Plan plan = SalaryAdjustment.plan(roster.snapshot().getDevelopers(), filter, transform);
+        view.displaySalaryAdjustmentPlan(plan);
+        if (!plan.isValid()) {
+            view.displayError(plan.getBelowMinimum().size() + " salary(ies) would fall below "
+                    + Validation.MIN_SALARY + " USD. Nothing was changed.");
+            return;
+        }
+        if (plan.getUpdated().isEmpty()) {
+            view.displayMessage("No salary changes.");
+            return;
+        }
+        if (view.getConfirmation("Apply these salary changes?")) {
+            // Planned again inside the transaction, so the change applies to the salaries current at commit.
+            Mutation applied;
+            try {
+                applied = commit(tx -> {
+                    SalaryAdjustment.Plan current = tx.adjustSalaries(filter, transform);
+                    if (!current.isValid()) {
+                        throw new IllegalArgumentException(current.getBelowMinimum().size()
+                                + " salary(ies) would now fall below " + Validation.MIN_SALARY
+                                + " USD. Nothing was changed.");
+                    }
+                });
+            } catch (IllegalArgumentException e) {
+                view.displayError(e.getMessage());
+                return;
+            }
+            int count = applied == null ? 0 : applied.getDevelopers().size();
+            view.displayMessage(count + " salaries updated as one change (option 18 undoes all of them).");
+        }
     }
 
-    // ==================== 8. CALCULATE TOTAL EXPERIENCE ====================
-    private void calculateTotalExperience() {
-        view.displayMessage("\n--- Calculate Total Experience ---");
-        String id = view.getDeveloperIdSearchInput();
-        Developer dev = findDeveloperById(id);
+    // ==================== 22. SALARY HISTORY ====================
+    private void salaryHistoryQueries() {
+        if (salaryHistory == null) {
+            view.displayError("Salary history is kept by the primary only.");
+            return;
+        }
+        catchUpSalaryHistory();
+        view.displaySalaryHistoryMenu(salaryHistory.getEntryCount(), salaryHistory.getDeveloperCount(),
+                salaryHistory.getFileBytes());
+        switch (view.getUserChoice()) {
+            case 1: {
+                String id = view.getDeveloperIdSearchInput();
+                view.displaySalaryHistory(id.toUpperCase(), salaryHistory.getHistory(id));
+                break;
+            }
+            case 2: {
+                String id = view.getDeveloperIdSearchInput();
+                long day = view.getEpochDayInput("date");
+                String date = formatDate(day);
+                int salary = salaryHistory.salaryAsOf(id, SalaryHistory.endOfDay(day));
+                if (salary < 0) {
+                    view.displayError("No salary recorded for " + id + " by " + date + ".");
+                } else if (salary == 0) {
+                    view.displayMessage(id + " was not on the roster on " + date + ".");
+                } else {
+                    view.displayMessage("Salary of " + id + " on " + date + ": " + salary + " USD");
+                }
+                break;
+            }
+            case 3: {
+                long day = view.getEpochDayInput("date");
+                long[] total = salaryHistory.payrollAt(new long[] { SalaryHistory.endOfDay(day) });
+                view.displayPayrollSeries(Collections.singletonList(formatDate(day)), total);
+                break;
+            }
+            case 4: {
+                long[] range = getDateRangeInput();
+                if (range != null) {
+                    showMonthlyPayroll(range[0], range[1] - 1);
+                }
+                break;
+            }
+            default:
+                view.displayError("Invalid option! Please choose 1-4.");
+        }
+    }
 
-        if (dev == null) {
-            view.displayError("Developer ID does not exist!");
+    // Payroll at the end of each month from fromDay to toDay, plus toDay itself.
+    private void showMonthlyPayroll(long fromDay, long toDay) {
+        List<String> labels = new ArrayList<>();
+        List<Long> days = new ArrayList<>();
+        LocalDate end = LocalDate.ofEpochDay(toDay);
+        LocalDate month = LocalDate.ofEpochDay(fromDay).withDayOfMonth(1);
+        while (!month.isAfter(end)) {
+            LocalDate monthEnd = month.plusMonths(1).minusDays(1);
+            LocalDate sample = monthEnd.isAfter(end) ? end : monthEnd;
+            days.add(sample.toEpochDay());
+            labels.add(formatDate(sample.toEpochDay()));
+            month = month.plusMonths(1);
+        }
+        long[] samples = new long[days.size()];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = SalaryHistory.endOfDay(days.get(i));
+        }
+        view.displayPayrollSeries(labels, salaryHistory.payrollAt(samples));
+    }
+
+    // Fills a gap left by a failed append or a dropped subscription with the current salaries.
+    private void catchUpSalaryHistory() {
+        if (salaryHistoryFeed.isOverrun()) {
+            salaryHistory.markIncomplete(salaryHistoryFeed.getMissedSince());
+            salaryHistoryFeed.cancel();
+            salaryHistoryFeed = events.subscribe("salary-history", salaryHistory::record, SALARY_HISTORY_BATCH);
+        }
+        long since = salaryHistory.getIncompleteSince();
+        if (since == 0) {
             return;
         }
+        try {
+            salaryHistory.recordBaseline(roster.snapshot().getDevelopers(), System.currentTimeMillis());
+            view.displaySalaryHistoryGap(since, true);
+        } catch (IOException e) {
+            view.displaySalaryHistoryGap(since, false);
+            view.displayError("Error writing salary history: " + e.getMessage());
+        }
+    }
 
-        int totalMonths = 0;
-        for (Project p : projects) {
-            if (p.getDevId().equalsIgnoreCase(id)) {
-                totalMonths += p.getDurationMonths();
+    // ==================== 23. QUERY CACHE ====================
+    private void showQueryCache() {
+        view.displayQueryCacheStatus(queryCache);
+        boolean enabled = queryCache.isEnabled();
+        if (view.getConfirmation(enabled ? "Turn the cache off?" : "Turn the cache on?")) {
+            queryCache.setEnabled(!enabled);
+            queryCache.resetStatistics();
+            view.displayMessage("Query cache " + (enabled ? "off" : "on") + ".");
+        }
+    }
+
+    // ==================== 24. PROJECT ARCHIVE ====================
+    private void projectArchive() {
+        if (archive == null) {
+            view.displayError("The project archive is not available here.");
+            return;
+        }
+        refreshArchive();
+        view.displayArchiveMenu(archive.getSegmentCount(), archive.getProjectCount(), archive.getBytes());
+        switch (view.getUserChoice()) {
+            case 1:
+                archiveCompletedProjects();
+                break;
+            case 2: {
+                String id = view.getDeveloperIdSearchInput();
+                List<Project> archived = archive.projectsOf(id);
+                if (archived.isEmpty()) {
+                    view.displayMessage("No archived projects for " + id + ".");
+                } else {
+                    view.displayProjectList(archived);
+                }
+                break;
             }
+            default:
+                view.displayError("Invalid option! Please choose 1-2.");
         }
+    }
 
-        view.displayTotalExperience(id, totalMonths);
+    private void archiveCompletedProjects() {
+        if (!checkWritable()) {
+            return;
+        }
+        long today = LocalDate.now().toEpochDay();
+        Roster.Snapshot snapshot = roster.snapshot();
+        List<Project> projects = snapshot.getProjects();
+        List<Project> completed = new ArrayList<>();
+        List<Mutation> removals = new ArrayList<>();
+        int orphaned = 0;
+        // Remove from the end so every index stays valid within the batch.
+        for (int i = projects.size() - 1; i >= 0; i--) {
+            Project p = projects.get(i);
+            if (!ProjectArchive.isCompleted(p, today)) {
+                continue;
+            }
+            // An orphan's months would count for whoever is later added under that ID.
+            if (snapshot.findDeveloper(p.getDevId()) == null) {
+                orphaned++;
+                continue;
+            }
+            completed.add(p);
+            removals.add(Mutation.removeProject(p.getId(), i));
+        }
+        if (orphaned > 0) {
+            view.displayError(orphaned + " completed project(s) assigned to a developer that does not exist"
+                    + " are not archived (see option 13).");
+        }
+        if (completed.isEmpty()) {
+            view.displayMessage("No completed projects to archive.");
+            return;
+        }
+        if (!view.getConfirmation("Archive " + completed.size() + " completed project(s)?")) {
+            return;
+        }
+        long textBytes = 0;
+        for (Project p : completed) {
+            textBytes += FileService.formatProject(p).length() + 1;
+        }
+        long bytes;
+        try {
+            bytes = archive.archive(completed);
+        } catch (IOException e) {
+            view.displayError("Archiving failed, nothing was changed: " + e.getMessage());
+            return;
+        }
+        apply(removals.size() == 1 ? removals.get(0) : Mutation.batch(removals));
+        // The segment cannot be taken back, so neither can the removal.
+        roster.clearUndo();
+        view.displayMessage(String.format("%d project(s) archived (%d bytes, %.0f%% of their text size).",
+                completed.size(), bytes, textBytes == 0 ? 0.0 : bytes * 100.0 / textBytes));
+        try {
+            persistence.saveNow(roster.snapshot());
+        } catch (IOException e) {
+            // Still queued; if it is never saved, the next start drops the archived rows.
+            view.displayError("Error saving data: " + e.getMessage());
+        }
     }
 
-    // ==================== 9. REMOVE DEVELOPER BY ID ====================
-    private void removeDeveloper() {
-        view.displayMessage("\n--- Remove Developer ---");
+    // ==================== 25. FIND SIMILAR DEVELOPERS ====================
+    private void findSimilarDevelopers() {
+        view.displayMessage("\n--- Find Similar Developers ---");
         String id = view.getDeveloperIdSearchInput();
         Developer dev = findDeveloperById(id);
-
         if (dev == null) {
             view.displayError("Developer ID does not exist!");
             return;
         }
+        int count = view.getAmountInput("number of developers to show");
+        if (count <= 0) {
+            view.displayError("The number must be positive.");
+            return;
+        }
+        boolean weighted = view.getConfirmation("Also weigh salary and experience closeness?");
+        view.displaySimilarDevelopers(dev, findSimilarDevelopers(dev.getId(), count, weighted));
+    }
+
+    // ==================== OPERATIONS ====================
+    // The menu options above and scripted callers share these; they neither prompt nor print.
+
+    /**
+     * @param id Developer ID, any case.
+     * @return the developer, or null.
+     */
+    @Override
+    public Developer findDeveloper(String id) {
+        return findDeveloperById(id);
+    }
+
+    /**
+     * @param language A skill, any case.
+     * @return developers having it, in roster order (do not modify).
+     */
+    @Override
+    public List<Developer> findDevelopersByLanguage(String language) {
+        return queryCache.get("language:" + language.trim().toLowerCase(), DEVELOPERS, () -> {
+            Roster.Snapshot snapshot = roster.snapshot();
+            IndexSidecar index = currentSidecar(snapshot);
+            return index != null
+                    ? Collections.unmodifiableList(index.findBySkill(snapshot.getDevelopers(), language))
+                    : getSkillIndex().find(language);
+        });
+    }
+
+    /**
+     * @return developers by ascending salary (do not modify).
+     */
+    @Override
+    public List<Developer> getDevelopersSortedBySalary() {
+        return queryCache.get("sorted-by-salary", DEVELOPERS, () -> {
+            Roster.Snapshot snapshot = roster.snapshot();
+            IndexSidecar index = currentSidecar(snapshot);
+            if (index != null) {
+                return Collections.unmodifiableList(index.sortedBySalary(snapshot.getDevelopers()));
+            }
+            List<Developer> list = new ArrayList<>(snapshot.getDevelopers());
+            Collections.sort(list, Comparator.comparingDouble(Developer::getSalary));
+            return Collections.unmodifiableList(list);
+        });
+    }
+
+    /**
+     * @return every developer with their projects, in roster order (do not
+     *         modify).
+     */
+    public Map<Developer, List<Project>> getProjectsByDeveloper() {
+        return queryCache.get("projects-by-developer", ALL_COLLECTIONS, this::groupProjectsByDeveloper);
+    }
+
+    /**
+     * @param devId Developer ID, any case.
+     * @return total months over the developer's projects, archived ones
+     *         included.
+     */
+    @Override
+    public int getTotalExperience(String devId) {
+        refreshArchive();
+        int totalMonths = archive == null ? 0 : archive.summaryOf(devId).getMonths();
+        for (Project p : projectsOf(devId)) {
+            totalMonths += p.getDurationMonths();
+        }
+        return totalMonths;
+    }
+
+    /**
+     * @param devId    Developer ID, any case.
+     * @param count    Number of developers to return at most.
+     * @param weighted Whether salary and experience closeness count besides
+     *                 the skills.
+     * @return the developers with the most similar skill sets, best first,
+     *         excluding the given one.
+     * @throws IllegalArgumentException if the developer does not exist.
+     */
+    public List<SimilarityIndex.Match> findSimilarDevelopers(String devId, int count, boolean weighted) {
+        return getSimilarityIndex().findSimilar(devId, count, weighted ? SIMILAR_SALARY_WEIGHT : 0,
+                weighted ? SIMILAR_EXPERIENCE_WEIGHT : 0);
+    }
+
+    /**
+     * @param id     Developer ID, any case.
+     * @param salary The new salary.
+     * @throws IllegalArgumentException if the developer does not exist or
+     *                                  the salary is below the minimum.
+     * @throws IllegalStateException    on a read-only replica.
+     */
+    @Override
+    public void updateSalary(String id, int salary) {
+        requireWritable();
+        commit(tx -> tx.updateSalary(id, salary));
+    }
+
+    /**
+     * @param developer The new developer.
+     * @throws IllegalArgumentException if the ID already exists or the
+     *                                  salary is below the minimum.
+     * @throws IllegalStateException    on a read-only replica.
+     */
+    @Override
+    public void addDeveloper(Developer developer) {
+        requireWritable();
+        commit(tx -> tx.addDeveloper(developer));
+    }
+
+    /**
+     * @param id Developer ID, any case.
+     * @throws IllegalArgumentException if the developer does not exist or is
+     *                                  assigned to projects, archived ones
+     *                                  included.
+     * @throws IllegalStateException    on a read-only replica.
+     */
+    @Override
+    public void removeDeveloper(String id) {
+        requireWritable();
+        if (!projectsOf(id).isEmpty() || archive != null && archive.summaryOf(id).getProjects() > 0) {
+            throw new IllegalArgumentException("Cannot delete: Developer is assigned to projects.");
+        }
+        commit(tx -> tx.removeDeveloper(id));
+    }
 
-        // Check if developer has associated projects
-        boolean hasProjects = false;
+    /**
+     * @param project The project; its developer must exist and its ID must be
+     *                new.
+     * @throws IllegalArgumentException if either condition fails, or the
+     *                                  duration is under one month.
+     * @throws IllegalStateException    on a read-only replica.
+     */
+    public void addProject(Project project) {
+        requireWritable();
+        if (archive != null && archive.containsProject(project.getId())) {
+            throw new IllegalArgumentException("Project ID already exists!");
+        }
+        commit(tx -> tx.addProject(project));
+    }
+
+    /**
+     * Adds a developer together with their first projects, all or nothing.
+     *
+     * @param developer The new developer.
+     * @param projects  New projects, assigned to the developer.
+     * @throws IllegalArgumentException if an ID already exists, or a salary
+     *                                  or duration is out of range.
+     * @throws IllegalStateException    on a read-only replica, or if
+     *                                  concurrent changes kept conflicting.
+     */
+    public void addDeveloperWithProjects(Developer developer, List<Project> projects) {
+        requireWritable();
         for (Project p : projects) {
-            if (p.getDevId().equalsIgnoreCase(id)) {
-                hasProjects = true;
+            if (archive != null && archive.containsProject(p.getId())) {
+                throw new IllegalArgumentException("Project ID already exists: " + p.getId());
+            }
+        }
+        commit(tx -> {
+            tx.addDeveloper(developer);
+            for (Project p : projects) {
+                p.setDevId(developer.getId());
+                tx.addProject(p);
+            }
+        });
+    }
+
+    /**
+     * Writes the current data and blocks until it is on disk.
+     *
+     * @throws IOException           if the files cannot be written; the
+     *                               changes stay queued.
+     * @throws IllegalStateException on a read-only replica.
+     */
+    public void save() throws IOException {
+        requireWritable();
+        persistence.saveNow(roster.snapshot());
+    }
+
+    // ==================== HELPER METHODS ====================
+    @Override
+    protected boolean checkWritable() {
+        if (replica != null) {
+            view.displayError("Read-only replica: changes must be made on the primary.");
+            return false;
+        }
+        return true;
+    }
+
+    private void requireWritable() {
+        if (replica != null) {
+            throw new IllegalStateException("Read-only replica: changes must be made on the primary.");
+        }
+    }
+
+    // A replica's roster changes in the background, so rebuild the indexes when it has moved on.
+    private void syncIndexes() {
+        synchronized (indexLock) {
+            Roster.Snapshot snapshot = roster.snapshot();
+            if (indexedSnapshot == null || snapshot.getVersion() != indexedSnapshot.getVersion()) {
+                rebuildIndexes(snapshot);
+            }
+        }
+    }
+
+    // Caller holds indexLock.
+    private void rebuildIndexes(Roster.Snapshot snapshot) {
+        nameIndex = null;
+        projectTextIndex = null;
+        timeline = null;
+        skillIndex = null;
+        similarityIndex = null;
+        queryCache.bump(ALL_COLLECTIONS);
+        indexedSnapshot = snapshot;
+        pendingChanges.headMap(snapshot.getVersion(), true).clear();
+    }
+
+    private void apply(Mutation mutation) {
+        afterChange(roster.apply(mutation), mutation);
+    }
+
+    // Runs the work as one transaction (retried on conflict) and updates the indexes once.
+    private Mutation commit(Consumer<Transaction> work) {
+        Transaction tx = Transaction.run(roster, work);
+        if (tx.getMutation() != null) {
+            afterChange(tx.getCommittedSnapshot(), tx.getMutation());
+        }
+        return tx.getMutation();
+    }
+
+    // Brings the indexes up to date with a mutation that produced 'after'. With
+    // concurrent writers the calls can arrive out of order, so a change is held
+    // until the one before it has been patched in; one already covered by a
+    // rebuild is dropped.
+    private void afterChange(Roster.Snapshot after, Mutation mutation) {
+        synchronized (indexLock) {
+            if (after.getVersion() > indexedSnapshot.getVersion()) {
+                pendingChanges.put(after.getVersion(), new PendingChange(after, mutation));
+            }
+            PendingChange next;
+            while ((next = pendingChanges.remove(indexedSnapshot.getVersion() + 1)) != null) {
+                patchIndexes(indexedSnapshot, next.after, next.mutation);
+            }
+            pendingChanges.headMap(indexedSnapshot.getVersion(), true).clear();
+            persistence.markChanged(indexedSnapshot);
+        }
+    }
+
+    // Caller holds indexLock; 'before' is the indexed version and 'after' the next one.
+    private void patchIndexes(Roster.Snapshot before, Roster.Snapshot after, Mutation mutation) {
+        // The name and text indexes are only patched once built; otherwise they are built on first search.
+        switch (mutation.getType()) {
+            case ADD_DEVELOPER:
+                if (nameIndex != null) {
+                    nameIndex.add(mutation.getDeveloper());
+                }
+                break;
+            case UPDATE_SALARY:
+                if (nameIndex != null) {
+                    nameIndex.remove(before.findDeveloper(mutation.getId()));
+                    nameIndex.add(after.findDeveloper(mutation.getId()));
+                }
+                break;
+            case UPDATE_SALARIES:
+                nameIndex = null;
+                break;
+            case REMOVE_DEVELOPER:
+                if (nameIndex != null) {
+                    nameIndex.remove(mutation.getIndex() < 0 ? before.findDeveloper(mutation.getId())
+                            : before.getDevelopers().get(mutation.getIndex()));
+                }
+                break;
+            case ADD_PROJECT:
+                if (projectTextIndex != null) {
+                    projectTextIndex.add(mutation.getProject());
+                }
                 break;
+            default:
+                nameIndex = null;
+                projectTextIndex = null;
+        }
+        timeline = null;
+        skillIndex = null;
+        similarityIndex = updatedSimilarityIndex(mutation, after);
+        queryCache.bump(changedCollections(mutation));
+        indexedSnapshot = after;
+    }
+
+    // Salary and project additions leave the skill sets alone, so patch the index instead of dropping it.
+    private SimilarityIndex updatedSimilarityIndex(Mutation mutation, Roster.Snapshot after) {
+        SimilarityIndex index = similarityIndex;
+        if (index == null) {
+            return null;
+        }
+        switch (mutation.getType()) {
+            case UPDATE_SALARY: {
+                Developer dev = after.findDeveloper(mutation.getId());
+                return index.withDeveloper(dev, index.getMonths(dev.getId()));
+            }
+            case ADD_PROJECT: {
+                Project p = mutation.getProject();
+                Developer dev = after.findDeveloper(p.getDevId());
+                return index.withDeveloper(dev, index.getMonths(dev.getId()) + p.getDurationMonths());
+            }
+            default:
+                return null;
+        }
+    }
+
+    private static Set<QueryCache.Collection> changedCollections(Mutation mutation) {
+        switch (mutation.getType()) {
+            case ADD_DEVELOPER:
+            case UPDATE_SALARY:
+            case UPDATE_SALARIES:
+            case REMOVE_DEVELOPER:
+                return DEVELOPERS;
+            case ADD_PROJECT:
+            case REMOVE_PROJECT:
+                return PROJECTS;
+            default:
+                return ALL_COLLECTIONS;
+        }
+    }
+
+    // The lazily built indexes are built under indexLock from the indexed version,
+    // so one built concurrently with a change can never outlive it.
+    private NameIndex getNameIndex() {
+        synchronized (indexLock) {
+            if (nameIndex == null) {
+                nameIndex = new NameIndex(indexedSnapshot.getDevelopers());
             }
+            return nameIndex;
         }
+    }
 
-        if (hasProjects) {
-            view.displayError("Cannot delete: Developer is assigned to projects.");
-            return;
+    private ProjectTextIndex getProjectTextIndex() {
+        synchronized (indexLock) {
+            if (projectTextIndex == null) {
+                projectTextIndex = new ProjectTextIndex(indexedSnapshot.getProjects());
+            }
+            return projectTextIndex;
         }
+    }
 
-        developers.remove(dev);
-        hasUnsavedChanges = true;
-        view.displayMessage("Developer removed successfully!");
+    private ProjectIntervalIndex getTimeline() {
+        synchronized (indexLock) {
+            if (timeline == null) {
+                timeline = new ProjectIntervalIndex(indexedSnapshot.getProjects());
+            }
+            return timeline;
+        }
     }
 
-    // ==================== 10. SORT DEVELOPERS BY SALARY ====================
-    private void sortDevelopersBySalary() {
-        view.displayMessage("\n--- Developers Sorted by Salary (Ascending) ---");
-        List<Developer> sorted = new ArrayList<>(developers);
-        Collections.sort(sorted, Comparator.comparingDouble(Developer::getSalary));
-        view.displayDeveloperList(sorted);
+    private SkillIndex getSkillIndex() {
+        synchronized (indexLock) {
+            if (skillIndex == null) {
+                skillIndex = new SkillIndex(indexedSnapshot.getDevelopers());
+            }
+            return skillIndex;
+        }
     }
 
-    // ==================== 11. SAVE DATA TO FILES ====================
-    private void saveData() {
-        FileService.saveDevelopers(DEV_FILE, developers);
-        FileService.saveProjects(PROJ_FILE, projects);
-        hasUnsavedChanges = false;
-        view.displaySaveSuccess();
+    private SimilarityIndex getSimilarityIndex() {
+        synchronized (indexLock) {
+            if (similarityIndex == null) {
+                Roster.Snapshot snapshot = indexedSnapshot;
+                // One pass over the projects instead of a lookup per developer.
+                Map<String, Integer> months = new HashMap<>();
+                for (Project p : snapshot.getProjects()) {
+                    months.merge(p.getDevId().toUpperCase(), p.getDurationMonths(), Integer::sum);
+                }
+                refreshArchive();
+                similarityIndex = new SimilarityIndex(snapshot.getDevelopers(),
+                        d -> months.getOrDefault(d.getId().toUpperCase(), 0)
+                                + (archive == null ? 0 : archive.summaryOf(d.getId()).getMonths()));
+            }
+            return similarityIndex;
+        }
     }
 
-    // ==================== 12. QUIT PROGRAM ====================
-    private void quitProgram() {
-        if (hasUnsavedChanges) {
-            boolean save = view.getSaveConfirmation();
-            if (save) {
-                saveData();
+    // A replica reads segments as the primary writes them. The primary writes a segment before it
+    // removes the projects, so a refresh after reading a snapshot covers everything that snapshot lacks.
+    private void refreshArchive() {
+        if (replica != null) {
+            archive.refresh();
+        }
+    }
+
+    private AssignmentEngine newAssignmentEngine() {
+        return new AssignmentEngine(roster.snapshot().getDevelopers(), getSkillIndex(), getTimeline());
+    }
+
+    private List<String> parseSkills(String input) {
+        List<String> skills = new ArrayList<>();
+        for (String s : input.split(",")) {
+            if (!s.trim().isEmpty()) {
+                skills.add(s.trim());
             }
         }
-        view.displayMessage("Goodbye!");
+        return skills;
     }
 
-    // ==================== HELPER METHODS ====================
-    private Developer findDeveloperById(String id) {
-        for (Developer d : developers) {
-            if (d.getId().equalsIgnoreCase(id)) {
-                return d;
+    // Maps the persisted indexes. If the data files changed since they were written, they are rebuilt in the
+    // background and the in-memory paths answer meanwhile.
+    private void openSidecar(List<Developer> developers, List<Project> projects) {
+        sidecarVersion = roster.snapshot().getVersion();
+        sidecar = IndexSidecar.open(SIDECAR_FILE, DEV_FILE, PROJ_FILE, developers.size(), projects.size());
+        if (sidecar == null) {
+            persistence.writeSidecarLater(roster.snapshot(), () -> sidecar = IndexSidecar.open(SIDECAR_FILE,
+                    DEV_FILE, PROJ_FILE, developers.size(), projects.size()));
+        }
+    }
+
+    // The sidecar describes the data as loaded; after the first change the in-memory paths take over.
+    // Callers pass the snapshot they read, since its row numbers only fit that version.
+    private IndexSidecar currentSidecar(Roster.Snapshot snapshot) {
+        return snapshot.getVersion() == sidecarVersion ? sidecar : null;
+    }
+
+    private List<Project> projectsOf(String devId) {
+        Roster.Snapshot snapshot = roster.snapshot();
+        IndexSidecar index = currentSidecar(snapshot);
+        if (index != null) {
+            return index.projectsOf(snapshot.getDevelopers(), snapshot.getProjects(), devId);
+        }
+        List<Project> result = new ArrayList<>();
+        for (Project p : snapshot.getProjects()) {
+            if (p.getDevId().equalsIgnoreCase(devId)) {
+                result.add(p);
             }
         }
-        return null;
+        return result;
+    }
+
+    private Developer findDeveloperById(String id) {
+        Roster.Snapshot snapshot = roster.snapshot();
+        IndexSidecar index = currentSidecar(snapshot);
+        if (index != null) {
+            return index.findDeveloper(snapshot.getDevelopers(), id);
+        }
+        return snapshot.findDeveloper(id);
+    }
+
+    private boolean projectIdExists(String id) {
+        return findProjectById(id) != null || archive != null && archive.containsProject(id);
     }
 
     private Project findProjectById(String id) {
-        for (Project p : projects) {
-            if (p.getId().equalsIgnoreCase(id)) {
-                return p;
-            }
+        return roster.snapshot().findProject(id);
+    }
+
+    // A committed change waiting for an earlier one to be indexed first.
+    private static class PendingChange {
+        private final Roster.Snapshot after;
+        private final Mutation mutation;
+
+        PendingChange(Roster.Snapshot after, Mutation mutation) {
+            this.after = after;
+            this.mutation = mutation;
         }
-        return null;
     }
 }
@@ -0,0 +1,265 @@
+package controller;
+
+import entity.Developer;
+import entity.Project;
+import util.FileService;
+import util.IntegrityChecker;
+import util.Mutation;
+import util.ProjectArchive;
+import util.ShardCoordinator;
+import util.Validation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Controller for the sharded deployment: runs the 12 Lab211 menu functions
+ * against a {@link ShardCoordinator} instead of an in-process roster. The
+ * data files are read once at startup and partitioned over the shards;
+ * "Save data" streams them back shard by shard into temporary files that
+ * replace the data files once complete, and the listings are shown shard by
+ * shard, so the whole roster is never gathered into this process. Archived
+ * projects (see {@link ProjectArchive}) stay in this process, read-only:
+ * they count towards experience, keep their developer from being removed
+ * and keep their IDs taken.
+ */
+public class ShardedController extends BaseController {
+    private static final String DEV_FILE = "developers.txt";
+    private static final String PROJ_FILE = "projects.txt";
+    private static final String ARCHIVE_DIR = "archive";
+    private final ShardCoordinator shards;
+    private final ProjectArchive archive = new ProjectArchive(ARCHIVE_DIR);
+    private boolean unsaved = false;
+
+    /**
+     * Loads the data files into the shards.
+     *
+     * @param shards The connected shards.
+     */
+    public ShardedController(ShardCoordinator shards) {
+        this.shards = shards;
+        shards.load(FileService.loadDevelopers(DEV_FILE),
+                archive.retainUnarchived(FileService.loadProjects(PROJ_FILE), LocalDate.now().toEpochDay()));
+        view.displayMessage("Data partitioned over " + shards.getShardCount() + " shard(s).");
+    }
+
+    /**
+     * Starts the main application loop. Maintenance options (13+) need the
+     * whole roster in one process and are not offered here.
+     */
+    public void run() {
+        while (true) {
+            view.displayBasicMenu();
+            int choice = view.getUserChoice();
+            try {
+                switch (choice) {
+                    case 1:
+                        listAllDevelopers();
+                        break;
+                    case 2:
+                        addDeveloper();
+                        break;
+                    case 3:
+                        searchDeveloperById();
+                        break;
+                    case 4:
+                        updateDeveloperSalary();
+                        break;
+                    case 5:
+                        listDevelopersByLanguage();
+                        break;
+                    case 6:
+                        addProject();
+                        break;
+                    case 7:
+                        listProjectsByDeveloper();
+                        break;
+                    case 8:
+                        calculateTotalExperience();
+                        break;
+                    case 9:
+                        removeDeveloper();
+                        break;
+                    case 10:
+                        sortDevelopersBySalary();
+                        break;
+                    case 11:
+                        saveData();
+                        break;
+                    case 12:
+                        quitProgram();
+                        return;
+                    default:
+                        view.displayError("Invalid option! Please choose 1-12.");
+                }
+            } catch (IllegalArgumentException | UncheckedIOException e) {
+                // A rejected change, or a shard that stopped answering (the message names it)
+                view.displayError(e.getMessage());
+            }
+        }
+    }
+
+    // ==================== OPERATIONS ====================
+    @Override
+    public Developer findDeveloper(String id) {
+        return shards.findDeveloper(id);
+    }
+
+    @Override
+    public List<Developer> findDevelopersByLanguage(String language) {
+        return shards.findByLanguage(language);
+    }
+
+    @Override
+    public List<Developer> getDevelopersSortedBySalary() {
+        return shards.sortedBySalary();
+    }
+
+    @Override
+    public int getTotalExperience(String devId) {
+        return (int) shards.totalExperience(devId) + archive.summaryOf(devId).getMonths();
+    }
+
+    @Override
+    public void addDeveloper(Developer developer) {
+        Validation.requireSalary(developer.getSalary());
+        change(Mutation.addDeveloper(developer));
+    }
+
+    @Override
+    public void updateSalary(String id, int salary) {
+        Validation.requireSalary(salary);
+        change(Mutation.updateSalary(id, salary));
+    }
+
+    // The shard refuses if the developer still has projects; archived ones are checked here.
+    @Override
+    public void removeDeveloper(String id) {
+        if (archive.summaryOf(id).getProjects() > 0) {
+            throw new IllegalArgumentException("Cannot delete: Developer is assigned to projects.");
+        }
+        change(Mutation.removeDeveloper(id));
+    }
+
+    // ==================== 1. LIST ALL DEVELOPERS ====================
+    private void listAllDevelopers() {
+        view.displayDeveloperListHeader();
+        int count = 0;
+        for (int i = 0; i < shards.getShardCount(); i++) {
+            List<Developer> developers = shards.listDevelopers(i);
+            view.displayDeveloperRows(developers);
+            count += developers.size();
+        }
+        if (count == 0) {
+            view.displayMessage("No developers found.");
+        }
+    }
+
+    // ==================== 6. ADD A NEW PROJECT ====================
+    // The developer is chosen by ID rather than from a menu of every developer.
+    private void addProject() {
+        view.displayMessage("\n--- Add New Project ---");
+        String projId = view.getProjectIdInput();
+        if (shards.findProject(projId) != null || archive.containsProject(projId)) {
+            view.displayError("Project ID already exists!");
+            return;
+        }
+        String name = view.getProjectNameInput();
+        int duration = view.getDurationInput();
+        String startDate = view.getStartDateInput();
+        String clientName = view.getClientNameInput();
+        Developer dev = shards.findDeveloper(view.getAssigneeIdInput());
+        if (dev == null) {
+            view.displayError("Developer ID does not exist!");
+            return;
+        }
+        change(Mutation.addProject(new Project(projId, dev.getId(), name, duration, startDate, clientName)));
+        view.displayMessage("Project added successfully!");
+    }
+
+    // ==================== 7. LIST PROJECTS BY DEVELOPER (GROUPED)
+    // ====================
+    private void listProjectsByDeveloper() {
+        view.displayProjectsByDeveloperHeader();
+        List<Project> orphans = new ArrayList<>();
+        boolean empty = true;
+        for (int i = 0; i < shards.getShardCount(); i++) {
+            List<Developer> developers = new ArrayList<>();
+            List<Project> projects = new ArrayList<>();
+            shards.dump(i, developers, projects);
+            Map<Developer, List<Project>> grouped = new LinkedHashMap<>();
+            Map<String, List<Project>> byDevId = new HashMap<>();
+            for (Developer dev : developers) {
+                List<Project> devProjects = new ArrayList<>();
+                grouped.put(dev, devProjects);
+                byDevId.putIfAbsent(dev.getId().toUpperCase(), devProjects);
+            }
+            for (Project p : projects) {
+                List<Project> devProjects = byDevId.get(p.getDevId().toUpperCase());
+                if (devProjects != null) {
+                    devProjects.add(p);
+                }
+            }
+            view.displayDeveloperProjects(grouped);
+            // A project's developer would be on the same shard, so each shard is checked on its own.
+            orphans.addAll(IntegrityChecker.findOrphanedProjects(developers, projects));
+            empty &= grouped.isEmpty();
+        }
+        if (empty) {
+            view.displayMessage("No data found.");
+        }
+
+        if (!orphans.isEmpty()) {
+            view.displayError("\nProjects assigned to a developer that does not exist:");
+            view.displayProjectList(orphans);
+        }
+        if (archive.getProjectCount() > 0) {
+            view.displayMessage("\n" + archive.getProjectCount()
+                    + " completed project(s) are archived; experience totals include them.");
+        }
+    }
+
+    // ==================== 11. SAVE DATA TO FILES ====================
+    private void saveData() {
+        // Both files are replaced only once every shard has been dumped.
+        try (FileService.ReplacementWriter devOut = FileService.openReplacement(DEV_FILE);
+                FileService.ReplacementWriter projOut = FileService.openReplacement(PROJ_FILE)) {
+            for (int i = 0; i < shards.getShardCount(); i++) {
+                List<Developer> developers = new ArrayList<>();
+                List<Project> projects = new ArrayList<>();
+                shards.dump(i, developers, projects);
+                for (Developer dev : developers) {
+                    devOut.write(FileService.formatDeveloper(dev));
+                    devOut.newLine();
+                }
+                for (Project proj : projects) {
+                    projOut.write(FileService.formatProject(proj));
+                    projOut.newLine();
+                }
+            }
+            devOut.commit();
+            projOut.commit();
+        } catch (IOException | UncheckedIOException e) {
+            view.displayError("Error saving data: " + e.getMessage());
+            return;
+        }
+        unsaved = false;
+        view.displaySaveSuccess();
+    }
+
+    // ==================== 12. QUIT PROGRAM ====================
+    private void quitProgram() {
+        if (unsaved && view.getSaveConfirmation()) {
+            saveData();
+        }
+        shards.close();
+        view.displayMessage("Goodbye!");
+    }
+
+    private void change(Mutation mutation) {
+        shards.apply(mutation);
+        unsaved = true;
+    }
+}
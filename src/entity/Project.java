@@ -1,15 +1,29 @@
 package entity;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+
 /**
  * Represents a project in the management system.
  * Extends BaseEntity for common entity behavior (Inheritance + Polymorphism).
+ * The start date is kept both as the dd/MM/yyyy text and as a parsed
+ * epoch-day, so date queries never reparse strings.
  */
 public class Project extends BaseEntity {
+    /** Epoch-day value used when the start date cannot be parsed. */
+    public static final long UNKNOWN_DATE = Long.MIN_VALUE;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("d/M/uuuu")
+            .withResolverStyle(ResolverStyle.STRICT);
+
     private String devId;
     private String name;
     private int durationMonths;
     private String startDate;
     private String clientName;
+    private long startEpochDay;
+    private long endEpochDay;
 
     /**
      * Constructor to initialize a Project object.
@@ -28,6 +42,29 @@ public class Project extends BaseEntity {
         this.durationMonths = durationMonths;
         this.startDate = startDate;
         this.clientName = clientName;
+        updateEpochDays();
+    }
+
+    /**
+     * Parses a dd/MM/yyyy date to an epoch-day. Single-digit day and month
+     * are accepted too, as with the input validation.
+     * 
+     * @param date The date string.
+     * @return the epoch-day, or {@link #UNKNOWN_DATE} if the date is invalid.
+     */
+    public static long parseEpochDay(String date) {
+        try {
+            return LocalDate.parse(date, DATE_FORMAT).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return UNKNOWN_DATE;
+        }
+    }
+
+    // End is exclusive: a 12-month project from 01/01/2026 ends on 01/01/2027.
+    private void updateEpochDays() {
+        startEpochDay = parseEpochDay(startDate);
+        endEpochDay = startEpochDay == UNKNOWN_DATE ? UNKNOWN_DATE
+                : LocalDate.ofEpochDay(startEpochDay).plusMonths(durationMonths).toEpochDay();
     }
 
     public String getDevId() {
@@ -52,6 +89,7 @@ public class Project extends BaseEntity {
 
     public void setDurationMonths(int durationMonths) {
         this.durationMonths = durationMonths;
+        updateEpochDays();
     }
 
     public String getStartDate() {
@@ -60,6 +98,15 @@ public class Project extends BaseEntity {
 
     public void setStartDate(String startDate) {
         this.startDate = startDate;
+        updateEpochDays();
+    }
+
+    public long getStartEpochDay() {
+        return startEpochDay;
+    }
+
+    public long getEndEpochDay() {
+        return endEpochDay;
     }
 
     public String getClientName() {
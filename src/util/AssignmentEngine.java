@@ -0,0 +1,231 @@
+package util;
+
+import entity.Developer;
+import entity.Project;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Ranks developers for new projects.
+ *
+ * A candidate's score combines three terms, each in [0, 1]:
+ * <ul>
+ * <li>skill coverage: share of the required skills the developer has;</li>
+ * <li>availability: 1 / (1 + number of projects overlapping the new one);</li>
+ * <li>cost: 1 for the cheapest developer down to 0 for the most expensive.</li>
+ * </ul>
+ * Only developers sharing at least one required skill are scored (found
+ * through the {@link SkillIndex}); without required skills everyone is.
+ * Scoring runs as a parallel stream over the candidates.
+ */
+public class AssignmentEngine {
+    private static final double SKILL_WEIGHT = 0.6;
+    private static final double AVAILABILITY_WEIGHT = 0.3;
+    private static final double COST_WEIGHT = 0.1;
+
+    private final List<Developer> developers;
+    private final SkillIndex skillIndex;
+    private final ProjectIntervalIndex timeline;
+    private final int minSalary;
+    private final int maxSalary;
+
+    /**
+     * A scored developer.
+     */
+    public static class Candidate {
+        private final Developer developer;
+        private final double score;
+        private final int matchedSkills;
+        private final int overlappingProjects;
+
+        Candidate(Developer developer, double score, int matchedSkills, int overlappingProjects) {
+            this.developer = developer;
+            this.score = score;
+            this.matchedSkills = matchedSkills;
+            this.overlappingProjects = overlappingProjects;
+        }
+
+        public Developer getDeveloper() {
+            return developer;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public int getMatchedSkills() {
+            return matchedSkills;
+        }
+
+        public int getOverlappingProjects() {
+            return overlappingProjects;
+        }
+    }
+
+    /**
+     * A project waiting for a developer.
+     */
+    public static class Request {
+        private final Project project;
+        private final List<String> requiredSkills;
+
+        /**
+         * @param project        The project; its devId is filled in on assignment.
+         * @param requiredSkills Skills the developer should have (may be empty).
+         */
+        public Request(Project project, List<String> requiredSkills) {
+            this.project = project;
+            this.requiredSkills = requiredSkills;
+        }
+
+        public Project getProject() {
+            return project;
+        }
+
+        public List<String> getRequiredSkills() {
+            return requiredSkills;
+        }
+    }
+
+    /**
+     * Creates an engine over a consistent view of the data.
+     *
+     * @param developers The developers.
+     * @param skillIndex A skill index built over {@code developers}.
+     * @param timeline   An interval index built over the current projects.
+     */
+    public AssignmentEngine(List<Developer> developers, SkillIndex skillIndex, ProjectIntervalIndex timeline) {
+        this.developers = developers;
+        this.skillIndex = skillIndex;
+        this.timeline = timeline;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (Developer d : developers) {
+            min = Math.min(min, d.getSalary());
+            max = Math.max(max, d.getSalary());
+        }
+        this.minSalary = min;
+        this.maxSalary = max;
+    }
+
+    /**
+     * Ranks developers for one project.
+     *
+     * @param project        The new project (dates are used for the load term).
+     * @param requiredSkills Required skills, possibly empty.
+     * @param topK           Maximum number of candidates returned.
+     * @return best candidates first.
+     */
+    public List<Candidate> rank(Project project, List<String> requiredSkills, int topK) {
+        Map<String, Integer> load = countOverlaps(project, timeline.overlapping(project.getStartEpochDay(),
+                project.getEndEpochDay()));
+        return score(candidatePool(requiredSkills), requiredSkills, load)
+                .sorted(Comparator.comparingDouble(Candidate::getScore).reversed())
+                .limit(topK)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Assigns a batch of projects greedily. The most constrained projects
+     * (fewest skilled candidates) pick first, and every assignment counts as
+     * load for later projects in the batch that overlap it. Requests with no
+     * candidate at all are left out of the result.
+     *
+     * @param requests The projects to assign.
+     * @return the chosen developer per request, in request order.
+     */
+    public Map<Request, Candidate> assignBatch(List<Request> requests) {
+        Map<Request, Collection<Developer>> pools = new HashMap<>();
+        for (Request r : requests) {
+            pools.put(r, candidatePool(r.getRequiredSkills()));
+        }
+        List<Request> order = new ArrayList<>(requests);
+        order.sort(Comparator.comparingInt(r -> pools.get(r).size()));
+
+        List<Project> assigned = new ArrayList<>();
+        Map<Request, Candidate> chosen = new HashMap<>();
+        for (Request r : order) {
+            Project p = r.getProject();
+            List<Project> overlapping = timeline.overlapping(p.getStartEpochDay(), p.getEndEpochDay());
+            for (Project a : assigned) {
+                if (a.getStartEpochDay() < p.getEndEpochDay() && a.getEndEpochDay() > p.getStartEpochDay()) {
+                    overlapping.add(a);
+                }
+            }
+            Optional<Candidate> top = score(pools.get(r), r.getRequiredSkills(), countOverlaps(p, overlapping))
+                    .max(Comparator.comparingDouble(Candidate::getScore));
+            if (!top.isPresent()) {
+                continue;
+            }
+            Candidate best = top.get();
+            // Stand-in carrying the chosen developer, so later requests see the load.
+            assigned.add(new Project(p.getId(), best.getDeveloper().getId(), p.getName(), p.getDurationMonths(),
+                    p.getStartDate(), p.getClientName()));
+            chosen.put(r, best);
+        }
+
+        Map<Request, Candidate> result = new LinkedHashMap<>();
+        for (Request r : requests) {
+            if (chosen.containsKey(r)) {
+                result.put(r, chosen.get(r));
+            }
+        }
+        return result;
+    }
+
+    private Collection<Developer> candidatePool(List<String> requiredSkills) {
+        if (requiredSkills.isEmpty()) {
+            return developers;
+        }
+        Set<Developer> pool = new LinkedHashSet<>();
+        for (String skill : requiredSkills) {
+            pool.addAll(skillIndex.find(skill));
+        }
+        return pool;
+    }
+
+    private Stream<Candidate> score(Collection<Developer> pool, List<String> requiredSkills,
+            Map<String, Integer> load) {
+        Set<String> required = new LinkedHashSet<>();
+        for (String s : requiredSkills) {
+            required.add(s.trim().toLowerCase());
+        }
+        double salaryRange = Math.max(1, maxSalary - minSalary);
+        return pool.parallelStream()
+                .map(d -> {
+                    int matched = 0;
+                    for (String s : d.getSkills()) {
+                        if (required.contains(s.toLowerCase())) {
+                            matched++;
+                        }
+                    }
+                    double coverage = required.isEmpty() ? 1.0 : Math.min(1.0, (double) matched / required.size());
+                    int overlaps = load.getOrDefault(d.getId().toUpperCase(), 0);
+                    double availability = 1.0 / (1 + overlaps);
+                    double cost = 1.0 - (d.getSalary() - minSalary) / salaryRange;
+                    double score = SKILL_WEIGHT * coverage + AVAILABILITY_WEIGHT * availability + COST_WEIGHT * cost;
+                    return new Candidate(d, score, matched, overlaps);
+                });
+    }
+
+    private static Map<String, Integer> countOverlaps(Project project, List<Project> overlapping) {
+        Map<String, Integer> load = new HashMap<>();
+        if (project.getStartEpochDay() == Project.UNKNOWN_DATE) {
+            return load;
+        }
+        for (Project p : overlapping) {
+            load.merge(p.getDevId().toUpperCase(), 1, Integer::sum);
+        }
+        return load;
+    }
+}
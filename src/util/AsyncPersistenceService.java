@@ -0,0 +1,245 @@
+package util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes developer and project data to disk on a background thread so the
+ * console loop never waits for file I/O.
+ *
+ * Every change hands over an immutable {@link Roster.Snapshot}. Only the
+ * latest snapshot is kept: if the writer is still busy, newer snapshots
+ * replace the queued one instead of piling up, so rapid edits coalesce into
+ * a single write and memory stays bounded to one pending snapshot.
+ * Callers on several threads may hand snapshots over out of order; the
+ * higher version always wins, and a version older than the one on disk is
+ * never written. A snapshot that fails to save stays queued: autosave
+ * retries it, and {@link #saveNow} and {@link #flush} report the failure.
+ */
+public class AsyncPersistenceService {
+    private static final int DEFAULT_CHANGE_THRESHOLD = 20;
+    private static final long DEFAULT_INTERVAL_SECONDS = 30;
+
+    private final String devFile;
+    private final String projFile;
+    private final int changeThreshold;
+    private final ScheduledExecutorService executor;
+    private final AtomicReference<Roster.Snapshot> pending = new AtomicReference<>();
+    private final AtomicBoolean writeQueued = new AtomicBoolean(false);
+    private final AtomicInteger changesSinceSave = new AtomicInteger();
+    private volatile boolean writing = false;
+    // Used only by the executor thread: the last snapshot saved, and whether the sidecar describes it.
+    private Roster.Snapshot lastWritten;
+    private boolean sidecarWritten;
+    // False after a failed save, which may have replaced one data file but not the other.
+    private boolean filesConsistent = true;
+    private volatile String sidecarFile;
+
+    /**
+     * Creates the service with the default autosave thresholds.
+     *
+     * @param devFile  The developer data file.
+     * @param projFile The project data file.
+     */
+    public AsyncPersistenceService(String devFile, String projFile) {
+        this(devFile, projFile, DEFAULT_CHANGE_THRESHOLD, DEFAULT_INTERVAL_SECONDS);
+    }
+
+    /**
+     * Creates the service.
+     *
+     * @param devFile         The developer data file.
+     * @param projFile        The project data file.
+     * @param changeThreshold Number of changes that triggers an immediate autosave.
+     * @param intervalSeconds Maximum time a change may stay unsaved.
+     */
+    public AsyncPersistenceService(String devFile, String projFile, int changeThreshold, long intervalSeconds) {
+        this.devFile = devFile;
+        this.projFile = projFile;
+        this.changeThreshold = changeThreshold;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "autosave");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(this::autosave, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Also writes the {@link IndexSidecar} for the last saved data when the
+     * service shuts down, so the next start can map it instead of rebuilding
+     * the indexes. Autosaves leave it alone: a running controller only uses
+     * the sidecar until the first change.
+     *
+     * @param sidecarFile The sidecar file, or null for none.
+     */
+    public void setSidecarFile(String sidecarFile) {
+        this.sidecarFile = sidecarFile;
+    }
+
+    /**
+     * Records a change.
+     *
+     * @param snapshot The roster version to persist.
+     */
+    public void markChanged(Roster.Snapshot snapshot) {
+        pending.accumulateAndGet(snapshot, AsyncPersistenceService::newer);
+        if (changesSinceSave.incrementAndGet() >= changeThreshold) {
+            queueWrite();
+        }
+    }
+
+    /**
+     * Writes the given state and blocks until it is on disk.
+     *
+     * @param snapshot The roster version to persist.
+     * @throws IOException if it could not be written; it stays queued.
+     */
+    public void saveNow(Roster.Snapshot snapshot) throws IOException {
+        pending.accumulateAndGet(snapshot, AsyncPersistenceService::newer);
+        flush();
+    }
+
+    /**
+     * Blocks until every change handed over so far has been written.
+     *
+     * @throws IOException if it could not be written; it stays queued.
+     */
+    public void flush() throws IOException {
+        try {
+            executor.submit(() -> {
+                writePending();
+                return null;
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while saving");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Writes the sidecar for the data as loaded from the files, in the
+     * background. It runs on the writer thread, so it never stamps a data
+     * file that is half written; if a save has replaced the files by then,
+     * nothing is written here and shutdown writes the sidecar instead.
+     *
+     * @param loaded      The snapshot loaded from the data files.
+     * @param whenWritten Run on the writer thread once the sidecar exists.
+     */
+    public void writeSidecarLater(Roster.Snapshot loaded, Runnable whenWritten) {
+        executor.execute(() -> {
+            if (sidecarFile != null && lastWritten == null && filesConsistent && writeSidecar(loaded)) {
+                whenWritten.run();
+            }
+        });
+    }
+
+    /**
+     * Drops the change that has not been written yet, if any.
+     */
+    public void discardPending() {
+        pending.set(null);
+        changesSinceSave.set(0);
+    }
+
+    /**
+     * @return true if some change has not reached the disk yet.
+     */
+    public boolean hasPendingChanges() {
+        return pending.get() != null || writing;
+    }
+
+    /**
+     * Flushes outstanding changes and stops the background thread. A failure
+     * to save is only printed; call {@link #flush} first to handle it.
+     */
+    public void shutdown() {
+        try {
+            flush();
+        } catch (IOException e) {
+            System.err.println("Error saving data: " + e.getMessage());
+        }
+        runOnWriter(() -> {
+            if (sidecarFile != null && lastWritten != null && filesConsistent && !sidecarWritten) {
+                sidecarWritten = writeSidecar(lastWritten);
+            }
+        });
+        executor.shutdown();
+    }
+
+    private void runOnWriter(Runnable task) {
+        try {
+            executor.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Error saving data: " + e.getCause().getMessage());
+        }
+    }
+
+    private static Roster.Snapshot newer(Roster.Snapshot queued, Roster.Snapshot offered) {
+        return queued == null || offered.getVersion() >= queued.getVersion() ? offered : queued;
+    }
+
+    private void queueWrite() {
+        if (writeQueued.compareAndSet(false, true)) {
+            executor.execute(this::autosave);
+        }
+    }
+
+    private void autosave() {
+        try {
+            writePending();
+        } catch (IOException e) {
+            // Still queued: the next autosave, a save or the quit prompt deals with it.
+            System.err.println("Autosave failed: " + e.getMessage());
+        }
+    }
+
+    private boolean writeSidecar(Roster.Snapshot snapshot) {
+        try {
+            IndexSidecar.write(sidecarFile, devFile, projFile, snapshot.getDevelopers(), snapshot.getProjects());
+            return true;
+        } catch (IOException e) {
+            // Not fatal: a stale or missing sidecar is rebuilt at the next start.
+            System.err.println("Warning: index file not written: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Runs only on the executor thread, so writes never overlap.
+    private void writePending() throws IOException {
+        writeQueued.set(false);
+        Roster.Snapshot snapshot = pending.getAndSet(null);
+        if (snapshot == null || lastWritten != null && snapshot.getVersion() < lastWritten.getVersion()) {
+            return;
+        }
+        int changes = changesSinceSave.getAndSet(0);
+        writing = true;
+        try {
+            FileService.saveDevelopers(devFile, snapshot.getDevelopers());
+            FileService.saveProjects(projFile, snapshot.getProjects());
+        } catch (IOException e) {
+            // Put it back unless a newer one came in meanwhile.
+            pending.accumulateAndGet(snapshot, AsyncPersistenceService::newer);
+            changesSinceSave.addAndGet(changes);
+            filesConsistent = false;
+            throw e;
+        } finally {
+            writing = false;
+        }
+        lastWritten = snapshot;
+        sidecarWritten = false;
+        filesConsistent = true;
+    }
+}
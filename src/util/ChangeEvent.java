@@ -0,0 +1,157 @@
+package util;
+
+import entity.Developer;
+import entity.Project;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A change to the roster as seen by downstream consumers. Unlike a
+ * {@link Mutation}, an event carries the values before and after the change
+ * (for example the old and new salary), so consumers never need to read the
+ * data files to interpret it.
+ */
+public final class ChangeEvent {
+
+    /**
+     * Kinds of event. ROSTER_REPLACED means the whole roster was swapped
+     * (quarantine, or undoing one); consumers should resynchronize.
+     */
+    public enum Type {
+        DEVELOPER_ADDED, SALARY_UPDATED, DEVELOPER_REMOVED, PROJECT_ADDED, PROJECT_REMOVED, ROSTER_REPLACED
+    }
+
+    private final Type type;
+    private final long version;
+    private final long timestamp;
+    private final Developer developer;
+    private final Project project;
+    private final int oldSalary;
+
+    private ChangeEvent(Type type, long version, long timestamp, Developer developer, Project project,
+            int oldSalary) {
+        this.type = type;
+        this.version = version;
+        this.timestamp = timestamp;
+        this.developer = developer;
+        this.project = project;
+        this.oldSalary = oldSalary;
+    }
+
+    /**
+     * Describes a mutation that took the roster from one snapshot to the next.
+     * A bulk salary change gives one SALARY_UPDATED event per developer, and a
+     * batch one event per step, all with the same version.
+     *
+     * @param mutation The mutation.
+     * @param before   The snapshot it was applied to.
+     * @param after    The snapshot it produced.
+     * @param time     When it was applied, in epoch milliseconds.
+     * @return the events.
+     */
+    public static List<ChangeEvent> of(Mutation mutation, Roster.Snapshot before, Roster.Snapshot after,
+            long time) {
+        if (mutation.getType() == Mutation.Type.BATCH) {
+            List<ChangeEvent> events = new ArrayList<>();
+            Roster.Snapshot s = before;
+            for (Mutation step : mutation.getSteps()) {
+                Roster.Snapshot next = Roster.applyTo(s, step);
+                for (ChangeEvent e : of(step, s, next, time)) {
+                    events.add(e.withVersion(after.getVersion()));
+                }
+                s = next;
+            }
+            return events;
+        }
+        if (mutation.getType() != Mutation.Type.UPDATE_SALARIES) {
+            return Collections.singletonList(single(mutation, before, after, time));
+        }
+        Map<String, Integer> oldSalaries = new HashMap<>();
+        for (Developer d : before.getDevelopers()) {
+            oldSalaries.putIfAbsent(d.getId().toUpperCase(), d.getSalary());
+        }
+        List<ChangeEvent> events = new ArrayList<>(mutation.getDevelopers().size());
+        for (Developer d : mutation.getDevelopers()) {
+            events.add(new ChangeEvent(Type.SALARY_UPDATED, after.getVersion(), time, d, null,
+                    oldSalaries.get(d.getId().toUpperCase())));
+        }
+        return events;
+    }
+
+    private static ChangeEvent single(Mutation mutation, Roster.Snapshot before, Roster.Snapshot after,
+            long now) {
+        long version = after.getVersion();
+        switch (mutation.getType()) {
+            case ADD_DEVELOPER:
+                return new ChangeEvent(Type.DEVELOPER_ADDED, version, now, mutation.getDeveloper(), null, 0);
+            case UPDATE_SALARY:
+                return new ChangeEvent(Type.SALARY_UPDATED, version, now, after.findDeveloper(mutation.getId()),
+                        null, before.findDeveloper(mutation.getId()).getSalary());
+            case REMOVE_DEVELOPER:
+                return new ChangeEvent(Type.DEVELOPER_REMOVED, version, now, mutation.getIndex() < 0
+                        ? before.findDeveloper(mutation.getId())
+                        : before.getDevelopers().get(mutation.getIndex()), null, 0);
+            case ADD_PROJECT:
+                return new ChangeEvent(Type.PROJECT_ADDED, version, now, null, mutation.getProject(), 0);
+            case REMOVE_PROJECT:
+                return new ChangeEvent(Type.PROJECT_REMOVED, version, now, null, mutation.getIndex() < 0
+                        ? before.findProject(mutation.getId())
+                        : before.getProjects().get(mutation.getIndex()), 0);
+            default:
+                return new ChangeEvent(Type.ROSTER_REPLACED, version, now, null, null, 0);
+        }
+    }
+
+    private ChangeEvent withVersion(long version) {
+        return new ChangeEvent(type, version, timestamp, developer, project, oldSalary);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the roster version the change produced.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return when the change was applied, in epoch milliseconds.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return the developer after the change (before it, for a removal), or
+     *         null for project and roster events.
+     */
+    public Developer getDeveloper() {
+        return developer;
+    }
+
+    /**
+     * @return the added or removed project, or null.
+     */
+    public Project getProject() {
+        return project;
+    }
+
+    /**
+     * @return the salary before a SALARY_UPDATED event, otherwise 0.
+     */
+    public int getOldSalary() {
+        return oldSalary;
+    }
+
+    @Override
+    public String toString() {
+        return version + " " + type + (developer != null ? " " + developer.getId()
+                : project != null ? " " + project.getId() : "");
+    }
+}
@@ -0,0 +1,75 @@
+package util;
+
+import entity.Developer;
+import entity.Project;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Change-data-capture sink: appends every {@link ChangeEvent} to a text file
+ * that downstream systems can tail instead of re-reading and diffing the
+ * data files. One tab-separated line per event:
+ *
+ * <pre>
+ * version  timestamp  type  id  oldSalary  row
+ * </pre>
+ *
+ * where row is the developer or project in data-file format (empty for
+ * ROSTER_REPLACED). Each batch is flushed before the next is taken, so a
+ * consumer sees changes within one batch of them being made.
+ */
+public class ChangeLogSink implements Consumer<List<ChangeEvent>>, AutoCloseable {
+    private final Writer out;
+
+    /**
+     * Opens the log for appending.
+     *
+     * @param fileName The change log file.
+     * @throws IOException if it cannot be opened.
+     */
+    public ChangeLogSink(String fileName) throws IOException {
+        this.out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(fileName, true),
+                StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    @Override
+    public void accept(List<ChangeEvent> events) {
+        try {
+            for (ChangeEvent e : events) {
+                out.write(format(e));
+                out.write('\n');
+            }
+            out.flush();
+        } catch (IOException e) {
+            System.err.println("Error writing change log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param event The event.
+     * @return the log line, without the line break.
+     */
+    public static String format(ChangeEvent event) {
+        Developer d = event.getDeveloper();
+        Project p = event.getProject();
+        String id = d != null ? d.getId() : p != null ? p.getId() : "";
+        String row = d != null ? FileService.formatDeveloper(d) : p != null ? FileService.formatProject(p) : "";
+        return event.getVersion() + "\t" + event.getTimestamp() + "\t" + event.getType() + "\t" + id + "\t"
+                + event.getOldSalary() + "\t" + row;
+    }
+
+    @Override
+    public void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            System.err.println("Error closing change log: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * In-process publish/subscribe of roster changes.
+ *
+ * The bus listens to a {@link Roster}. The listener callback runs under the
+ * roster's write lock, so it only queues the new snapshot and never waits.
+ * A publisher thread turns the queued changes into {@link ChangeEvent}s and
+ * writes them into a fixed-size ring buffer. It is the ring's single
+ * producer: the slot is written before the volatile publish cursor, and
+ * each subscriber only reads slots below that cursor.
+ *
+ * Every subscriber has its own thread and cursor and receives events in
+ * batches, in version order. When the slowest subscriber is a full ring
+ * behind, the publisher waits for it (backpressure) for up to
+ * {@link #MAX_BLOCK_MILLIS}; a subscriber still stuck after that is dropped
+ * and marked overrun. Edits are never held up: if the publisher falls
+ * {@link #MAX_PENDING_CHANGES} changes behind, the subscribers it is waiting
+ * for are marked overrun at once.
+ */
+public class EventBus implements Roster.Listener {
+    private static final int DEFAULT_CAPACITY = 4096;
+    private static final long MAX_BLOCK_MILLIS = 2_000;
+    private static final int MAX_PENDING_CHANGES = 4_096;
+
+    private final Roster roster;
+    private final ChangeEvent[] ring;
+    private final int mask;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<Change> pending = new ConcurrentLinkedQueue<>();
+    private final Thread publisher;
+    private volatile long queued = 0; // changes handed over by the roster
+    private volatile long processed = 0; // changes turned into events
+    private volatile boolean open = true;
+    private volatile long published = 0;
+    private Roster.Snapshot last; // publisher thread only, after construction
+
+    // A roster change waiting for the publisher; a reset has no mutation.
+    private static final class Change {
+        final Mutation mutation;
+        final Roster.Snapshot after;
+        final long time = System.currentTimeMillis();
+
+        Change(Mutation mutation, Roster.Snapshot after) {
+            this.mutation = mutation;
+            this.after = after;
+        }
+    }
+
+    /**
+     * Status and control of one subscriber.
+     */
+    public class Subscription {
+        private final String name;
+        private final Consumer<List<ChangeEvent>> handler;
+        private final int maxBatch;
+        private final Thread thread;
+        private volatile long cursor;
+        private volatile boolean active = true;
+        private volatile boolean overrun = false;
+        private volatile long missedSince = 0;
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong batches = new AtomicLong();
+
+        Subscription(String name, Consumer<List<ChangeEvent>> handler, int maxBatch, long start) {
+            this.name = name;
+            this.handler = handler;
+            this.maxBatch = maxBatch;
+            this.cursor = start;
+            this.thread = new Thread(this::deliverLoop, "events-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        private void deliverLoop() {
+            List<ChangeEvent> batch = new ArrayList<>(maxBatch);
+            while (active) {
+                long available = published;
+                if (cursor == available) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+                    continue;
+                }
+                long end = Math.min(available, cursor + maxBatch);
+                for (long seq = cursor; seq < end; seq++) {
+                    batch.add(ring[(int) (seq & mask)]);
+                }
+                try {
+                    handler.accept(batch);
+                } catch (RuntimeException e) {
+                    System.err.println("Event subscriber " + name + " failed: " + e.getMessage());
+                }
+                delivered.addAndGet(batch.size());
+                batches.incrementAndGet();
+                batch.clear();
+                // Releasing the slots only after delivery is what makes the writer wait.
+                cursor = end;
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return events published but not delivered yet.
+         */
+        public long getLag() {
+            return published - cursor;
+        }
+
+        public long getDelivered() {
+            return delivered.get();
+        }
+
+        public long getBatches() {
+            return batches.get();
+        }
+
+        /**
+         * @return true if the subscriber was dropped for falling too far behind.
+         */
+        public boolean isOverrun() {
+            return overrun;
+        }
+
+        /**
+         * @return time of the first event an overrun subscriber did not
+         *         receive, in epoch milliseconds, or 0.
+         */
+        public long getMissedSince() {
+            return missedSince;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        /**
+         * Stops delivery after the batch in progress.
+         */
+        public void cancel() {
+            active = false;
+            subscriptions.remove(this);
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Creates a bus with the default ring size and starts listening.
+     *
+     * @param roster The roster to observe.
+     */
+    public EventBus(Roster roster) {
+        this(roster, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a bus and starts listening.
+     *
+     * @param roster   The roster to observe.
+     * @param capacity Ring size; rounded up to a power of two.
+     */
+    public EventBus(Roster roster, int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        this.roster = roster;
+        this.ring = new ChangeEvent[size];
+        this.mask = size - 1;
+        this.last = roster.addListener(this);
+        this.publisher = new Thread(this::publishLoop, "events-publisher");
+        this.publisher.setDaemon(true);
+        this.publisher.start();
+    }
+
+    /**
+     * Subscribes to every event published from now on.
+     *
+     * @param name     Name shown in status output.
+     * @param handler  Receives batches of events, in order, on the
+     *                 subscriber's own thread.
+     * @param maxBatch Largest batch handed to the handler.
+     * @return the subscription.
+     */
+    public Subscription subscribe(String name, Consumer<List<ChangeEvent>> handler, int maxBatch) {
+        Subscription s = new Subscription(name, handler, Math.max(1, maxBatch), published);
+        subscriptions.add(s);
+        s.thread.start();
+        return s;
+    }
+
+    /**
+     * @return the current subscriptions.
+     */
+    public List<Subscription> getSubscriptions() {
+        return new ArrayList<>(subscriptions);
+    }
+
+    /**
+     * @return number of events published so far.
+     */
+    public long getPublished() {
+        return published;
+    }
+
+    /**
+     * Waits until every subscriber has received everything published, or the
+     * timeout passes.
+     *
+     * @param timeoutMillis Maximum wait.
+     * @return true if all subscribers caught up.
+     */
+    public boolean drain(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (processed < queued) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            LockSupport.unpark(publisher);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        for (Subscription s : subscriptions) {
+            while (s.active && s.cursor < published) {
+                if (System.currentTimeMillis() > deadline) {
+                    return false;
+                }
+                LockSupport.unpark(s.thread);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops listening and cancels every subscription after draining.
+     */
+    public void close() {
+        roster.removeListener(this);
+        drain(MAX_BLOCK_MILLIS);
+        open = false;
+        LockSupport.unpark(publisher);
+        for (Subscription s : subscriptions) {
+            s.cancel();
+        }
+    }
+
+    // Called with the roster's write lock held: hand the change over and return.
+    @Override
+    public void onApplied(long version, Mutation mutation) {
+        enqueue(new Change(mutation, roster.snapshot()));
+    }
+
+    @Override
+    public void onReset(Roster.Snapshot snapshot) {
+        enqueue(new Change(null, snapshot));
+    }
+
+    private void enqueue(Change change) {
+        pending.add(change);
+        queued++; // writers are serialized by the roster
+        if (queued - processed > MAX_PENDING_CHANGES) {
+            // The publisher is stuck behind full subscribers; give up on them instead of growing.
+            for (Subscription s : subscriptions) {
+                if (s.active && published - s.cursor >= ring.length) {
+                    markOverrun(s);
+                }
+            }
+        }
+        LockSupport.unpark(publisher);
+    }
+
+    private void publishLoop() {
+        while (open) {
+            Change change = pending.poll();
+            if (change == null) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+                continue;
+            }
+            if (change.mutation != null) {
+                publish(ChangeEvent.of(change.mutation, last, change.after, change.time));
+            }
+            last = change.after;
+            processed++;
+        }
+    }
+
+    private void publish(List<ChangeEvent> events) {
+        for (ChangeEvent event : events) {
+            long seq = published;
+            awaitCapacity(seq);
+            ring[(int) (seq & mask)] = event;
+            published = seq + 1;
+            // A bulk change is published in ring-sized steps, waking subscribers as it goes.
+            if ((seq & mask) == mask || event == events.get(events.size() - 1)) {
+                for (Subscription s : subscriptions) {
+                    LockSupport.unpark(s.thread);
+                }
+            }
+        }
+    }
+
+    private void awaitCapacity(long seq) {
+        long deadline = 0;
+        for (Subscription s : subscriptions) {
+            while (s.active && seq - s.cursor >= ring.length) {
+                if (deadline == 0) {
+                    deadline = System.currentTimeMillis() + MAX_BLOCK_MILLIS;
+                } else if (System.currentTimeMillis() > deadline) {
+                    markOverrun(s);
+                    break;
+                }
+                LockSupport.unpark(s.thread);
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+            }
+        }
+    }
+
+    // Keep it listed so its overrun state stays visible.
+    private void markOverrun(Subscription s) {
+        // Its oldest undelivered event is still in the ring: the slot is reused only after this.
+        long first = s.cursor;
+        s.missedSince = first < published ? ring[(int) (first & mask)].getTimestamp() : System.currentTimeMillis();
+        s.overrun = true;
+        s.active = false;
+        LockSupport.unpark(s.thread);
+    }
+}
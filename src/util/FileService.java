@@ -3,13 +3,217 @@ package util;
 import entity.Developer;
 import entity.Project;
 import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 /**
  * Service class for handling file I/O operations for Developers and Projects.
+ * Files ending in .gz are GZIP-compressed and files ending in .deflate are
+ * zlib-compressed with a preset dictionary; on read the format is also
+ * detected from the magic bytes, so a renamed file still loads.
  */
 public class FileService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Preset dictionary for the .deflate format. It holds the skills and
+     * client names that repeat in almost every row, so even the first rows of
+     * a file compress to back-references. Changing it makes existing .deflate
+     * files unreadable (zlib stores its checksum), so only append to it in a
+     * new format.
+     */
+    private static final byte[] DICTIONARY = ("TechVina Corp, FPT Software, VietBank, Viettel Group, Samsung VN, "
+            + "CMC Global, VNG Corporation, Tiki, MoMo, "
+            + "[Java, C++], [Python, Scala], [C#, Golang, React], [JavaScript, React], [Java, Spring], "
+            + "Kotlin, Swift, TypeScript, Node.js, Angular, Vue, PHP, Ruby, Rust, SQL, Docker, AWS, "
+            + "Platform, System, Management, Mobile Banking, E-Commerce, 01/2026, "
+            + "Nguyen Van , Tran Thi , Le Van , Pham Thi , Hoang Van , Vu Thi , Dang Van , DEV0, PROJ")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private enum Codec {
+        PLAIN, GZIP, DEFLATE
+    }
+
+    /**
+     * Opens a buffered reader, transparently decompressing the file.
+     * 
+     * @param fileName The path to the file.
+     * @return A reader over the decoded text.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static BufferedReader openReader(String fileName) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(fileName), BUFFER_SIZE);
+        Codec codec = detectCodec(in);
+        switch (codec) {
+            case GZIP:
+                in = new GZIPInputStream(in, BUFFER_SIZE);
+                break;
+            case DEFLATE:
+                in = new DictionaryInflaterInputStream(in);
+                break;
+            default:
+                return new BufferedReader(new InputStreamReader(in, Charset.defaultCharset()), BUFFER_SIZE);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * Opens a buffered writer, compressing according to the file extension.
+     * 
+     * @param fileName The path to the file.
+     * @return A writer that encodes to the file.
+     * @throws IOException if the file cannot be created.
+     */
+    public static BufferedWriter openWriter(String fileName) throws IOException {
+        return new BufferedWriter(encoder(new FileOutputStream(fileName), fileName), BUFFER_SIZE);
+    }
+
+    /**
+     * Opens a writer for replacing a file. The text goes to a temporary file
+     * next to it, which {@link ReplacementWriter#commit()} renames over the
+     * original; closing without committing deletes it. A crash or a failed
+     * write therefore leaves the previous file intact instead of a truncated
+     * one.
+     *
+     * @param fileName The path to the file; its extension picks the
+     *                 compression.
+     * @return A writer that encodes to the temporary file.
+     * @throws IOException if the temporary file cannot be created.
+     */
+    public static ReplacementWriter openReplacement(String fileName) throws IOException {
+        Path target = Paths.get(fileName);
+        Path tmp = Paths.get(fileName + ".tmp");
+        // Forced to disk when closed: before the rename, or a power loss could still leave it empty.
+        FileOutputStream file = new FileOutputStream(tmp.toFile()) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    getFD().sync();
+                } finally {
+                    super.close();
+                }
+            }
+        };
+        return new ReplacementWriter(encoder(file, fileName), tmp, target);
+    }
+
+    // The extension of fileName, not of the file actually written, picks the codec.
+    private static Writer encoder(OutputStream out, String fileName) throws IOException {
+        String lower = fileName.toLowerCase();
+        if (lower.endsWith(".gz")) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        } else if (lower.endsWith(".deflate")) {
+            out = new DictionaryDeflaterOutputStream(out);
+        } else {
+            return new OutputStreamWriter(out, Charset.defaultCharset());
+        }
+        return new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    }
+
+    private static Codec detectCodec(InputStream in) throws IOException {
+        in.mark(2);
+        int b0 = in.read();
+        int b1 = in.read();
+        in.reset();
+        if (b0 == 0x1f && b1 == 0x8b) {
+            return Codec.GZIP;
+        }
+        // zlib header: CM = 8 (deflate), header checksum divisible by 31.
+        // Plain text rows start with "DEV"/"PROJ", which never match.
+        if (b0 >= 0 && b1 >= 0 && (b0 & 0x0f) == 8 && ((b0 << 8) | b1) % 31 == 0) {
+            return Codec.DEFLATE;
+        }
+        return Codec.PLAIN;
+    }
+
+    /**
+     * Parses one developer row.
+     * 
+     * @param line Format: DEV001, Nguyen Van A, [Java, C++], 5000
+     * @return the developer, or null if the row has too few fields.
+     * @throws NumberFormatException if the salary is not a number.
+     */
+    public static Developer parseDeveloper(String line) {
+        String[] parts = line.split(", ");
+        if (parts.length < 4) {
+            return null;
+        }
+        String id = parts[0].trim();
+        String name = parts[1].trim();
+
+        // Parse Skills: [Java, C++] -> Remove [] and split
+        String skillsRaw = line.substring(line.indexOf("[") + 1, line.indexOf("]"));
+        List<String> skills = new ArrayList<>();
+        if (!skillsRaw.isEmpty()) {
+            String[] skillParts = skillsRaw.split(",");
+            for (String s : skillParts) {
+                skills.add(s.trim());
+            }
+        }
+
+        // Salary is the last part
+        int salary = Integer.parseInt(line.substring(line.lastIndexOf(",") + 1).trim());
+        return new Developer(id, name, skills, salary);
+    }
+
+    /**
+     * Formats one developer row (the inverse of {@link #parseDeveloper}).
+     * 
+     * @param dev The developer.
+     * @return the row.
+     */
+    public static String formatDeveloper(Developer dev) {
+        // Format: DEV001, Nguyen Van A, [Java, C++], 5000
+        String skills = "[" + String.join(", ", dev.getSkills()) + "]";
+        return String.format("%s, %s, %s, %d", dev.getId(), dev.getName(), skills, dev.getSalary());
+    }
+
+    /**
+     * Parses one project row.
+     * 
+     * @param line Format: PROJ01, DEV001, E-Commerce Platform, 12, 01/01/2026, ClientName
+     * @return the project, or null if the row has too few fields.
+     * @throws NumberFormatException if the duration is not a number.
+     */
+    public static Project parseProject(String line) {
+        String[] parts = line.split(", ");
+        if (parts.length < 5) {
+            return null;
+        }
+        String id = parts[0].trim();
+        String devId = parts[1].trim();
+        String name = parts[2].trim();
+        int duration = Integer.parseInt(parts[3].trim());
+        String date = parts[4].trim();
+        String clientName = (parts.length >= 6) ? parts[5].trim() : "";
+        return new Project(id, devId, name, duration, date, clientName);
+    }
+
+    /**
+     * Formats one project row (the inverse of {@link #parseProject}).
+     * 
+     * @param proj The project.
+     * @return the row.
+     */
+    public static String formatProject(Project proj) {
+        // PROJ01, DEV001, E-Commerce Platform, 12, 01/01/2026, ClientName
+        return String.format("%s, %s, %s, %d, %s, %s", proj.getId(), proj.getDevId(), proj.getName(),
+                proj.getDurationMonths(), proj.getStartDate(), proj.getClientName());
+    }
 
     /**
      * Loads the list of developers from a file.
@@ -20,31 +224,14 @@ public class FileService {
     public static List<Developer> loadDevelopers(String fileName) {
         List<Developer> developers = new ArrayList<>();
         try (
-                BufferedReader br = new BufferedReader(new FileReader(fileName))) {
+                BufferedReader br = openReader(fileName)) {
             String line;
             while ((line = br.readLine()) != null) {
                 if (line.trim().isEmpty())
                     continue;
-                // Format: DEV001, Nguyen Van A, [Java, C++], 5000
-                String[] parts = line.split(", ");
-                if (parts.length >= 4) {
-                    String id = parts[0].trim();
-                    String name = parts[1].trim();
-
-                    // Parse Skills: [Java, C++] -> Remove [] and split
-                    String skillsRaw = line.substring(line.indexOf("[") + 1, line.indexOf("]"));
-                    List<String> skills = new ArrayList<>();
-                    if (!skillsRaw.isEmpty()) {
-                        String[] skillParts = skillsRaw.split(",");
-                        for (String s : skillParts) {
-                            skills.add(s.trim());
-                        }
-                    }
-
-                    // Salary is the last part
-                    int salary = Integer.parseInt(line.substring(line.lastIndexOf(",") + 1).trim());
-
-                    developers.add(new Developer(id, name, skills, salary));
+                Developer dev = parseDeveloper(line);
+                if (dev != null) {
+                    developers.add(dev);
                 }
             }
         } catch (IOException | NumberFormatException e) {
@@ -61,21 +248,14 @@ public class FileService {
      */
     public static List<Project> loadProjects(String fileName) {
         List<Project> projects = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(fileName))) {
+        try (BufferedReader br = openReader(fileName)) {
             String line;
             while ((line = br.readLine()) != null) {
                 if (line.trim().isEmpty())
                     continue;
-                // Format: PROJ01, DEV001, E-Commerce Platform, 12, 01/01/2026, ClientName
-                String[] parts = line.split(", ");
-                if (parts.length >= 5) {
-                    String id = parts[0].trim();
-                    String devId = parts[1].trim();
-                    String name = parts[2].trim();
-                    int duration = Integer.parseInt(parts[3].trim());
-                    String date = parts[4].trim();
-                    String clientName = (parts.length >= 6) ? parts[5].trim() : "";
-                    projects.add(new Project(id, devId, name, duration, date, clientName));
+                Project proj = parseProject(line);
+                if (proj != null) {
+                    projects.add(proj);
                 }
             }
         } catch (IOException | NumberFormatException e) {
@@ -84,23 +264,106 @@ public class FileService {
         return projects;
     }
 
+    /**
+     * Loads projects waiting for a developer (batch auto-assignment input).
+     * Each row is checked with the rules of the Add Project option (ID
+     * format, duration of at least one month, a valid future start date, a
+     * name and a client); a row breaking one is left out and reported.
+     * 
+     * @param fileName The path to the file.
+     * @param rejected Receives one "Line n: reason" message per bad row.
+     * @return A list of assignment requests.
+     */
+    public static List<AssignmentEngine.Request> loadIncomingProjects(String fileName, List<String> rejected) {
+        List<AssignmentEngine.Request> requests = new ArrayList<>();
+        long today = LocalDate.now().toEpochDay();
+        try (BufferedReader br = openReader(fileName)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = br.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty())
+                    continue;
+                try {
+                    requests.add(parseIncomingProject(line, today));
+                } catch (IllegalArgumentException e) {
+                    rejected.add("Line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading incoming projects: " + e.getMessage());
+        }
+        return requests;
+    }
+
+    // Format: PROJ10, Payment Gateway, 6, 01/05/2026, ClientName, [Java, Spring]
+    private static AssignmentEngine.Request parseIncomingProject(String line, long today) {
+        int bracket = line.indexOf('[');
+        int closing = bracket >= 0 ? line.indexOf(']', bracket) : -1;
+        if (bracket >= 0 && closing < 0) {
+            throw new IllegalArgumentException("skill list has no closing ']'");
+        }
+        String head = bracket >= 0 ? line.substring(0, bracket) : line;
+        String[] parts = head.split(", ");
+        if (parts.length < 5) {
+            throw new IllegalArgumentException("expected ID, name, duration, start date and client");
+        }
+        String id = parts[0].trim().toUpperCase();
+        if (!Validation.isValidProjectId(id)) {
+            throw new IllegalArgumentException("Project ID must be in format PROJxx: " + parts[0].trim());
+        }
+        String name = parts[1].trim();
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("project name is empty");
+        }
+        int duration;
+        try {
+            duration = Integer.parseInt(parts[2].trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("duration is not a number: " + parts[2].trim());
+        }
+        if (duration < 1) {
+            throw new IllegalArgumentException("duration must be at least 1 month");
+        }
+        String date = parts[3].trim();
+        long startDay = Project.parseEpochDay(date);
+        if (startDay == Project.UNKNOWN_DATE) {
+            throw new IllegalArgumentException("start date must be dd/MM/yyyy: " + date);
+        }
+        if (startDay <= today) {
+            throw new IllegalArgumentException("start date must be in the future: " + date);
+        }
+        String clientName = parts[4].trim().replaceAll(",$", "");
+        if (clientName.isEmpty()) {
+            throw new IllegalArgumentException("client name is empty");
+        }
+        List<String> skills = new ArrayList<>();
+        if (bracket >= 0) {
+            for (String s : line.substring(bracket + 1, closing).split(",")) {
+                if (!s.trim().isEmpty()) {
+                    skills.add(s.trim());
+                }
+            }
+        }
+        Project project = new Project(id, "", name, duration, date, clientName);
+        return new AssignmentEngine.Request(project, skills);
+    }
+
     /**
      * Saves the list of developers to a file.
      * 
      * @param fileName   The path to the file.
      * @param developers The list of developers to save.
+     * @throws IOException if the file cannot be written; it is then left as
+     *                     it was.
      */
-    public static void saveDevelopers(String fileName, List<Developer> developers) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(fileName))) {
+    public static void saveDevelopers(String fileName, List<Developer> developers) throws IOException {
+        try (ReplacementWriter bw = openReplacement(fileName)) {
             for (Developer dev : developers) {
-                // Format: DEV001, Nguyen Van A, [Java, C++], 5000
-                String skills = "[" + String.join(", ", dev.getSkills()) + "]";
-                bw.write(String.format("%s, %s, %s, %d", dev.getId(), dev.getName(), skills,
-                        dev.getSalary()));
+                bw.write(formatDeveloper(dev));
                 bw.newLine();
             }
-        } catch (IOException e) {
-            System.err.println("Error saving developers: " + e.getMessage());
+            bw.commit();
         }
     }
 
@@ -109,17 +372,105 @@ public class FileService {
      * 
      * @param fileName The path to the file.
      * @param projects The list of projects to save.
+     * @throws IOException if the file cannot be written; it is then left as
+     *                     it was.
      */
-    public static void saveProjects(String fileName, List<Project> projects) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(fileName))) {
+    public static void saveProjects(String fileName, List<Project> projects) throws IOException {
+        try (ReplacementWriter bw = openReplacement(fileName)) {
             for (Project proj : projects) {
-                // PROJ01, DEV001, E-Commerce Platform, 12, 01/01/2026, ClientName
-                bw.write(String.format("%s, %s, %s, %d, %s, %s", proj.getId(), proj.getDevId(), proj.getName(),
-                        proj.getDurationMonths(), proj.getStartDate(), proj.getClientName()));
+                bw.write(formatProject(proj));
                 bw.newLine();
             }
-        } catch (IOException e) {
-            System.err.println("Error saving projects: " + e.getMessage());
+            bw.commit();
+        }
+    }
+
+    /**
+     * Writer returned by {@link FileService#openReplacement(String)}.
+     */
+    public static final class ReplacementWriter extends BufferedWriter {
+        private final Path tmp;
+        private final Path target;
+        private boolean committed = false;
+
+        private ReplacementWriter(Writer out, Path tmp, Path target) {
+            super(out, BUFFER_SIZE);
+            this.tmp = tmp;
+            this.target = target;
+        }
+
+        /**
+         * Finishes the temporary file, forces it to disk and renames it over
+         * the target.
+         *
+         * @throws IOException if the file cannot be finished or renamed.
+         */
+        public void commit() throws IOException {
+            super.close(); // finishes the compressed formats and syncs the file
+            try {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            committed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (committed) {
+                return;
+            }
+            try {
+                super.close();
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    private static class DictionaryDeflaterOutputStream extends DeflaterOutputStream {
+        DictionaryDeflaterOutputStream(OutputStream out) {
+            super(out, newDeflater(), BUFFER_SIZE);
+        }
+
+        private static Deflater newDeflater() {
+            Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+            deflater.setDictionary(DICTIONARY);
+            return deflater;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                def.end();
+            }
+        }
+    }
+
+    private static class DictionaryInflaterInputStream extends InflaterInputStream {
+        DictionaryInflaterInputStream(InputStream in) {
+            super(in, new Inflater(), BUFFER_SIZE);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n == -1 && inf.needsDictionary()) {
+                inf.setDictionary(DICTIONARY);
+                n = super.read(b, off, len);
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                inf.end();
+            }
         }
     }
 }
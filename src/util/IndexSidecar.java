@@ -0,0 +1,498 @@
+package util;
+
+import entity.Developer;
+import entity.Project;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Lookup indexes over the data files, persisted in a sidecar file and
+ * memory-mapped at startup so they are not rebuilt on every run.
+ *
+ * The sidecar stores row numbers into the developer and project lists as
+ * loaded from the data files:
+ * <ul>
+ * <li>ID index: open-addressing hash table of upper-cased developer IDs
+ * (first occurrence wins, as in {@link Roster.Snapshot#findDeveloper});</li>
+ * <li>developer to projects: for each developer row, its project rows;</li>
+ * <li>skill index: for each lower-cased skill, the developer rows having it;</li>
+ * <li>salary index: developer rows by ascending salary (stable).</li>
+ * </ul>
+ *
+ * The header records the format version, the length, modification time
+ * and CRC32 of both data files, when they were stamped, and the number of
+ * integrity problems in the data (so startup need not run
+ * {@link IntegrityChecker}). Opening compares only lengths and modification
+ * times; a data file's CRC is recomputed only when its modification time is
+ * too close to the stamp to rule out a later same-length edit within the
+ * same clock tick. A sidecar that does not match is stale and must be
+ * rebuilt with {@link #write}, which replaces the file atomically, so a
+ * sidecar of the recorded size is complete. Lookups read the mapped file
+ * directly; only the small skill dictionary is decoded into memory.
+ */
+public class IndexSidecar {
+    private static final int MAGIC = 0x53494458; // "SIDX"
+    private static final int FORMAT_VERSION = 2;
+    // magic, version, 2 x (length, mtime, crc), devCount, projCount, 8 section offsets, stamp time, size, issues
+    private static final int HEADER_INTS = 2 + 2 * 5 + 2 + 8 + 2 + 1 + 1;
+    private static final int STAMPED_AT = 22;
+    private static final int TOTAL_INTS = 24;
+    private static final int ISSUE_COUNT = 25;
+    // Modification times that are whole seconds may come from a file system that only keeps seconds (or two).
+    private static final long COARSE_MTIME_MS = 2000;
+
+    private final IntBuffer ints;
+    private final int devCount;
+    private final int projCount;
+    private final int idTable;
+    private final int idCapacity;
+    private final int projOffsets;
+    private final int projRows;
+    private final int skillOffsets;
+    private final int skillRows;
+    private final int salaryOrder;
+    private final int orphanStart;
+    private final int issueCount;
+    private final Map<String, Integer> skills = new HashMap<>();
+
+    private IndexSidecar(MappedByteBuffer buffer) {
+        this.ints = buffer.asIntBuffer();
+        this.devCount = ints.get(12);
+        this.projCount = ints.get(13);
+        this.idTable = ints.get(14);
+        this.idCapacity = ints.get(15) - idTable;
+        this.projOffsets = ints.get(15);
+        this.projRows = ints.get(16);
+        int skillDict = ints.get(17);
+        this.skillOffsets = ints.get(18);
+        this.skillRows = ints.get(19);
+        this.salaryOrder = ints.get(20);
+        this.orphanStart = ints.get(21);
+        this.issueCount = ints.get(ISSUE_COUNT);
+
+        // Skill dictionary: count, then per skill its UTF-8 length (in bytes) and bytes padded to ints.
+        int pos = skillDict;
+        int skillCount = ints.get(pos++);
+        for (int i = 0; i < skillCount; i++) {
+            int len = ints.get(pos++);
+            byte[] bytes = new byte[len];
+            ByteBuffer view = buffer.duplicate();
+            view.position(pos * 4);
+            view.get(bytes);
+            skills.put(new String(bytes, StandardCharsets.UTF_8), i);
+            pos += (len + 3) / 4;
+        }
+    }
+
+    /**
+     * Maps a sidecar if it is current.
+     *
+     * @param sidecarFile The sidecar.
+     * @param devFile     The developer data file it must match.
+     * @param projFile    The project data file it must match.
+     * @param devCount    Number of developers loaded from devFile.
+     * @param projCount   Number of projects loaded from projFile.
+     * @return the sidecar, or null if it is missing, stale or damaged.
+     */
+    public static IndexSidecar open(String sidecarFile, String devFile, String projFile, int devCount,
+            int projCount) {
+        File file = new File(sidecarFile);
+        if (!file.isFile() || file.length() < HEADER_INTS * 4L) {
+            return null;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            IntBuffer header = buffer.asIntBuffer();
+            if (header.get(0) != MAGIC || header.get(1) != FORMAT_VERSION || header.get(12) != devCount
+                    || header.get(13) != projCount || header.get(TOTAL_INTS) * 4L != channel.size()) {
+                return null;
+            }
+            long stampedAt = ((long) header.get(STAMPED_AT) << 32) | (header.get(STAMPED_AT + 1) & 0xFFFFFFFFL);
+            if (!matches(header, 2, devFile, stampedAt) || !matches(header, 7, projFile, stampedAt)) {
+                return null;
+            }
+            return new IndexSidecar(buffer);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Builds the indexes for the given data and writes the sidecar. Call it
+     * after the data files were written, so their stamps are recorded. If a
+     * data file was modified within the last few milliseconds this waits
+     * them out, so the next start can trust the modification time alone.
+     *
+     * @param sidecarFile The sidecar to write.
+     * @param devFile     The developer data file.
+     * @param projFile    The project data file.
+     * @param developers  Developers in file order.
+     * @param projects    Projects in file order.
+     * @throws IOException if a file cannot be read or written, or the wait
+     *                     is interrupted.
+     */
+    public static void write(String sidecarFile, String devFile, String projFile, List<Developer> developers,
+            List<Project> projects) throws IOException {
+        int devCount = developers.size();
+        int projCount = projects.size();
+
+        // ID index
+        int capacity = Integer.highestOneBit(Math.max(2, devCount * 2) * 2 - 1);
+        int[] table = new int[capacity];
+        Map<String, Integer> rowById = new HashMap<>();
+        for (int row = 0; row < devCount; row++) {
+            String id = developers.get(row).getId().toUpperCase();
+            if (rowById.putIfAbsent(id, row) == null) {
+                int slot = mix(id.hashCode()) & (capacity - 1);
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                table[slot] = row + 1;
+            }
+        }
+
+        // Developer to projects, and projects whose developer does not exist
+        List<List<Integer>> byDev = new ArrayList<>();
+        for (int i = 0; i < devCount; i++) {
+            byDev.add(new ArrayList<>());
+        }
+        List<Integer> orphans = new ArrayList<>();
+        for (int p = 0; p < projCount; p++) {
+            Integer row = rowById.get(projects.get(p).getDevId().toUpperCase());
+            if (row == null) {
+                orphans.add(p);
+            } else {
+                byDev.get(row).add(p);
+            }
+        }
+
+        // Skill index
+        Map<String, List<Integer>> bySkill = new LinkedHashMap<>();
+        for (int row = 0; row < devCount; row++) {
+            for (String skill : developers.get(row).getSkills()) {
+                List<Integer> rows = bySkill.computeIfAbsent(skill.trim().toLowerCase(), k -> new ArrayList<>());
+                if (rows.isEmpty() || rows.get(rows.size() - 1) != row) {
+                    rows.add(row);
+                }
+            }
+        }
+
+        // Salary index
+        Integer[] order = new Integer[devCount];
+        for (int i = 0; i < devCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> developers.get(i).getSalary()));
+
+        IntList out = new IntList();
+        for (int i = 0; i < HEADER_INTS; i++) {
+            out.add(0);
+        }
+        int idTableAt = out.size();
+        for (int v : table) {
+            out.add(v);
+        }
+        int projOffsetsAt = out.size();
+        int offset = 0;
+        for (List<Integer> rows : byDev) {
+            out.add(offset);
+            offset += rows.size();
+        }
+        out.add(offset);
+        int projRowsAt = out.size();
+        for (List<Integer> rows : byDev) {
+            rows.forEach(out::add);
+        }
+        int skillDictAt = out.size();
+        out.add(bySkill.size());
+        for (String skill : bySkill.keySet()) {
+            byte[] bytes = skill.getBytes(StandardCharsets.UTF_8);
+            out.add(bytes.length);
+            out.addBytes(bytes);
+        }
+        int skillOffsetsAt = out.size();
+        offset = 0;
+        for (List<Integer> rows : bySkill.values()) {
+            out.add(offset);
+            offset += rows.size();
+        }
+        out.add(offset);
+        int skillRowsAt = out.size();
+        for (List<Integer> rows : bySkill.values()) {
+            rows.forEach(out::add);
+        }
+        int salaryAt = out.size();
+        for (int row : order) {
+            out.add(row);
+        }
+        int orphanAt = out.size();
+        out.add(orphans.size());
+        orphans.forEach(out::add);
+
+        out.set(0, MAGIC);
+        out.set(1, FORMAT_VERSION);
+        waitOutClockTick(devFile);
+        waitOutClockTick(projFile);
+        long stampedAt = System.currentTimeMillis();
+        stamp(out, 2, devFile);
+        stamp(out, 7, projFile);
+        out.set(STAMPED_AT, (int) (stampedAt >>> 32));
+        out.set(STAMPED_AT + 1, (int) stampedAt);
+        out.set(TOTAL_INTS, out.size());
+        out.set(ISSUE_COUNT, IntegrityChecker.check(developers, projects).getIssueCount());
+        out.set(12, devCount);
+        out.set(13, projCount);
+        int[] sections = { idTableAt, projOffsetsAt, projRowsAt, skillDictAt, skillOffsetsAt, skillRowsAt,
+                salaryAt, orphanAt };
+        for (int i = 0; i < sections.length; i++) {
+            out.set(14 + i, sections[i]);
+        }
+        ByteBuffer bytes = out.toBytes();
+
+        // Write to a temporary file and rename, so a reader never maps a half-written sidecar.
+        File tmp = new File(sidecarFile + ".tmp");
+        try (RandomAccessFile raf = new RandomAccessFile(tmp, "rw"); FileChannel channel = raf.getChannel()) {
+            raf.setLength(0);
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+        File target = new File(sidecarFile);
+        if (target.exists() && !target.delete() || !tmp.renameTo(target)) {
+            throw new IOException("Cannot replace " + sidecarFile);
+        }
+    }
+
+    /**
+     * @param developers The developers as loaded.
+     * @param id         Developer ID, any case.
+     * @return the first developer with that ID, or null.
+     */
+    public Developer findDeveloper(List<Developer> developers, String id) {
+        int row = findRow(developers, id);
+        return row < 0 ? null : developers.get(row);
+    }
+
+    /**
+     * @param developers The developers as loaded.
+     * @param projects   The projects as loaded.
+     * @param id         Developer ID, any case.
+     * @return the developer's projects, in file order.
+     */
+    public List<Project> projectsOf(List<Developer> developers, List<Project> projects, String id) {
+        int row = findRow(developers, id);
+        List<Project> result = new ArrayList<>();
+        if (row >= 0) {
+            for (int i = ints.get(projOffsets + row); i < ints.get(projOffsets + row + 1); i++) {
+                result.add(projects.get(ints.get(projRows + i)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Groups every project under its developer, in developer file order.
+     *
+     * @param developers The developers as loaded.
+     * @param projects   The projects as loaded.
+     * @return developer to projects (duplicate developer rows get no projects).
+     */
+    public Map<Developer, List<Project>> groupProjects(List<Developer> developers, List<Project> projects) {
+        Map<Developer, List<Project>> grouped = new LinkedHashMap<>();
+        for (int row = 0; row < devCount; row++) {
+            List<Project> list = new ArrayList<>();
+            for (int i = ints.get(projOffsets + row); i < ints.get(projOffsets + row + 1); i++) {
+                list.add(projects.get(ints.get(projRows + i)));
+            }
+            grouped.put(developers.get(row), list);
+        }
+        return grouped;
+    }
+
+    /**
+     * @param projects The projects as loaded.
+     * @return projects whose developer does not exist.
+     */
+    public List<Project> orphanedProjects(List<Project> projects) {
+        List<Project> result = new ArrayList<>();
+        int count = ints.get(orphanStart);
+        for (int i = 1; i <= count; i++) {
+            result.add(projects.get(ints.get(orphanStart + i)));
+        }
+        return result;
+    }
+
+    /**
+     * @param developers The developers as loaded.
+     * @param skill      The skill, any case.
+     * @return developers having it, in file order.
+     */
+    public List<Developer> findBySkill(List<Developer> developers, String skill) {
+        Integer index = skills.get(skill.trim().toLowerCase());
+        List<Developer> result = new ArrayList<>();
+        if (index != null) {
+            for (int i = ints.get(skillOffsets + index); i < ints.get(skillOffsets + index + 1); i++) {
+                result.add(developers.get(ints.get(skillRows + i)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param developers The developers as loaded.
+     * @return developers by ascending salary.
+     */
+    public List<Developer> sortedBySalary(List<Developer> developers) {
+        List<Developer> result = new ArrayList<>(devCount);
+        for (int i = 0; i < devCount; i++) {
+            result.add(developers.get(ints.get(salaryOrder + i)));
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of problems {@link IntegrityChecker#check} found in
+     *         the indexed data.
+     */
+    public int getIssueCount() {
+        return issueCount;
+    }
+
+    public int getDeveloperCount() {
+        return devCount;
+    }
+
+    public int getProjectCount() {
+        return projCount;
+    }
+
+    private int findRow(List<Developer> developers, String id) {
+        String key = id.toUpperCase();
+        int mask = idCapacity - 1;
+        for (int slot = mix(key.hashCode()) & mask;; slot = (slot + 1) & mask) {
+            int entry = ints.get(idTable + slot);
+            if (entry == 0) {
+                return -1;
+            }
+            if (developers.get(entry - 1).getId().equalsIgnoreCase(key)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    // Length and modification time must match; the CRC is read only if the file may have changed within the
+    // clock tick in which it was stamped.
+    private static boolean matches(IntBuffer header, int at, String dataFile, long stampedAt) throws IOException {
+        File f = new File(dataFile);
+        long length = f.exists() ? f.length() : -1;
+        long modified = f.lastModified();
+        if (header.get(at) != (int) (length >>> 32) || header.get(at + 1) != (int) length
+                || header.get(at + 2) != (int) (modified >>> 32) || header.get(at + 3) != (int) modified) {
+            return false;
+        }
+        return stampedAt - modified > mtimeResolution(modified) || header.get(at + 4) == checksum(f);
+    }
+
+    private static long mtimeResolution(long modified) {
+        return modified % 1000 == 0 ? COARSE_MTIME_MS : 1;
+    }
+
+    // On a file system with millisecond times, a stamp taken a tick after the last write is never in doubt.
+    private static void waitOutClockTick(String dataFile) throws IOException {
+        long modified = new File(dataFile).lastModified();
+        long resolution = mtimeResolution(modified);
+        long wait = modified + resolution + 1 - System.currentTimeMillis();
+        if (resolution < COARSE_MTIME_MS && wait > 0 && wait <= resolution + 1) {
+            try {
+                Thread.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while stamping " + dataFile, e);
+            }
+        }
+    }
+
+    private static void stamp(IntList out, int at, String dataFile) throws IOException {
+        File f = new File(dataFile);
+        long length = f.exists() ? f.length() : -1;
+        long modified = f.lastModified();
+        out.set(at, (int) (length >>> 32));
+        out.set(at + 1, (int) length);
+        out.set(at + 2, (int) (modified >>> 32));
+        out.set(at + 3, (int) modified);
+        out.set(at + 4, checksum(f));
+    }
+
+    private static int checksum(File f) throws IOException {
+        if (!f.exists()) {
+            return 0;
+        }
+        CRC32 crc = new CRC32();
+        byte[] buf = new byte[64 * 1024];
+        try (InputStream in = new FileInputStream(f)) {
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                crc.update(buf, 0, n);
+            }
+        }
+        return (int) crc.getValue();
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B1;
+        return h ^ (h >>> 16);
+    }
+
+    // Growable int array that serializes big-endian, as IntBuffer reads it back.
+    private static class IntList {
+        private int[] data = new int[1024];
+        private int size;
+
+        void add(int v) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = v;
+        }
+
+        void addBytes(byte[] bytes) {
+            for (int i = 0; i < bytes.length; i += 4) {
+                int v = 0;
+                for (int j = 0; j < 4; j++) {
+                    v = (v << 8) | (i + j < bytes.length ? bytes[i + j] & 0xFF : 0);
+                }
+                add(v);
+            }
+        }
+
+        void set(int index, int v) {
+            data[index] = v;
+        }
+
+        int size() {
+            return size;
+        }
+
+        ByteBuffer toBytes() {
+            ByteBuffer buf = ByteBuffer.allocate(size * 4);
+            buf.asIntBuffer().put(data, 0, size);
+            return buf;
+        }
+    }
+}
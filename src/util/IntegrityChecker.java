@@ -0,0 +1,204 @@
+package util;
+
+import entity.BaseEntity;
+import entity.Developer;
+import entity.Project;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Checks referential integrity between developers and projects.
+ *
+ * Ids are compared case-insensitively everywhere in the application, so the
+ * checker keys everything on the upper-cased id. The first occurrence of an
+ * id (in file order) is the one the application actually uses; later rows
+ * with the same id are reported as duplicates, or as case-variant duplicates
+ * when only the letter case differs. All passes run in parallel over the
+ * rows, which keeps the check cheap enough to run on every startup.
+ */
+public class IntegrityChecker {
+
+    /**
+     * Result of an integrity check. Lists are in file order.
+     */
+    public static class Report {
+        private final List<Project> orphanedProjects;
+        private final List<Developer> duplicateDevelopers;
+        private final List<Developer> caseVariantDevelopers;
+        private final List<Project> duplicateProjects;
+        private final List<Project> caseVariantProjects;
+
+        Report(List<Project> orphanedProjects, List<Developer> duplicateDevelopers,
+                List<Developer> caseVariantDevelopers, List<Project> duplicateProjects,
+                List<Project> caseVariantProjects) {
+            this.orphanedProjects = orphanedProjects;
+            this.duplicateDevelopers = duplicateDevelopers;
+            this.caseVariantDevelopers = caseVariantDevelopers;
+            this.duplicateProjects = duplicateProjects;
+            this.caseVariantProjects = caseVariantProjects;
+        }
+
+        public List<Project> getOrphanedProjects() {
+            return orphanedProjects;
+        }
+
+        public List<Developer> getDuplicateDevelopers() {
+            return duplicateDevelopers;
+        }
+
+        public List<Developer> getCaseVariantDevelopers() {
+            return caseVariantDevelopers;
+        }
+
+        public List<Project> getDuplicateProjects() {
+            return duplicateProjects;
+        }
+
+        public List<Project> getCaseVariantProjects() {
+            return caseVariantProjects;
+        }
+
+        /**
+         * @return true if no problem was found.
+         */
+        public boolean isClean() {
+            return getIssueCount() == 0;
+        }
+
+        /**
+         * @return total number of offending rows.
+         */
+        public int getIssueCount() {
+            return orphanedProjects.size() + duplicateDevelopers.size() + caseVariantDevelopers.size()
+                    + duplicateProjects.size() + caseVariantProjects.size();
+        }
+    }
+
+    /**
+     * Runs the integrity check.
+     *
+     * @param developers The developer list.
+     * @param projects   The project list.
+     * @return the report.
+     */
+    public static Report check(List<Developer> developers, List<Project> projects) {
+        Map<String, Integer> devFirst = firstOccurrences(developers);
+        Map<String, Integer> projFirst = firstOccurrences(projects);
+
+        List<Developer> devDuplicates = new ArrayList<>();
+        List<Developer> devCaseVariants = new ArrayList<>();
+        classifyDuplicates(developers, devFirst, devDuplicates, devCaseVariants);
+
+        List<Project> projDuplicates = new ArrayList<>();
+        List<Project> projCaseVariants = new ArrayList<>();
+        classifyDuplicates(projects, projFirst, projDuplicates, projCaseVariants);
+
+        List<Project> orphans = findOrphans(projects, devFirst.keySet());
+
+        return new Report(orphans, devDuplicates, devCaseVariants, projDuplicates, projCaseVariants);
+    }
+
+    /**
+     * Finds projects whose developer does not exist.
+     *
+     * @param developers The developer list.
+     * @param projects   The project list.
+     * @return the orphaned projects, in file order.
+     */
+    public static List<Project> findOrphanedProjects(List<Developer> developers, List<Project> projects) {
+        Set<String> devIds = developers.parallelStream()
+                .map(d -> key(d.getId()))
+                .collect(Collectors.toCollection(HashSet::new));
+        return findOrphans(projects, devIds);
+    }
+
+    /**
+     * Removes every row reported by {@code report} from the lists and appends
+     * them to quarantine files next to the data, so nothing is lost.
+     *
+     * @param report         A report produced for these same lists.
+     * @param developers     The developer list (modified in place).
+     * @param projects       The project list (modified in place).
+     * @param devQuarantine  File receiving the removed developers.
+     * @param projQuarantine File receiving the removed projects.
+     * @throws IOException if a quarantine file cannot be written.
+     */
+    public static void quarantine(Report report, List<Developer> developers, List<Project> projects,
+            String devQuarantine, String projQuarantine) throws IOException {
+        List<Developer> badDevs = new ArrayList<>(report.getDuplicateDevelopers());
+        badDevs.addAll(report.getCaseVariantDevelopers());
+        List<Project> badProjs = new ArrayList<>(report.getOrphanedProjects());
+        badProjs.addAll(report.getDuplicateProjects());
+        badProjs.addAll(report.getCaseVariantProjects());
+
+        if (!badDevs.isEmpty()) {
+            removeAllByIdentity(developers, badDevs);
+            List<Developer> quarantined = FileService.loadDevelopers(devQuarantine);
+            quarantined.addAll(badDevs);
+            FileService.saveDevelopers(devQuarantine, quarantined);
+        }
+        if (!badProjs.isEmpty()) {
+            removeAllByIdentity(projects, badProjs);
+            List<Project> quarantined = FileService.loadProjects(projQuarantine);
+            quarantined.addAll(badProjs);
+            FileService.saveProjects(projQuarantine, quarantined);
+        }
+    }
+
+    private static List<Project> findOrphans(List<Project> projects, Set<String> devIds) {
+        return projects.parallelStream()
+                .filter(p -> !devIds.contains(key(p.getDevId())))
+                .collect(Collectors.toList());
+    }
+
+    private static String key(String id) {
+        return id.toUpperCase();
+    }
+
+    // Maps each upper-cased id to the index of its first row.
+    private static Map<String, Integer> firstOccurrences(List<? extends BaseEntity> rows) {
+        ConcurrentHashMap<String, Integer> first = new ConcurrentHashMap<>(Math.max(16, rows.size() * 2));
+        IntStream.range(0, rows.size()).parallel()
+                .forEach(i -> first.merge(key(rows.get(i).getId()), i, Math::min));
+        return first;
+    }
+
+    private static <T extends BaseEntity> void classifyDuplicates(List<T> rows, Map<String, Integer> first,
+            List<T> duplicates, List<T> caseVariants) {
+        List<Integer> later = IntStream.range(0, rows.size()).parallel()
+                .filter(i -> first.get(key(rows.get(i).getId())) != i)
+                .boxed()
+                .collect(Collectors.toList());
+        for (int i : later) {
+            T row = rows.get(i);
+            String original = rows.get(first.get(key(row.getId()))).getId();
+            if (original.equals(row.getId())) {
+                duplicates.add(row);
+            } else {
+                caseVariants.add(row);
+            }
+        }
+    }
+
+    private static <T> void removeAllByIdentity(List<T> rows, List<T> toRemove) {
+        Set<T> remove = Collections.newSetFromMap(new IdentityHashMap<>());
+        remove.addAll(toRemove);
+        List<T> kept = new ArrayList<>(rows.size());
+        for (T row : rows) {
+            if (!remove.contains(row)) {
+                kept.add(row);
+            }
+        }
+        rows.clear();
+        rows.addAll(kept);
+    }
+}
@@ -0,0 +1,196 @@
+package util;
+
+import entity.Developer;
+import entity.Project;
+import java.util.List;
+
+/**
+ * One change to the roster, applied through {@link Roster#apply}.
+ * Instances are immutable; use the static factories.
+ */
+public final class Mutation {
+
+    /**
+     * Kinds of change.
+     */
+    public enum Type {
+        ADD_DEVELOPER, UPDATE_SALARY, UPDATE_SALARIES, REMOVE_DEVELOPER, ADD_PROJECT, REMOVE_PROJECT, REPLACE_ALL,
+        BATCH
+    }
+
+    private final Type type;
+    private final String id;
+    private final int index;
+    private final int salary;
+    private final Developer developer;
+    private final Project project;
+    private final List<Developer> developers;
+    private final List<Project> projects;
+    private final List<Mutation> steps;
+
+    private Mutation(Type type, String id, int index, int salary, Developer developer, Project project,
+            List<Developer> developers, List<Project> projects) {
+        this(type, id, index, salary, developer, project, developers, projects, null);
+    }
+
+    private Mutation(Type type, String id, int index, int salary, Developer developer, Project project,
+            List<Developer> developers, List<Project> projects, List<Mutation> steps) {
+        this.type = type;
+        this.id = id;
+        this.index = index;
+        this.salary = salary;
+        this.developer = developer;
+        this.project = project;
+        this.developers = developers;
+        this.projects = projects;
+        this.steps = steps;
+    }
+
+    /**
+     * @param developer The developer to append.
+     * @return the mutation.
+     */
+    public static Mutation addDeveloper(Developer developer) {
+        return addDeveloper(developer, -1);
+    }
+
+    /**
+     * @param developer The developer.
+     * @param index     Position to insert at, or -1 to append.
+     * @return the mutation.
+     */
+    public static Mutation addDeveloper(Developer developer, int index) {
+        return new Mutation(Type.ADD_DEVELOPER, developer.getId(), index, 0, developer, null, null, null);
+    }
+
+    /**
+     * @param devId  The developer ID.
+     * @param salary The new salary.
+     * @return the mutation.
+     */
+    public static Mutation updateSalary(String devId, int salary) {
+        return new Mutation(Type.UPDATE_SALARY, devId, -1, salary, null, null, null, null);
+    }
+
+    /**
+     * Changes the salaries of many developers as one change (one journal
+     * entry, undone in one step).
+     *
+     * @param updated Copies of the developers carrying their new salary;
+     *                matched to the roster by ID.
+     * @return the mutation.
+     */
+    public static Mutation updateSalaries(List<Developer> updated) {
+        return new Mutation(Type.UPDATE_SALARIES, null, -1, 0, null, null, PersistentList.of(updated), null);
+    }
+
+    /**
+     * @param devId The developer ID; the first match is removed.
+     * @return the mutation.
+     */
+    public static Mutation removeDeveloper(String devId) {
+        return removeDeveloper(devId, -1);
+    }
+
+    /**
+     * @param devId The developer ID.
+     * @param index Exact position to remove, or -1 for the first match.
+     * @return the mutation.
+     */
+    public static Mutation removeDeveloper(String devId, int index) {
+        return new Mutation(Type.REMOVE_DEVELOPER, devId, index, 0, null, null, null, null);
+    }
+
+    /**
+     * @param project The project to append.
+     * @return the mutation.
+     */
+    public static Mutation addProject(Project project) {
+        return addProject(project, -1);
+    }
+
+    /**
+     * @param project The project.
+     * @param index   Position to insert at, or -1 to append.
+     * @return the mutation.
+     */
+    public static Mutation addProject(Project project, int index) {
+        return new Mutation(Type.ADD_PROJECT, project.getId(), index, 0, null, project, null, null);
+    }
+
+    /**
+     * @param projectId The project ID.
+     * @param index     Exact position to remove, or -1 for the first match.
+     * @return the mutation.
+     */
+    public static Mutation removeProject(String projectId, int index) {
+        return new Mutation(Type.REMOVE_PROJECT, projectId, index, 0, null, null, null, null);
+    }
+
+    /**
+     * Replaces the whole roster (bulk repairs such as quarantine).
+     *
+     * @param developers The new developer list.
+     * @param projects   The new project list.
+     * @return the mutation.
+     */
+    public static Mutation replaceAll(List<Developer> developers, List<Project> projects) {
+        return new Mutation(Type.REPLACE_ALL, null, -1, 0, null, null, PersistentList.of(developers),
+                PersistentList.of(projects));
+    }
+
+    /**
+     * Several mutations applied in order as one change: one version, one
+     * journal entry, undone in one step. Used to commit a {@link Transaction}.
+     *
+     * @param steps The mutations, in order (not batches themselves).
+     * @return the mutation.
+     */
+    public static Mutation batch(List<Mutation> steps) {
+        return new Mutation(Type.BATCH, null, -1, 0, null, null, null, null, PersistentList.of(steps));
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getSalary() {
+        return salary;
+    }
+
+    public Developer getDeveloper() {
+        return developer;
+    }
+
+    public Project getProject() {
+        return project;
+    }
+
+    public List<Developer> getDevelopers() {
+        return developers;
+    }
+
+    public List<Project> getProjects() {
+        return projects;
+    }
+
+    /**
+     * @return the mutations of a BATCH, otherwise null.
+     */
+    public List<Mutation> getSteps() {
+        return steps;
+    }
+
+    @Override
+    public String toString() {
+        return type + (id == null ? "" : " " + id) + (steps == null ? "" : " " + steps);
+    }
+}
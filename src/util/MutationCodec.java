@@ -0,0 +1,202 @@
+package util;
+
+import entity.Developer;
+import entity.Project;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Line-based text encoding of roster mutations and snapshots, used to ship
+ * them between processes. Fields are tab-separated; entity rows use the same
+ * format as the data files.
+ *
+ * <pre>
+ * S  version devCount projCount      followed by the developer and project rows
+ * M  version type id index salary [row | devCount projCount + rows | stepCount + steps]
+ * </pre>
+ *
+ * The steps of a BATCH follow its header as complete "M" entries.
+ */
+public class MutationCodec {
+    public static final String SNAPSHOT = "S";
+    public static final String MUTATION = "M";
+    private static final String SEP = "\t";
+
+    /**
+     * Writes a full snapshot.
+     *
+     * @param out      The destination.
+     * @param snapshot The snapshot.
+     * @throws IOException on write failure.
+     */
+    public static void writeSnapshot(Writer out, Roster.Snapshot snapshot) throws IOException {
+        out.write(SNAPSHOT + SEP + snapshot.getVersion() + SEP + snapshot.getDevelopers().size() + SEP
+                + snapshot.getProjects().size() + "\n");
+        writeRows(out, snapshot.getDevelopers(), snapshot.getProjects());
+    }
+
+    /**
+     * Writes one mutation.
+     *
+     * @param out      The destination.
+     * @param version  The version the mutation produced.
+     * @param mutation The mutation.
+     * @throws IOException on write failure.
+     */
+    public static void writeMutation(Writer out, long version, Mutation mutation) throws IOException {
+        out.write(encode(version, mutation));
+    }
+
+    /**
+     * Encodes one mutation, including the trailing newline.
+     *
+     * @param version  The version the mutation produced.
+     * @param mutation The mutation.
+     * @return the encoded text (several lines for bulk changes and batches).
+     */
+    public static String encode(long version, Mutation mutation) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(MUTATION).append(SEP).append(version).append(SEP).append(mutation.getType()).append(SEP)
+                .append(mutation.getId() == null ? "" : mutation.getId()).append(SEP)
+                .append(mutation.getIndex()).append(SEP).append(mutation.getSalary()).append(SEP);
+        switch (mutation.getType()) {
+            case ADD_DEVELOPER:
+                sb.append(FileService.formatDeveloper(mutation.getDeveloper())).append('\n');
+                break;
+            case ADD_PROJECT:
+                sb.append(FileService.formatProject(mutation.getProject())).append('\n');
+                break;
+            case UPDATE_SALARIES:
+            case REPLACE_ALL: {
+                List<Project> projects = mutation.getProjects() == null ? new ArrayList<Project>()
+                        : mutation.getProjects();
+                sb.append(mutation.getDevelopers().size()).append(SEP).append(projects.size()).append('\n');
+                for (Developer d : mutation.getDevelopers()) {
+                    sb.append(FileService.formatDeveloper(d)).append('\n');
+                }
+                for (Project p : projects) {
+                    sb.append(FileService.formatProject(p)).append('\n');
+                }
+                break;
+            }
+            case BATCH:
+                sb.append(mutation.getSteps().size()).append('\n');
+                for (Mutation step : mutation.getSteps()) {
+                    sb.append(encode(version, step));
+                }
+                break;
+            default:
+                sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Splits a header line into its fields.
+     *
+     * @param line The line.
+     * @return the fields.
+     */
+    public static String[] fields(String line) {
+        return line.split(SEP, -1);
+    }
+
+    /**
+     * Decodes a mutation whose header fields were already read.
+     *
+     * @param fields Fields of the "M" line.
+     * @param in     Reader positioned after the header (for rows and batch
+     *               steps).
+     * @return the mutation.
+     * @throws IOException on read failure or malformed input.
+     */
+    public static Mutation decodeMutation(String[] fields, BufferedReader in) throws IOException {
+        Mutation.Type type = Mutation.Type.valueOf(fields[2]);
+        String id = fields[3];
+        int index = Integer.parseInt(fields[4]);
+        int salary = Integer.parseInt(fields[5]);
+        switch (type) {
+            case ADD_DEVELOPER:
+                return Mutation.addDeveloper(FileService.parseDeveloper(fields[6]), index);
+            case UPDATE_SALARY:
+                return Mutation.updateSalary(id, salary);
+            case REMOVE_DEVELOPER:
+                return Mutation.removeDeveloper(id, index);
+            case ADD_PROJECT:
+                return Mutation.addProject(FileService.parseProject(fields[6]), index);
+            case REMOVE_PROJECT:
+                return Mutation.removeProject(id, index);
+            case UPDATE_SALARIES:
+            case REPLACE_ALL: {
+                List<Developer> devs = new ArrayList<>();
+                List<Project> projs = new ArrayList<>();
+                readRows(in, Integer.parseInt(fields[6]), Integer.parseInt(fields[7]), devs, projs);
+                return type == Mutation.Type.UPDATE_SALARIES ? Mutation.updateSalaries(devs)
+                        : Mutation.replaceAll(devs, projs);
+            }
+            case BATCH: {
+                int count = Integer.parseInt(fields[6]);
+                List<Mutation> steps = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    String[] stepFields = fields(readLine(in));
+                    if (!stepFields[0].equals(MUTATION)) {
+                        throw new IOException("Expected a batch step, got: " + stepFields[0]);
+                    }
+                    steps.add(decodeMutation(stepFields, in));
+                }
+                return Mutation.batch(steps);
+            }
+            default:
+                throw new IOException("Unknown mutation type: " + type);
+        }
+    }
+
+    /**
+     * Reads the rows following an "S" line.
+     *
+     * @param fields     Fields of the "S" line.
+     * @param in         The reader.
+     * @param developers Receives the developers.
+     * @param projects   Receives the projects.
+     * @return the snapshot version.
+     * @throws IOException on read failure or malformed input.
+     */
+    public static long readSnapshot(String[] fields, BufferedReader in, List<Developer> developers,
+            List<Project> projects) throws IOException {
+        readRows(in, Integer.parseInt(fields[2]), Integer.parseInt(fields[3]), developers, projects);
+        return Long.parseLong(fields[1]);
+    }
+
+    static void writeRows(Writer out, List<Developer> developers, List<Project> projects)
+            throws IOException {
+        for (Developer d : developers) {
+            out.write(FileService.formatDeveloper(d));
+            out.write('\n');
+        }
+        for (Project p : projects) {
+            out.write(FileService.formatProject(p));
+            out.write('\n');
+        }
+    }
+
+    static void readRows(BufferedReader in, int devCount, int projCount, List<Developer> developers,
+            List<Project> projects) throws IOException {
+        for (int i = 0; i < devCount; i++) {
+            developers.add(FileService.parseDeveloper(readLine(in)));
+        }
+        for (int i = 0; i < projCount; i++) {
+            projects.add(FileService.parseProject(readLine(in)));
+        }
+    }
+
+    private static String readLine(BufferedReader in) throws IOException {
+        String line = in.readLine();
+        if (line == null) {
+            throw new IOException("Unexpected end of stream");
+        }
+        return line;
+    }
+}
@@ -0,0 +1,224 @@
+package util;
+
+import entity.Developer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Searches developers by name, ignoring case and Vietnamese diacritics.
+ *
+ * Two structures are kept in sync with the roster:
+ * <ul>
+ * <li>a prefix trie over every word-suffix of the folded name ("nguyen van a",
+ * "van a", "a"), so "van" autocompletes any developer with a word starting
+ * with it;</li>
+ * <li>a trigram index over the padded folded name, used to rank typo-tolerant
+ * matches by Dice similarity.</li>
+ * </ul>
+ * Only developers sharing at least one trigram with the query are scored, and
+ * a bounded heap keeps the top K, so a query touches far fewer rows than a
+ * scan of the roster.
+ */
+public class NameIndex {
+    private static final double MIN_SIMILARITY = 0.3;
+
+    private final TrieNode root = new TrieNode();
+    private final Map<String, Set<Developer>> trigrams = new HashMap<>();
+    private final Map<Developer, String> foldedNames = new HashMap<>();
+    private final Map<Developer, Integer> gramCounts = new HashMap<>();
+
+    private static class TrieNode {
+        final Map<Character, TrieNode> children = new HashMap<>();
+        final Set<Developer> developers = new LinkedHashSet<>();
+    }
+
+    /**
+     * Builds the index over a roster.
+     *
+     * @param developers The developers to index.
+     */
+    public NameIndex(List<Developer> developers) {
+        for (Developer d : developers) {
+            add(d);
+        }
+    }
+
+    /**
+     * Indexes a developer.
+     *
+     * @param developer The developer.
+     */
+    public void add(Developer developer) {
+        String folded = TextNormalizer.fold(developer.getName());
+        foldedNames.put(developer, folded);
+        for (String suffix : wordSuffixes(folded)) {
+            TrieNode node = root;
+            for (char c : suffix.toCharArray()) {
+                node = node.children.computeIfAbsent(c, k -> new TrieNode());
+            }
+            node.developers.add(developer);
+        }
+        Set<String> grams = trigramsOf(folded);
+        gramCounts.put(developer, grams.size());
+        for (String t : grams) {
+            trigrams.computeIfAbsent(t, k -> new HashSet<>()).add(developer);
+        }
+    }
+
+    /**
+     * Removes a developer from the index.
+     *
+     * @param developer The developer.
+     */
+    public void remove(Developer developer) {
+        String folded = foldedNames.remove(developer);
+        if (folded == null) {
+            return;
+        }
+        gramCounts.remove(developer);
+        for (String suffix : wordSuffixes(folded)) {
+            removeFromTrie(root, suffix, 0, developer);
+        }
+        for (String t : trigramsOf(folded)) {
+            Set<Developer> set = trigrams.get(t);
+            if (set != null) {
+                set.remove(developer);
+                if (set.isEmpty()) {
+                    trigrams.remove(t);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds developers with a name word starting with the given prefix.
+     *
+     * @param prefix The prefix (any case, diacritics optional).
+     * @param limit  Maximum number of results.
+     * @return matching developers, shorter names first.
+     */
+    public List<Developer> prefixSearch(String prefix, int limit) {
+        TrieNode node = root;
+        for (char c : TextNormalizer.fold(prefix).toCharArray()) {
+            node = node.children.get(c);
+            if (node == null) {
+                return new ArrayList<>();
+            }
+        }
+        // Breadth-first, so the closest completions come out first.
+        Set<Developer> found = new LinkedHashSet<>();
+        List<TrieNode> level = new ArrayList<>();
+        level.add(node);
+        while (!level.isEmpty() && found.size() < limit) {
+            List<TrieNode> next = new ArrayList<>();
+            for (TrieNode n : level) {
+                for (Developer d : n.developers) {
+                    found.add(d);
+                    if (found.size() >= limit) {
+                        return new ArrayList<>(found);
+                    }
+                }
+                next.addAll(n.children.values());
+            }
+            level = next;
+        }
+        return new ArrayList<>(found);
+    }
+
+    /**
+     * Finds developers whose name is similar to the query, tolerating typos.
+     *
+     * @param query The (possibly misspelled) name.
+     * @param limit Maximum number of results.
+     * @return best matches first.
+     */
+    public List<Developer> fuzzySearch(String query, int limit) {
+        Set<String> queryGrams = trigramsOf(TextNormalizer.fold(query));
+        Map<Developer, Integer> shared = new HashMap<>();
+        for (String t : queryGrams) {
+            Set<Developer> set = trigrams.get(t);
+            if (set != null) {
+                for (Developer d : set) {
+                    shared.merge(d, 1, Integer::sum);
+                }
+            }
+        }
+
+        PriorityQueue<Map.Entry<Developer, Double>> top = new PriorityQueue<>(
+                Comparator.comparingDouble(Map.Entry::getValue));
+        for (Map.Entry<Developer, Integer> e : shared.entrySet()) {
+            double dice = 2.0 * e.getValue() / (queryGrams.size() + gramCounts.get(e.getKey()));
+            if (dice < MIN_SIMILARITY) {
+                continue;
+            }
+            top.add(new AbstractMap.SimpleEntry<>(e.getKey(), dice));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<Map.Entry<Developer, Double>> ranked = new ArrayList<>(top);
+        ranked.sort(Comparator.comparingDouble((Map.Entry<Developer, Double> e) -> e.getValue()).reversed());
+        List<Developer> result = new ArrayList<>();
+        for (Map.Entry<Developer, Double> e : ranked) {
+            result.add(e.getKey());
+        }
+        return result;
+    }
+
+    /**
+     * Prefix matches first, then fuzzy matches, without duplicates.
+     *
+     * @param query The query.
+     * @param limit Maximum number of results.
+     * @return ranked developers.
+     */
+    public List<Developer> search(String query, int limit) {
+        Set<Developer> result = new LinkedHashSet<>(prefixSearch(query, limit));
+        for (Developer d : fuzzySearch(query, limit)) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(d);
+        }
+        return new ArrayList<>(result);
+    }
+
+    private static boolean removeFromTrie(TrieNode node, String key, int depth, Developer developer) {
+        if (depth == key.length()) {
+            node.developers.remove(developer);
+        } else {
+            TrieNode child = node.children.get(key.charAt(depth));
+            if (child != null && removeFromTrie(child, key, depth + 1, developer)) {
+                node.children.remove(key.charAt(depth));
+            }
+        }
+        return node.developers.isEmpty() && node.children.isEmpty();
+    }
+
+    private static List<String> wordSuffixes(String folded) {
+        List<String> suffixes = new ArrayList<>();
+        suffixes.add(folded);
+        for (int i = folded.indexOf(' '); i >= 0; i = folded.indexOf(' ', i + 1)) {
+            suffixes.add(folded.substring(i + 1));
+        }
+        return suffixes;
+    }
+
+    private static Set<String> trigramsOf(String folded) {
+        String padded = "  " + folded + " ";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,158 @@
+package util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list with cheap modified copies.
+ *
+ * Elements live in fixed-size chunks referenced from a small top-level array.
+ * {@link #with}, {@link #plus(Object)} copy only the top-level array and the
+ * one chunk they touch, and share every other chunk with the original, so a
+ * new version of a million-element list costs a few kilobytes. Inserting or
+ * removing in the middle shares the chunks before the position and rebuilds
+ * the rest.
+ *
+ * @param <T> The element type.
+ */
+public final class PersistentList<T> extends AbstractList<T> implements RandomAccess {
+    private static final int SHIFT = 10;
+    private static final int CHUNK = 1 << SHIFT;
+    private static final int MASK = CHUNK - 1;
+    private static final PersistentList<Object> EMPTY = new PersistentList<>(new Object[0][], 0);
+
+    private final Object[][] chunks;
+    private final int size;
+
+    private PersistentList(Object[][] chunks, int size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    /**
+     * @param <T> The element type.
+     * @return the empty list.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentList<T> empty() {
+        return (PersistentList<T>) EMPTY;
+    }
+
+    /**
+     * Copies a collection.
+     *
+     * @param <T>      The element type.
+     * @param elements The elements.
+     * @return a list holding the elements in iteration order.
+     */
+    public static <T> PersistentList<T> of(Collection<? extends T> elements) {
+        if (elements instanceof PersistentList) {
+            @SuppressWarnings("unchecked")
+            PersistentList<T> list = (PersistentList<T>) elements;
+            return list;
+        }
+        return PersistentList.<T>empty().rebuildFrom(0, elements.toArray());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (T) chunks[index >> SHIFT][index & MASK];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index   Position to replace.
+     * @param element New element.
+     * @return a copy with the element replaced.
+     */
+    public PersistentList<T> with(int index, T element) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        Object[][] top = chunks.clone();
+        top[index >> SHIFT] = top[index >> SHIFT].clone();
+        top[index >> SHIFT][index & MASK] = element;
+        return new PersistentList<>(top, size);
+    }
+
+    /**
+     * @param element Element to append.
+     * @return a copy with the element appended.
+     */
+    public PersistentList<T> plus(T element) {
+        Object[][] top;
+        if ((size & MASK) == 0) {
+            top = Arrays.copyOf(chunks, chunks.length + 1);
+            top[top.length - 1] = new Object[CHUNK];
+        } else {
+            top = chunks.clone();
+            top[top.length - 1] = top[top.length - 1].clone();
+        }
+        top[size >> SHIFT][size & MASK] = element;
+        return new PersistentList<>(top, size + 1);
+    }
+
+    /**
+     * @param index   Insert position (0..size).
+     * @param element Element to insert.
+     * @return a copy with the element inserted.
+     */
+    public PersistentList<T> plus(int index, T element) {
+        if (index == size) {
+            return plus(element);
+        }
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int from = index & ~MASK;
+        Object[] tail = new Object[size - from + 1];
+        for (int i = from, j = 0; i < size; i++, j++) {
+            if (i == index) {
+                tail[j++] = element;
+            }
+            tail[j] = get(i);
+        }
+        return rebuildFrom(from, tail);
+    }
+
+    /**
+     * @param index Position to remove.
+     * @return a copy without the element.
+     */
+    public PersistentList<T> minus(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int from = index & ~MASK;
+        Object[] tail = new Object[size - from - 1];
+        for (int i = from, j = 0; i < size; i++) {
+            if (i != index) {
+                tail[j++] = get(i);
+            }
+        }
+        return rebuildFrom(from, tail);
+    }
+
+    // Keeps the chunks before 'from' (a chunk boundary) and re-chunks 'tail' after them.
+    private PersistentList<T> rebuildFrom(int from, Object[] tail) {
+        int newSize = from + tail.length;
+        int kept = from >> SHIFT;
+        Object[][] top = Arrays.copyOf(chunks, (newSize + MASK) >> SHIFT);
+        for (int c = kept; c < top.length; c++) {
+            top[c] = new Object[CHUNK];
+            int start = (c - kept) << SHIFT;
+            System.arraycopy(tail, start, top[c], 0, Math.min(CHUNK, tail.length - start));
+        }
+        return new PersistentList<>(top, newSize);
+    }
+}
@@ -0,0 +1,484 @@
+package util;
+
+import entity.Project;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Cold storage for completed projects (start date plus duration in the
+ * past), which are kept out of the in-memory roster.
+ *
+ * Each archiving run writes one immutable segment file: a header with, per
+ * developer, the number of archived projects and their total months, the
+ * lowest and highest project ID and a Bloom filter over the IDs, then two
+ * deflate-compressed sections, the sorted project IDs and the project rows
+ * sorted by developer ID. At startup each segment is checksummed but only
+ * its header is parsed; the header summaries are added up so experience
+ * totals never touch the rows. The compressed sections are inflated on
+ * demand (for listing a developer's archived projects or checking whether a
+ * project ID is taken) and kept softly cached; an ID outside a segment's
+ * range or rejected by its Bloom filter is known to be absent without
+ * inflating anything. Segments written before the filter existed
+ * ("PAS1") are always searched.
+ *
+ * A segment ends with a CRC32 and is written to a temporary file first, so
+ * a damaged or partial segment is never read. Processes that do not archive
+ * themselves (replicas, the shard coordinator) open the same directory and
+ * pick up new segments with {@link #refresh()}.
+ */
+public class ProjectArchive {
+    private static final int MAGIC_V1 = 0x50415331; // "PAS1"
+    private static final int MAGIC = 0x50415332; // "PAS2": adds the ID range and Bloom filter
+    private static final int BLOOM_BITS_PER_ID = 10;
+    private static final int BLOOM_HASHES = 7;
+    private static final String SUFFIX = ".seg";
+
+    private final File dir;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final Map<String, Summary> summaries = new ConcurrentHashMap<>();
+    private final Set<String> loaded = new HashSet<>(); // file names, guarded by this
+
+    /**
+     * Archived projects of one developer, over all segments.
+     */
+    public static class Summary {
+        private int projects;
+        private int months;
+
+        public int getProjects() {
+            return projects;
+        }
+
+        public int getMonths() {
+            return months;
+        }
+    }
+
+    // One segment file: its per-developer row ranges and where the compressed sections are.
+    private static class Segment {
+        final File file;
+        final int projectCount;
+        final Map<String, int[]> rowsByDev = new HashMap<>(); // upper-case devId -> {first row, count, months}
+        final int idsOffset;
+        final int idsLength;
+        final int rowsOffset;
+        final int rowsLength;
+        final String minId;
+        final String maxId;
+        final long[] bloom; // null for a "PAS1" segment
+        SoftReference<String[]> ids = new SoftReference<>(null);
+        SoftReference<String[]> rows = new SoftReference<>(null);
+
+        Segment(File file, byte[] bytes) throws IOException {
+            this.file = file;
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            int magic = in.readInt();
+            if (magic != MAGIC && magic != MAGIC_V1) {
+                throw new IOException("Not an archive segment: " + file);
+            }
+            in.readLong(); // creation time
+            projectCount = in.readInt();
+            int devCount = in.readInt();
+            for (int i = 0; i < devCount; i++) {
+                String devId = in.readUTF();
+                rowsByDev.put(devId, new int[] { in.readInt(), in.readInt(), in.readInt() });
+            }
+            if (magic == MAGIC) {
+                minId = in.readUTF();
+                maxId = in.readUTF();
+                bloom = new long[in.readInt()];
+                for (int i = 0; i < bloom.length; i++) {
+                    bloom[i] = in.readLong();
+                }
+            } else {
+                minId = null;
+                maxId = null;
+                bloom = null;
+            }
+            idsLength = in.readInt();
+            idsOffset = bytes.length - in.available();
+            in.skipBytes(idsLength);
+            rowsLength = in.readInt();
+            rowsOffset = bytes.length - in.available();
+        }
+
+        // False means the upper-cased ID is certainly not in this segment.
+        boolean mightContain(String key) {
+            if (bloom == null) {
+                return true;
+            }
+            if (projectCount == 0 || key.compareTo(minId) < 0 || key.compareTo(maxId) > 0) {
+                return false;
+            }
+            long bits = bloom.length * 64L;
+            int h1 = key.hashCode();
+            int h2 = mix(h1);
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bits);
+                if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Opens the archive, reading the header of every segment. Segments that
+     * fail their checksum are reported and skipped.
+     *
+     * @param dirName Directory holding the segments; created on first write.
+     */
+    public ProjectArchive(String dirName) {
+        this.dir = new File(dirName);
+        refresh();
+    }
+
+    /**
+     * Reads the headers of segments written since this archive was opened
+     * or last refreshed, for instance by the primary.
+     */
+    public synchronized void refresh() {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(SUFFIX));
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files);
+        for (File f : files) {
+            if (!loaded.add(f.getName())) {
+                continue;
+            }
+            try {
+                byte[] bytes = Files.readAllBytes(f.toPath());
+                if (bytes.length < 8 || crc(bytes, bytes.length - 4) != readInt(bytes, bytes.length - 4)) {
+                    throw new IOException("checksum mismatch");
+                }
+                addSegment(new Segment(f, bytes));
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Skipping damaged archive segment " + f.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @param project A project.
+     * @param today   Today as an epoch-day.
+     * @return true if the project ended on or before today.
+     */
+    public static boolean isCompleted(Project project, long today) {
+        return project.getEndEpochDay() != Project.UNKNOWN_DATE && project.getEndEpochDay() <= today;
+    }
+
+    /**
+     * Writes the given projects as a new segment.
+     *
+     * @param projects Completed projects; their IDs must not be archived
+     *                 already.
+     * @return the segment size in bytes.
+     * @throws IOException if the segment cannot be written.
+     */
+    public synchronized long archive(List<Project> projects) throws IOException {
+        List<Project> sorted = new ArrayList<>(projects);
+        sorted.sort(Comparator.comparing((Project p) -> p.getDevId().toUpperCase())
+                .thenComparing(p -> p.getId().toUpperCase()));
+        String[] ids = new String[sorted.size()];
+        StringBuilder rows = new StringBuilder();
+        for (int i = 0; i < sorted.size(); i++) {
+            ids[i] = sorted.get(i).getId().toUpperCase();
+            rows.append(FileService.formatProject(sorted.get(i))).append('\n');
+        }
+        Arrays.sort(ids);
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(MAGIC);
+        out.writeLong(System.currentTimeMillis());
+        out.writeInt(sorted.size());
+        List<String> devIds = new ArrayList<>();
+        List<int[]> ranges = new ArrayList<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            String devId = sorted.get(i).getDevId().toUpperCase();
+            if (devIds.isEmpty() || !devIds.get(devIds.size() - 1).equals(devId)) {
+                devIds.add(devId);
+                ranges.add(new int[] { i, 0, 0 });
+            }
+            int[] range = ranges.get(ranges.size() - 1);
+            range[1]++;
+            range[2] += sorted.get(i).getDurationMonths();
+        }
+        out.writeInt(devIds.size());
+        for (int i = 0; i < devIds.size(); i++) {
+            out.writeUTF(devIds.get(i));
+            for (int v : ranges.get(i)) {
+                out.writeInt(v);
+            }
+        }
+        out.writeUTF(ids.length == 0 ? "" : ids[0]);
+        out.writeUTF(ids.length == 0 ? "" : ids[ids.length - 1]);
+        long[] bloom = bloomFilter(ids);
+        out.writeInt(bloom.length);
+        for (long word : bloom) {
+            out.writeLong(word);
+        }
+        writeCompressed(out, String.join("\n", ids));
+        writeCompressed(out, rows.toString());
+        out.flush();
+        byte[] bytes = buffer.toByteArray();
+        bytes = Arrays.copyOf(bytes, bytes.length + 4);
+        int crc = crc(bytes, bytes.length - 4);
+        for (int i = 0; i < 4; i++) {
+            bytes[bytes.length - 4 + i] = (byte) (crc >>> (24 - 8 * i));
+        }
+
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        File file = new File(dir, String.format("segment-%06d%s", nextSegmentNumber(), SUFFIX));
+        File tmp = new File(dir, file.getName() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp)) {
+            fos.write(bytes);
+            fos.getFD().sync();
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Cannot create " + file);
+        }
+        loaded.add(file.getName());
+        addSegment(new Segment(file, bytes));
+        return bytes.length;
+    }
+
+    /**
+     * @param devId Developer ID, any case.
+     * @return the developer's archived project count and months (zero if
+     *         none).
+     */
+    public Summary summaryOf(String devId) {
+        Summary s = summaries.get(devId.toUpperCase());
+        return s == null ? new Summary() : s;
+    }
+
+    /**
+     * Reads a developer's archived projects from the segments that have any.
+     *
+     * @param devId Developer ID, any case.
+     * @return the projects, oldest segment first.
+     * @throws UncheckedIOException if a segment cannot be read.
+     */
+    public List<Project> projectsOf(String devId) {
+        String key = devId.toUpperCase();
+        List<Project> result = new ArrayList<>();
+        for (Segment s : segments) {
+            int[] range = s.rowsByDev.get(key);
+            if (range != null) {
+                String[] rows = rows(s);
+                for (int i = range[0]; i < range[0] + range[1]; i++) {
+                    result.add(FileService.parseProject(rows[i]));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param id Project ID, any case.
+     * @return true if a project with this ID is archived.
+     * @throws UncheckedIOException if a segment cannot be read.
+     */
+    public boolean containsProject(String id) {
+        String key = id.toUpperCase();
+        for (Segment s : segments) {
+            if (s.mightContain(key) && Arrays.binarySearch(ids(s), key) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops projects that are archived already. A crash between writing a
+     * segment and saving the project file leaves them in both places; only
+     * completed projects can be affected, and a segment's ID section is
+     * read only if its range and Bloom filter admit one of them.
+     *
+     * @param projects Projects loaded from the project file.
+     * @param today    Today as an epoch-day.
+     * @return the projects that are not archived.
+     */
+    public List<Project> retainUnarchived(List<Project> projects, long today) {
+        Set<String> archived = new HashSet<>();
+        for (Project p : projects) {
+            if (isCompleted(p, today) && containsProject(p.getId())) {
+                archived.add(p.getId().toUpperCase());
+            }
+        }
+        if (archived.isEmpty()) {
+            return projects;
+        }
+        List<Project> result = new ArrayList<>(projects.size());
+        for (Project p : projects) {
+            if (!archived.contains(p.getId().toUpperCase())) {
+                result.add(p);
+            }
+        }
+        return result;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * @return number of archived projects.
+     */
+    public int getProjectCount() {
+        int total = 0;
+        for (Segment s : segments) {
+            total += s.projectCount;
+        }
+        return total;
+    }
+
+    /**
+     * @return total size of the segment files.
+     */
+    public long getBytes() {
+        long total = 0;
+        for (Segment s : segments) {
+            total += s.file.length();
+        }
+        return total;
+    }
+
+    private void addSegment(Segment s) {
+        segments.add(s);
+        for (Map.Entry<String, int[]> e : s.rowsByDev.entrySet()) {
+            Summary sum = summaries.computeIfAbsent(e.getKey(), k -> new Summary());
+            sum.projects += e.getValue()[1];
+            sum.months += e.getValue()[2];
+        }
+    }
+
+    private int nextSegmentNumber() {
+        int max = 0;
+        File[] files = dir.listFiles((d, name) -> name.startsWith("segment-") && name.endsWith(SUFFIX));
+        for (File f : files == null ? new File[0] : files) {
+            try {
+                max = Math.max(max, Integer.parseInt(f.getName().substring(8, f.getName().length() - 4)));
+            } catch (NumberFormatException e) {
+                // Not one of ours
+            }
+        }
+        return max + 1;
+    }
+
+    private String[] ids(Segment s) {
+        String[] ids = s.ids.get();
+        if (ids == null) {
+            ids = s.projectCount == 0 ? new String[0] : inflate(s, s.idsOffset, s.idsLength).split("\n");
+            s.ids = new SoftReference<>(ids);
+        }
+        return ids;
+    }
+
+    private String[] rows(Segment s) {
+        String[] rows = s.rows.get();
+        if (rows == null) {
+            rows = s.projectCount == 0 ? new String[0] : inflate(s, s.rowsOffset, s.rowsLength).split("\n");
+            s.rows = new SoftReference<>(rows);
+        }
+        return rows;
+    }
+
+    private static String inflate(Segment s, int offset, int length) {
+        try {
+            byte[] bytes = Files.readAllBytes(s.file.toPath());
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(bytes, offset, length);
+                ByteArrayOutputStream out = new ByteArrayOutputStream(length * 4);
+                byte[] chunk = new byte[64 * 1024];
+                while (!inflater.finished()) {
+                    int n = inflater.inflate(chunk);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new IOException("Truncated section in " + s.file.getName());
+                    }
+                    out.write(chunk, 0, n);
+                }
+                return new String(out.toByteArray(), StandardCharsets.UTF_8);
+            } finally {
+                inflater.end();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (DataFormatException e) {
+            throw new UncheckedIOException(new IOException("Corrupt section in " + s.file.getName(), e));
+        }
+    }
+
+    private static void writeCompressed(DataOutputStream out, String text) throws IOException {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        deflater.setInput(text.getBytes(StandardCharsets.UTF_8));
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        byte[] chunk = new byte[64 * 1024];
+        while (!deflater.finished()) {
+            compressed.write(chunk, 0, deflater.deflate(chunk));
+        }
+        deflater.end();
+        out.writeInt(compressed.size());
+        compressed.writeTo(out);
+    }
+
+    // Same hashing as Segment.mightContain, about 1% false positives.
+    private static long[] bloomFilter(String[] ids) {
+        long[] bloom = new long[Math.max(1, (ids.length * BLOOM_BITS_PER_ID + 63) / 64)];
+        long bits = bloom.length * 64L;
+        for (String id : ids) {
+            int h1 = id.hashCode();
+            int h2 = mix(h1);
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bits);
+                bloom[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+        return bloom;
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B1;
+        return h ^ (h >>> 15) | 1;
+    }
+
+    private static int crc(byte[] bytes, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+
+    private static int readInt(byte[] b, int at) {
+        return (b[at] & 0xFF) << 24 | (b[at + 1] & 0xFF) << 16 | (b[at + 2] & 0xFF) << 8 | (b[at + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,103 @@
+package util;
+
+import entity.Project;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Read-only interval tree over project date ranges [start, start + duration).
+ *
+ * Projects are sorted by start day and stored in flat arrays; the tree is
+ * implicit (the middle element of every range is the subtree root) and each
+ * node records the latest end day in its subtree. A query visits only
+ * subtrees that can contain a match, so it runs in O(log n + k). Projects
+ * whose start date cannot be parsed are left out.
+ *
+ * The index is immutable: rebuild it after projects change.
+ */
+public class ProjectIntervalIndex {
+    private final Project[] projects;
+    private final long[] start;
+    private final long[] end;
+    private final long[] maxEnd;
+
+    /**
+     * Builds the index in O(n log n).
+     *
+     * @param projects The projects to index.
+     */
+    public ProjectIntervalIndex(List<Project> projects) {
+        List<Project> dated = new ArrayList<>(projects.size());
+        for (Project p : projects) {
+            if (p.getStartEpochDay() != Project.UNKNOWN_DATE) {
+                dated.add(p);
+            }
+        }
+        dated.sort(Comparator.comparingLong(Project::getStartEpochDay));
+
+        int n = dated.size();
+        this.projects = dated.toArray(new Project[n]);
+        this.start = new long[n];
+        this.end = new long[n];
+        this.maxEnd = new long[n];
+        for (int i = 0; i < n; i++) {
+            start[i] = this.projects[i].getStartEpochDay();
+            end[i] = this.projects[i].getEndEpochDay();
+        }
+        Arrays.fill(maxEnd, Long.MIN_VALUE);
+        buildMaxEnd(0, n);
+    }
+
+    /**
+     * Finds projects running on the given day.
+     *
+     * @param epochDay The day.
+     * @return matching projects ordered by start date.
+     */
+    public List<Project> activeAt(long epochDay) {
+        return overlapping(epochDay, epochDay + 1);
+    }
+
+    /**
+     * Finds projects overlapping the half-open range [fromDay, toDay).
+     *
+     * @param fromDay First day of the range.
+     * @param toDay   Day after the last day of the range.
+     * @return matching projects ordered by start date.
+     */
+    public List<Project> overlapping(long fromDay, long toDay) {
+        List<Project> result = new ArrayList<>();
+        collect(0, projects.length, fromDay, toDay, result);
+        return result;
+    }
+
+    private long buildMaxEnd(int from, int to) {
+        if (from >= to) {
+            return Long.MIN_VALUE;
+        }
+        int mid = (from + to) >>> 1;
+        long max = Math.max(end[mid], Math.max(buildMaxEnd(from, mid), buildMaxEnd(mid + 1, to)));
+        maxEnd[mid] = max;
+        return max;
+    }
+
+    private void collect(int from, int to, long lo, long hi, List<Project> out) {
+        if (from >= to) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        if (maxEnd[mid] <= lo) {
+            return; // everything in this subtree ends before the range
+        }
+        collect(from, mid, lo, hi, out);
+        if (start[mid] >= hi) {
+            return; // mid and the whole right subtree start after the range
+        }
+        if (end[mid] > lo) {
+            out.add(projects[mid]);
+        }
+        collect(mid + 1, to, lo, hi, out);
+    }
+}
@@ -0,0 +1,246 @@
+package util;
+
+import entity.Project;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Full-text inverted index over project names and client names.
+ *
+ * Text is folded with {@link TextNormalizer} (case and diacritics) and split
+ * into alphanumeric tokens. Each field has its own sorted term dictionary
+ * whose posting lists hold document numbers in ascending order, so AND
+ * queries are merge intersections and prefix queries are a range scan of the
+ * dictionary. Documents are numbered in the order projects are added.
+ *
+ * Query syntax, terms are ANDed:
+ * <ul>
+ * <li>{@code banking} - token in the name or the client name;</li>
+ * <li>{@code viet*} - any token starting with "viet";</li>
+ * <li>{@code "mobile banking"} - consecutive tokens in one field;</li>
+ * <li>{@code client:viet*}, {@code name:crm} - restrict a term to one field.</li>
+ * </ul>
+ */
+public class ProjectTextIndex {
+    private static final Pattern QUERY_TERM = Pattern.compile("(?:(name|client):)?(?:\"([^\"]*)\"|(\\S+))");
+    private static final int CHUNK_SIZE = 10_000;
+
+    private final List<Project> docs = new ArrayList<>();
+    private final List<String[]> nameTokens = new ArrayList<>();
+    private final List<String[]> clientTokens = new ArrayList<>();
+    private final TreeMap<String, PostingList> nameTerms = new TreeMap<>();
+    private final TreeMap<String, PostingList> clientTerms = new TreeMap<>();
+
+    private enum Field {
+        NAME, CLIENT, ANY
+    }
+
+    private static class PostingList {
+        int[] docs = new int[4];
+        int size;
+
+        void add(int doc) {
+            if (size > 0 && docs[size - 1] == doc) {
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        void addAll(PostingList other, int offset) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.docs[i] + offset);
+            }
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(docs, size);
+        }
+    }
+
+    /**
+     * Builds the index. Chunks of projects are tokenized and indexed in
+     * parallel, then the partial indexes are appended in order.
+     *
+     * @param projects The projects to index.
+     */
+    public ProjectTextIndex(List<Project> projects) {
+        int chunks = (projects.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        List<ProjectTextIndex> parts = IntStream.range(0, chunks).parallel()
+                .mapToObj(c -> {
+                    ProjectTextIndex part = new ProjectTextIndex();
+                    int end = Math.min(projects.size(), (c + 1) * CHUNK_SIZE);
+                    for (int i = c * CHUNK_SIZE; i < end; i++) {
+                        part.add(projects.get(i));
+                    }
+                    return part;
+                })
+                .collect(Collectors.toList());
+        for (ProjectTextIndex part : parts) {
+            int offset = docs.size();
+            docs.addAll(part.docs);
+            nameTokens.addAll(part.nameTokens);
+            clientTokens.addAll(part.clientTokens);
+            merge(nameTerms, part.nameTerms, offset);
+            merge(clientTerms, part.clientTerms, offset);
+        }
+    }
+
+    private ProjectTextIndex() {
+    }
+
+    /**
+     * Indexes one more project.
+     *
+     * @param project The project.
+     */
+    public void add(Project project) {
+        int doc = docs.size();
+        docs.add(project);
+        String[] name = TextNormalizer.tokenize(project.getName()).toArray(new String[0]);
+        String[] client = TextNormalizer.tokenize(project.getClientName()).toArray(new String[0]);
+        nameTokens.add(name);
+        clientTokens.add(client);
+        for (String t : name) {
+            nameTerms.computeIfAbsent(t, k -> new PostingList()).add(doc);
+        }
+        for (String t : client) {
+            clientTerms.computeIfAbsent(t, k -> new PostingList()).add(doc);
+        }
+    }
+
+    /**
+     * Runs a query.
+     *
+     * @param query The query (see class comment for the syntax).
+     * @return matching projects in insertion order.
+     */
+    public List<Project> search(String query) {
+        int[] result = null;
+        Matcher m = QUERY_TERM.matcher(query);
+        while (m.find()) {
+            Field field = m.group(1) == null ? Field.ANY : Field.valueOf(m.group(1).toUpperCase());
+            int[] matches;
+            if (m.group(2) != null) {
+                matches = phrase(field, TextNormalizer.tokenize(m.group(2)));
+            } else if (m.group(3).endsWith("*")) {
+                List<String> tokens = TextNormalizer.tokenize(m.group(3));
+                matches = tokens.isEmpty() ? new int[0] : prefix(field, String.join("", tokens));
+            } else {
+                matches = phrase(field, TextNormalizer.tokenize(m.group(3)));
+            }
+            result = result == null ? matches : intersect(result, matches);
+            if (result.length == 0) {
+                break;
+            }
+        }
+
+        List<Project> projects = new ArrayList<>();
+        if (result != null) {
+            for (int doc : result) {
+                projects.add(docs.get(doc));
+            }
+        }
+        return projects;
+    }
+
+    private int[] phrase(Field field, List<String> tokens) {
+        if (tokens.isEmpty()) {
+            return new int[0];
+        }
+        if (field == Field.ANY) {
+            return union(phrase(Field.NAME, tokens), phrase(Field.CLIENT, tokens));
+        }
+        TreeMap<String, PostingList> terms = field == Field.NAME ? nameTerms : clientTerms;
+        int[] candidates = null;
+        for (String t : tokens) {
+            PostingList list = terms.get(t);
+            if (list == null) {
+                return new int[0];
+            }
+            candidates = candidates == null ? list.toArray() : intersect(candidates, list.toArray());
+        }
+        if (tokens.size() == 1) {
+            return candidates;
+        }
+        // Postings carry no positions; verify adjacency on the stored tokens.
+        List<String[]> fieldTokens = field == Field.NAME ? nameTokens : clientTokens;
+        return Arrays.stream(candidates)
+                .filter(doc -> containsSequence(fieldTokens.get(doc), tokens))
+                .toArray();
+    }
+
+    private int[] prefix(Field field, String prefix) {
+        if (field == Field.ANY) {
+            return union(prefix(Field.NAME, prefix), prefix(Field.CLIENT, prefix));
+        }
+        TreeMap<String, PostingList> terms = field == Field.NAME ? nameTerms : clientTerms;
+        int[] result = new int[0];
+        for (PostingList list : terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            result = union(result, list.toArray());
+        }
+        return result;
+    }
+
+    private static boolean containsSequence(String[] haystack, List<String> needle) {
+        for (int i = 0; i + needle.size() <= haystack.length; i++) {
+            int j = 0;
+            while (j < needle.size() && haystack[i + j].equals(needle.get(j))) {
+                j++;
+            }
+            if (j == needle.size()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        int[] out = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                out[n++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                out[n++] = b[j++];
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static void merge(TreeMap<String, PostingList> into, TreeMap<String, PostingList> from, int offset) {
+        for (Map.Entry<String, PostingList> e : from.entrySet()) {
+            into.computeIfAbsent(e.getKey(), k -> new PostingList()).addAll(e.getValue(), offset);
+        }
+    }
+}
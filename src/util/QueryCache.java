@@ -0,0 +1,188 @@
+package util;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of query results, keyed by operation and parameters.
+ *
+ * Each result remembers the version of every collection it was computed
+ * from. Every change bumps the version of the collections it touches
+ * ({@link #bump}), and a lookup only returns a result whose versions are all
+ * still current, so a stale result is never served; it is recomputed
+ * instead. The least recently used entry is evicted once the cache is full.
+ *
+ * Cached values are shared between callers and must not be modified.
+ */
+public class QueryCache {
+
+    /**
+     * Collections a result may depend on.
+     */
+    public enum Collection {
+        DEVELOPERS, PROJECTS
+    }
+
+    private static class CachedResult {
+        final Object value;
+        final long[] versions;
+
+        CachedResult(Object value, long[] versions) {
+            this.value = value;
+            this.versions = versions;
+        }
+    }
+
+    private final int capacity;
+    private final long[] versions = new long[Collection.values().length];
+    private final Map<String, CachedResult> entries;
+    private boolean enabled = true;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param capacity Maximum number of cached results.
+     */
+    public QueryCache(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.entries = new LinkedHashMap<String, CachedResult>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+                if (size() > QueryCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached result of a query, computing and caching it if it is
+     * missing or stale.
+     *
+     * The result is computed without holding the cache's lock, so other
+     * lookups are not held up by a slow query; two callers missing the same
+     * key at once may both compute it. A result is stamped with the versions
+     * current before it was computed, so one that a concurrent change made
+     * stale is never served.
+     *
+     * @param <T>       The result type.
+     * @param key       Operation name and parameters, e.g. "language:java".
+     * @param dependsOn Collections the result is computed from.
+     * @param compute   Computes the result.
+     * @return the result.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Set<Collection> dependsOn, Supplier<T> compute) {
+        long[] stamp;
+        synchronized (this) {
+            if (!enabled) {
+                stamp = null;
+            } else {
+                CachedResult cached = entries.get(key);
+                if (cached != null && isCurrent(cached.versions)) {
+                    hits++;
+                    return (T) cached.value;
+                }
+                misses++;
+                stamp = new long[versions.length];
+                for (int i = 0; i < stamp.length; i++) {
+                    stamp[i] = -1;
+                }
+                for (Collection c : dependsOn) {
+                    stamp[c.ordinal()] = versions[c.ordinal()];
+                }
+            }
+        }
+        T value = compute.get();
+        if (stamp != null) {
+            synchronized (this) {
+                // Not worth keeping if the cache was turned off or the data changed meanwhile.
+                if (enabled && isCurrent(stamp)) {
+                    entries.put(key, new CachedResult(value, stamp));
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Records a change to the given collections; results computed from them
+     * are no longer served.
+     *
+     * @param changed The collections that changed.
+     */
+    public synchronized void bump(Set<Collection> changed) {
+        for (Collection c : changed) {
+            versions[c.ordinal()]++;
+        }
+    }
+
+    /**
+     * Turns the cache on or off. Turning it off drops every entry, so
+     * queries run uncached (e.g. for benchmarking).
+     *
+     * @param enabled True to cache results.
+     */
+    public synchronized void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            entries.clear();
+        }
+    }
+
+    public synchronized boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return hits as a fraction of lookups, or 0 before the first lookup.
+     */
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Clears the hit, miss and eviction counters.
+     */
+    public synchronized void resetStatistics() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    private boolean isCurrent(long[] stamp) {
+        for (int i = 0; i < versions.length; i++) {
+            if (stamp[i] >= 0 && stamp[i] != versions[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
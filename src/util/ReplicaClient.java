@@ -0,0 +1,255 @@
+package util;
+
+import entity.Developer;
+import entity.Project;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Replica side of roster replication (see {@link ReplicationServer}).
+ *
+ * Bootstraps a local {@link Roster} from the primary's snapshot, then applies
+ * the mutation stream in the background. A reader thread decodes complete
+ * entries off the socket; the follow thread applies whatever has been
+ * decoded so far and acknowledges it once. Each mutation is still applied
+ * on its own, so the local versions match the primary's; only the
+ * acknowledgements are batched. If the
+ * connection drops, the replica keeps serving its last state and reconnects,
+ * bootstrapping again from a fresh snapshot.
+ */
+public class ReplicaClient {
+    private static final int APPLY_BATCH = 1_000;
+    private static final long RECONNECT_DELAY_MILLIS = 2_000;
+
+    private final String host;
+    private final int port;
+    private final Roster roster;
+    private volatile long primaryVersion;
+    private volatile long lastContactMillis;
+    private volatile boolean connected;
+
+    private ReplicaClient(String host, int port, Roster roster) {
+        this.host = host;
+        this.port = port;
+        this.roster = roster;
+    }
+
+    /**
+     * Connects to a primary, waits for the initial snapshot and starts
+     * following the mutation stream.
+     *
+     * @param host Primary host.
+     * @param port Primary replication port.
+     * @return the running replica.
+     * @throws IOException if the primary cannot be reached.
+     */
+    public static ReplicaClient connect(String host, int port) throws IOException {
+        ReplicaClient client = new ReplicaClient(host, port, new Roster(new ArrayList<Developer>(),
+                new ArrayList<Project>()));
+        Connection first = client.open();
+        Thread t = new Thread(() -> client.followLoop(first), "replica-follow");
+        t.setDaemon(true);
+        t.start();
+        return client;
+    }
+
+    /**
+     * @return the local (read-only) roster.
+     */
+    public Roster getRoster() {
+        return roster;
+    }
+
+    /**
+     * @return the latest primary version this replica has heard of.
+     */
+    public long getPrimaryVersion() {
+        return primaryVersion;
+    }
+
+    /**
+     * @return the version applied locally.
+     */
+    public long getAppliedVersion() {
+        return roster.snapshot().getVersion();
+    }
+
+    /**
+     * @return number of primary versions not applied yet.
+     */
+    public long getLag() {
+        return Math.max(0, primaryVersion - getAppliedVersion());
+    }
+
+    /**
+     * @return milliseconds since the primary was last heard from.
+     */
+    public long getMillisSinceContact() {
+        return System.currentTimeMillis() - lastContactMillis;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    // One decoded stream entry: a mutation, a heartbeat (no mutation) or the reason reading stopped.
+    private static class Entry {
+        final long version;
+        final Mutation mutation;
+        final IOException failure;
+
+        Entry(long version, Mutation mutation, IOException failure) {
+            this.version = version;
+            this.mutation = mutation;
+            this.failure = failure;
+        }
+    }
+
+    private static class Connection {
+        final Socket socket;
+        final BufferedReader in;
+        final Writer out;
+        final BlockingQueue<Entry> entries = new ArrayBlockingQueue<>(APPLY_BATCH);
+        Thread reader;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8),
+                    64 * 1024);
+            this.out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+        }
+    }
+
+    // Connects and installs the snapshot the primary sends first.
+    private Connection open() throws IOException {
+        Connection c = new Connection(new Socket(host, port));
+        String header = c.in.readLine();
+        String[] fields = header == null ? new String[0] : MutationCodec.fields(header);
+        if (fields.length < 4 || !fields[0].equals(MutationCodec.SNAPSHOT)) {
+            c.socket.close();
+            throw new IOException("Primary did not send a snapshot");
+        }
+        List<Developer> devs = new ArrayList<>();
+        List<Project> projs = new ArrayList<>();
+        long version = MutationCodec.readSnapshot(fields, c.in, devs, projs);
+        roster.resetTo(version, devs, projs);
+        primaryVersion = version;
+        lastContactMillis = System.currentTimeMillis();
+        connected = true;
+        ack(c);
+        return c;
+    }
+
+    private void followLoop(Connection first) {
+        Connection c = first;
+        while (true) {
+            try {
+                if (c == null) {
+                    c = open();
+                }
+                follow(c);
+            } catch (IOException | RuntimeException e) {
+                // Connection lost or stream corrupt; fall through and re-bootstrap.
+            }
+            connected = false;
+            if (c != null) {
+                try {
+                    c.socket.close();
+                } catch (IOException e) {
+                    // Already closed
+                }
+                if (c.reader != null) {
+                    c.reader.interrupt(); // it may be waiting for queue space
+                }
+                c = null;
+            }
+            try {
+                Thread.sleep(RECONNECT_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void follow(Connection c) throws IOException {
+        c.reader = new Thread(() -> readLoop(c), "replica-read");
+        c.reader.setDaemon(true);
+        c.reader.start();
+        List<Entry> decoded = new ArrayList<>(APPLY_BATCH);
+        while (true) {
+            try {
+                decoded.add(c.entries.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Replica stopped");
+            }
+            // Apply everything decoded so far (never a partial entry), then ack once.
+            c.entries.drainTo(decoded, APPLY_BATCH - 1);
+            for (Entry entry : decoded) {
+                apply(entry);
+            }
+            decoded.clear();
+            lastContactMillis = System.currentTimeMillis();
+            ack(c);
+        }
+    }
+
+    // Blocks on the socket so the follow thread never does; ends when the connection does.
+    private void readLoop(Connection c) {
+        try {
+            while (true) {
+                String line = c.in.readLine();
+                if (line == null) {
+                    throw new IOException("Primary closed the connection");
+                }
+                String[] fields = MutationCodec.fields(line);
+                if (fields[0].equals("H")) {
+                    c.entries.put(new Entry(Long.parseLong(fields[1]), null, null));
+                } else if (fields[0].equals(MutationCodec.MUTATION)) {
+                    long version = Long.parseLong(fields[1]);
+                    c.entries.put(new Entry(version, MutationCodec.decodeMutation(fields, c.in), null));
+                }
+            }
+        } catch (IOException e) {
+            offerFailure(c, e);
+        } catch (RuntimeException e) {
+            offerFailure(c, new IOException("Corrupt mutation stream: " + e.getMessage(), e));
+        } catch (InterruptedException e) {
+            // The connection was dropped by the follow thread
+        }
+    }
+
+    private static void offerFailure(Connection c, IOException failure) {
+        // Entries not applied yet are dropped: the replica bootstraps again anyway.
+        c.entries.clear();
+        c.entries.offer(new Entry(0, null, failure));
+    }
+
+    private void apply(Entry entry) throws IOException {
+        if (entry.failure != null) {
+            throw entry.failure;
+        }
+        primaryVersion = Math.max(primaryVersion, entry.version);
+        if (entry.mutation != null) {
+            if (entry.version != getAppliedVersion() + 1) {
+                throw new IOException("Gap in mutation stream at version " + entry.version);
+            }
+            roster.apply(entry.mutation);
+        }
+    }
+
+    private void ack(Connection c) throws IOException {
+        c.out.write("A\t" + getAppliedVersion() + "\n");
+        c.out.flush();
+    }
+}
@@ -0,0 +1,223 @@
+package util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Primary side of roster replication.
+ *
+ * Listens on a loopback port. Each replica that connects first receives a
+ * full snapshot, then every later mutation in version order, with a heartbeat
+ * line ("H version millis") whenever the stream is idle for a second.
+ * Replicas acknowledge the version they have applied ("A version"), which is
+ * how the primary reports their lag.
+ *
+ * Each replica has its own outgoing queue filled by a roster listener, so a
+ * slow replica never blocks writers. A replica that falls more than
+ * {@link #MAX_BACKLOG} mutations behind is disconnected; it reconnects and
+ * bootstraps from a fresh snapshot.
+ */
+public class ReplicationServer {
+    private static final int MAX_BACKLOG = 100_000;
+    private static final int SEND_BATCH = 1_000;
+
+    private final Roster roster;
+    private final ServerSocket serverSocket;
+    private final List<ReplicaLink> replicas = new CopyOnWriteArrayList<>();
+
+    /**
+     * Status of one connected replica.
+     */
+    public static class ReplicaStatus {
+        private final String address;
+        private final long ackedVersion;
+        private final int backlog;
+
+        ReplicaStatus(String address, long ackedVersion, int backlog) {
+            this.address = address;
+            this.ackedVersion = ackedVersion;
+            this.backlog = backlog;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public long getAckedVersion() {
+            return ackedVersion;
+        }
+
+        public int getBacklog() {
+            return backlog;
+        }
+    }
+
+    /**
+     * Starts accepting replicas.
+     *
+     * @param roster The roster to replicate.
+     * @param port   The loopback port to listen on.
+     * @throws IOException if the port cannot be opened.
+     */
+    public ReplicationServer(Roster roster, int port) throws IOException {
+        this.roster = roster;
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        startDaemon("replication-accept", this::acceptLoop);
+    }
+
+    /**
+     * @return the port being listened on.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return the version of the primary roster.
+     */
+    public long getVersion() {
+        return roster.snapshot().getVersion();
+    }
+
+    /**
+     * @return one entry per connected replica.
+     */
+    public List<ReplicaStatus> getReplicaStatus() {
+        List<ReplicaStatus> status = new ArrayList<>();
+        for (ReplicaLink link : replicas) {
+            status.add(new ReplicaStatus(link.socket.getRemoteSocketAddress().toString(), link.ackedVersion,
+                    link.queue.size()));
+        }
+        return status;
+    }
+
+    /**
+     * Stops accepting replicas and disconnects the current ones.
+     */
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+        for (ReplicaLink link : replicas) {
+            link.close();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                ReplicaLink link = new ReplicaLink(socket);
+                replicas.add(link);
+                // Registering returns the snapshot the stream continues from, atomically.
+                Roster.Snapshot start = roster.addListener(link);
+                startDaemon("replication-send", () -> link.sendLoop(start));
+                startDaemon("replication-ack", link::ackLoop);
+            } catch (IOException e) {
+                // Socket closed or accept failed; the loop condition decides.
+            }
+        }
+    }
+
+    private static void startDaemon(String name, Runnable task) {
+        Thread t = new Thread(task, name);
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private class ReplicaLink implements Roster.Listener {
+        final Socket socket;
+        final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+        volatile long ackedVersion = -1;
+        volatile boolean closed = false;
+
+        ReplicaLink(Socket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public void onApplied(long version, Mutation mutation) {
+            if (queue.size() >= MAX_BACKLOG) {
+                close();
+                return;
+            }
+            queue.offer(MutationCodec.encode(version, mutation));
+        }
+
+        void sendLoop(Roster.Snapshot start) {
+            try (BufferedWriter out = new BufferedWriter(
+                    new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), 64 * 1024)) {
+                MutationCodec.writeSnapshot(out, start);
+                out.flush();
+                long lastSent = start.getVersion();
+                List<String> batch = new ArrayList<>(SEND_BATCH);
+                while (!closed) {
+                    String first = queue.poll(1, TimeUnit.SECONDS);
+                    if (first == null) {
+                        out.write("H\t" + lastSent + "\t" + System.currentTimeMillis() + "\n");
+                    } else {
+                        batch.add(first);
+                        queue.drainTo(batch, SEND_BATCH - 1);
+                        for (String line : batch) {
+                            out.write(line);
+                        }
+                        lastSent = Long.parseLong(MutationCodec.fields(batch.get(batch.size() - 1)
+                                .split("\n", 2)[0])[1]);
+                        batch.clear();
+                    }
+                    out.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                // Replica went away
+            } finally {
+                close();
+            }
+        }
+
+        void ackLoop() {
+            try (BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String[] f = MutationCodec.fields(line);
+                    if (f.length >= 2 && f[0].equals("A")) {
+                        ackedVersion = Long.parseLong(f[1]);
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                // Replica went away
+            } finally {
+                close();
+            }
+        }
+
+        synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            roster.removeListener(this);
+            replicas.remove(this);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+    }
+}
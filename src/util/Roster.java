@@ -0,0 +1,548 @@
+package util;
+
+import entity.Developer;
+import entity.Project;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Multi-version store for developers and projects.
+ *
+ * Every applied {@link Mutation} publishes a new immutable {@link Snapshot}
+ * with the next version number. Snapshots are built from
+ * {@link PersistentList}s, so a new version shares almost all of its memory
+ * with the previous one, and taking a snapshot is a single volatile read.
+ * Readers can iterate a snapshot for as long as they like while writers keep
+ * publishing; a version is garbage-collected as soon as no reader holds it.
+ *
+ * Entities inside a snapshot are never modified: a salary update replaces
+ * the Developer with a copy. Callers must not use entity setters on objects
+ * obtained from a snapshot.
+ *
+ * Undo keeps the inverse of each of the last N mutations (a few references
+ * each), not old versions.
+ *
+ * Listeners see every published change, in version order, while the write
+ * lock is held; they must not block.
+ *
+ * For optimistic transactions the roster also stamps every entity key (see
+ * {@link #developerKey}, {@link #projectKey}, {@link #assignmentKey}) with
+ * the version that last wrote it, so {@link Transaction#commit} can check
+ * that nothing it read has changed since its snapshot. Transactions register
+ * the version they read ({@link #openRead}); once the stamps grow large,
+ * those at or below the oldest registered version are dropped and folded
+ * into a floor, since no open transaction can conflict on them.
+ */
+public class Roster {
+    private static final int DEFAULT_UNDO_LIMIT = 50;
+    private static final int MIN_STAMPS_BEFORE_COMPACTION = 4096;
+
+    private final int undoLimit;
+    private final Deque<Mutation> undoLog = new ArrayDeque<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<String, Long> stamps = new ConcurrentHashMap<>();
+    // Every key counts as written at this version or later (a reset, or compacted stamps).
+    private volatile long stampFloor;
+    private int compactAt = MIN_STAMPS_BEFORE_COMPACTION;
+    // Read versions of open transactions, with how many are open at each.
+    private final Map<Long, Integer> openReads = new HashMap<>();
+    private volatile Snapshot current;
+
+    /**
+     * Receives every change published by the roster.
+     */
+    public interface Listener {
+        /**
+         * Called after a mutation (including an undo) has been published.
+         *
+         * @param version  The version it produced.
+         * @param mutation The mutation.
+         */
+        void onApplied(long version, Mutation mutation);
+
+        /**
+         * Called after the whole roster was replaced by {@link #resetTo}.
+         *
+         * @param snapshot The new state.
+         */
+        default void onReset(Snapshot snapshot) {
+        }
+    }
+
+    /**
+     * An immutable point-in-time view of the roster.
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final PersistentList<Developer> developers;
+        private final PersistentList<Project> projects;
+
+        Snapshot(long version, PersistentList<Developer> developers, PersistentList<Project> projects) {
+            this.version = version;
+            this.developers = developers;
+            this.projects = projects;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * @return the developers (unmodifiable).
+         */
+        public List<Developer> getDevelopers() {
+            return developers;
+        }
+
+        /**
+         * @return the projects (unmodifiable).
+         */
+        public List<Project> getProjects() {
+            return projects;
+        }
+
+        /**
+         * @param id Developer ID, any case.
+         * @return the first matching developer, or null.
+         */
+        public Developer findDeveloper(String id) {
+            int i = indexOfDeveloper(id);
+            return i < 0 ? null : developers.get(i);
+        }
+
+        /**
+         * @param id Project ID, any case.
+         * @return the first matching project, or null.
+         */
+        public Project findProject(String id) {
+            int i = indexOfProject(id);
+            return i < 0 ? null : projects.get(i);
+        }
+
+        int indexOfDeveloper(String id) {
+            for (int i = 0; i < developers.size(); i++) {
+                if (developers.get(i).getId().equalsIgnoreCase(id)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        int indexOfProject(String id) {
+            for (int i = 0; i < projects.size(); i++) {
+                if (projects.get(i).getId().equalsIgnoreCase(id)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Creates a roster at version 0.
+     *
+     * @param developers Initial developers.
+     * @param projects   Initial projects.
+     */
+    public Roster(List<Developer> developers, List<Project> projects) {
+        this(developers, projects, DEFAULT_UNDO_LIMIT);
+    }
+
+    /**
+     * Creates a roster at version 0.
+     *
+     * @param developers Initial developers.
+     * @param projects   Initial projects.
+     * @param undoLimit  Number of mutations that can be undone.
+     */
+    public Roster(List<Developer> developers, List<Project> projects, int undoLimit) {
+        this.undoLimit = undoLimit;
+        this.current = new Snapshot(0, PersistentList.of(developers), PersistentList.of(projects));
+    }
+
+    /**
+     * Registers a listener and returns the version it starts from, so the
+     * listener sees exactly the changes after that snapshot.
+     *
+     * @param listener The listener.
+     * @return the current snapshot.
+     */
+    public synchronized Snapshot addListener(Listener listener) {
+        listeners.add(listener);
+        return current;
+    }
+
+    /**
+     * @param listener A listener added earlier.
+     */
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Replaces the whole state with a copy taken elsewhere (for example a
+     * replication snapshot), keeping its version number. Clears the undo log.
+     *
+     * @param version    Version of the copied state.
+     * @param developers The developers.
+     * @param projects   The projects.
+     * @return the new snapshot.
+     */
+    public synchronized Snapshot resetTo(long version, List<Developer> developers, List<Project> projects) {
+        current = new Snapshot(version, PersistentList.of(developers), PersistentList.of(projects));
+        undoLog.clear();
+        stamps.clear();
+        stampFloor = version;
+        for (Listener l : listeners) {
+            l.onReset(current);
+        }
+        return current;
+    }
+
+    /**
+     * @return the latest version; never blocks.
+     */
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    /**
+     * Applies a mutation and publishes the new version.
+     *
+     * @param mutation The change.
+     * @return the new snapshot.
+     * @throws IllegalArgumentException if the mutation refers to a missing entity.
+     */
+    public synchronized Snapshot apply(Mutation mutation) {
+        Mutation inverse = inverseOf(mutation, current);
+        Snapshot before = current;
+        current = applyTo(before, mutation);
+        recordWrites(before, mutation, current.version);
+        if (stamps.size() > compactAt) {
+            compactStamps();
+        }
+        undoLog.push(inverse);
+        if (undoLog.size() > undoLimit) {
+            undoLog.removeLast();
+        }
+        notifyListeners(mutation);
+        return current;
+    }
+
+    /**
+     * Reverts the most recent mutation that has not been undone yet.
+     *
+     * @return the mutation that was applied to revert it, or null if there
+     *         is nothing to undo.
+     */
+    public synchronized Mutation undo() {
+        Mutation inverse = undoLog.poll();
+        if (inverse != null) {
+            Snapshot before = current;
+            current = applyTo(before, inverse);
+            recordWrites(before, inverse, current.version);
+            notifyListeners(inverse);
+        }
+        return inverse;
+    }
+
+    /**
+     * Applies a transaction's writes as one BATCH mutation if none of the
+     * keys it read was written after its snapshot.
+     *
+     * @param readVersion Version of the snapshot the transaction read.
+     * @param readKeys    Keys of every entity it read or wrote.
+     * @param mutation    The writes.
+     * @return the new snapshot.
+     * @throws Transaction.ConflictException if a key was written since.
+     */
+    synchronized Snapshot commit(long readVersion, Set<String> readKeys, Mutation mutation) {
+        if (current.version != readVersion) {
+            for (String key : readKeys) {
+                if (stampOf(key) > readVersion) {
+                    throw new Transaction.ConflictException(key, readVersion, stampOf(key));
+                }
+            }
+        }
+        return apply(mutation);
+    }
+
+    /**
+     * Takes the snapshot a transaction reads and registers its version, so
+     * stamps it may still check are kept until {@link #closeRead}.
+     *
+     * @return the current snapshot.
+     */
+    synchronized Snapshot openRead() {
+        openReads.merge(current.version, 1, Integer::sum);
+        return current;
+    }
+
+    /**
+     * @param version A version returned by {@link #openRead}; called once per
+     *                call to it.
+     */
+    synchronized void closeRead(long version) {
+        openReads.computeIfPresent(version, (v, n) -> n == 1 ? null : n - 1);
+    }
+
+    // Drops stamps no open transaction can conflict on; stampOf still answers for them through the floor.
+    private void compactStamps() {
+        long oldest = current.version;
+        for (long v : openReads.keySet()) {
+            oldest = Math.min(oldest, v);
+        }
+        final long floor = oldest;
+        stamps.values().removeIf(v -> v <= floor);
+        stampFloor = Math.max(stampFloor, floor);
+        compactAt = Math.max(MIN_STAMPS_BEFORE_COMPACTION, stamps.size() * 2);
+    }
+
+    /**
+     * @param key An entity key.
+     * @return the version that last wrote it (0 if never written since load).
+     */
+    long stampOf(String key) {
+        Long v = stamps.get(key);
+        return v == null ? stampFloor : Math.max(stampFloor, v);
+    }
+
+    /**
+     * @param id Developer ID, any case.
+     * @return the key of the developer record.
+     */
+    static String developerKey(String id) {
+        return "D:" + id.toUpperCase();
+    }
+
+    /**
+     * @param id Project ID, any case.
+     * @return the key of the project record.
+     */
+    static String projectKey(String id) {
+        return "P:" + id.toUpperCase();
+    }
+
+    /**
+     * @param devId Developer ID, any case.
+     * @return the key of the set of projects assigned to the developer.
+     */
+    static String assignmentKey(String devId) {
+        return "A:" + devId.toUpperCase();
+    }
+
+    // Stamps the keys a mutation (applied to 'before') writes with the version it produced.
+    private void recordWrites(Snapshot before, Mutation m, long version) {
+        switch (m.getType()) {
+            case ADD_DEVELOPER:
+            case UPDATE_SALARY:
+                stamps.put(developerKey(m.getId()), version);
+                break;
+            case UPDATE_SALARIES:
+                for (Developer d : m.getDevelopers()) {
+                    stamps.put(developerKey(d.getId()), version);
+                }
+                break;
+            case REMOVE_DEVELOPER:
+                stamps.put(developerKey(m.getIndex() < 0 ? m.getId() : before.developers.get(m.getIndex()).getId()),
+                        version);
+                break;
+            case ADD_PROJECT:
+                stamps.put(projectKey(m.getId()), version);
+                stamps.put(assignmentKey(m.getProject().getDevId()), version);
+                break;
+            case REMOVE_PROJECT: {
+                int i = m.getIndex() < 0 ? before.indexOfProject(m.getId()) : m.getIndex();
+                stamps.put(projectKey(m.getId()), version);
+                if (i >= 0) {
+                    stamps.put(assignmentKey(before.projects.get(i).getDevId()), version);
+                }
+                break;
+            }
+            case BATCH: {
+                Snapshot s = before;
+                for (Mutation step : m.getSteps()) {
+                    recordWrites(s, step, version);
+                    s = applyTo(s, step);
+                }
+                break;
+            }
+            default:
+                stamps.clear();
+                stampFloor = version;
+        }
+    }
+
+    private void notifyListeners(Mutation mutation) {
+        for (Listener l : listeners) {
+            l.onApplied(current.version, mutation);
+        }
+    }
+
+    /**
+     * Forgets every change that could be undone, after a change whose effects
+     * outside the roster cannot be reverted (such as archiving projects).
+     */
+    public synchronized void clearUndo() {
+        undoLog.clear();
+    }
+
+    /**
+     * @return number of mutations that can still be undone.
+     */
+    public synchronized int getUndoDepth() {
+        return undoLog.size();
+    }
+
+    /**
+     * Computes the state after a mutation without publishing it.
+     *
+     * @param s The state to start from.
+     * @param m The mutation.
+     * @return the resulting state, with the next version number.
+     * @throws IllegalArgumentException if the mutation refers to a missing entity.
+     */
+    static Snapshot applyTo(Snapshot s, Mutation m) {
+        PersistentList<Developer> devs = s.developers;
+        PersistentList<Project> projs = s.projects;
+        switch (m.getType()) {
+            case ADD_DEVELOPER:
+                devs = devs.plus(m.getIndex() < 0 ? devs.size() : m.getIndex(), m.getDeveloper());
+                break;
+            case UPDATE_SALARY: {
+                int i = requireDeveloper(s, m.getId());
+                Developer old = devs.get(i);
+                devs = devs.with(i, new Developer(old.getId(), old.getName(), old.getSkills(), m.getSalary()));
+                break;
+            }
+            case UPDATE_SALARIES:
+                devs = PersistentList.of(replaceById(s, m.getDevelopers(), null));
+                break;
+            case REMOVE_DEVELOPER:
+                devs = devs.minus(m.getIndex() < 0 ? requireDeveloper(s, m.getId()) : m.getIndex());
+                break;
+            case ADD_PROJECT:
+                projs = projs.plus(m.getIndex() < 0 ? projs.size() : m.getIndex(), m.getProject());
+                break;
+            case REMOVE_PROJECT:
+                projs = projs.minus(m.getIndex() < 0 ? requireProject(s, m.getId()) : m.getIndex());
+                break;
+            case REPLACE_ALL:
+                devs = PersistentList.of(m.getDevelopers());
+                projs = PersistentList.of(m.getProjects());
+                break;
+            case BATCH: {
+                Snapshot t = s;
+                for (Mutation step : m.getSteps()) {
+                    t = applyTo(t, step);
+                }
+                devs = t.developers;
+                projs = t.projects;
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown mutation: " + m);
+        }
+        return new Snapshot(s.version + 1, devs, projs);
+    }
+
+    private static Mutation inverseOf(Mutation m, Snapshot s) {
+        switch (m.getType()) {
+            case ADD_DEVELOPER:
+                int devPos = m.getIndex() < 0 ? s.developers.size() : m.getIndex();
+                return Mutation.removeDeveloper(m.getId(), devPos);
+            case UPDATE_SALARY:
+                return Mutation.updateSalary(m.getId(), s.developers.get(requireDeveloper(s, m.getId())).getSalary());
+            case UPDATE_SALARIES: {
+                List<Developer> previous = new ArrayList<>();
+                replaceById(s, m.getDevelopers(), previous);
+                return Mutation.updateSalaries(previous);
+            }
+            case REMOVE_DEVELOPER: {
+                int i = m.getIndex() < 0 ? requireDeveloper(s, m.getId()) : m.getIndex();
+                return Mutation.addDeveloper(s.developers.get(i), i);
+            }
+            case ADD_PROJECT:
+                int projPos = m.getIndex() < 0 ? s.projects.size() : m.getIndex();
+                return Mutation.removeProject(m.getId(), projPos);
+            case REMOVE_PROJECT: {
+                int i = m.getIndex() < 0 ? requireProject(s, m.getId()) : m.getIndex();
+                return Mutation.addProject(s.projects.get(i), i);
+            }
+            case REPLACE_ALL:
+                return Mutation.replaceAll(s.developers, s.projects);
+            case BATCH: {
+                // Each step is inverted against the state it was applied to; the inverses run in reverse.
+                List<Mutation> inverses = new ArrayList<>();
+                Snapshot t = s;
+                for (Mutation step : m.getSteps()) {
+                    inverses.add(inverseOf(step, t));
+                    t = applyTo(t, step);
+                }
+                Collections.reverse(inverses);
+                return Mutation.batch(inverses);
+            }
+            default:
+                throw new IllegalArgumentException("Unknown mutation: " + m);
+        }
+    }
+
+    /**
+     * Swaps in developers matched by ID in one pass over the roster (the first
+     * developer with each ID, as for single updates).
+     *
+     * @param previous If not null, receives the developers that were replaced.
+     * @return the new developer list.
+     * @throws IllegalArgumentException if an ID is not in the roster or is
+     *                                  listed twice in updated.
+     */
+    private static List<Developer> replaceById(Snapshot s, List<Developer> updated, List<Developer> previous) {
+        Map<String, Developer> byId = new HashMap<>();
+        for (Developer d : updated) {
+            if (byId.put(d.getId().toUpperCase(), d) != null) {
+                throw new IllegalArgumentException("Developer ID listed twice: " + d.getId());
+            }
+        }
+        List<Developer> result = new ArrayList<>(s.developers.size());
+        for (Developer d : s.developers) {
+            Developer replacement = byId.remove(d.getId().toUpperCase());
+            if (replacement == null) {
+                result.add(d);
+            } else {
+                result.add(replacement);
+                if (previous != null) {
+                    previous.add(d);
+                }
+            }
+        }
+        if (!byId.isEmpty()) {
+            String missing = byId.values().iterator().next().getId();
+            throw new IllegalArgumentException("Developer ID does not exist: " + missing);
+        }
+        return result;
+    }
+
+    private static int requireDeveloper(Snapshot s, String id) {
+        int i = s.indexOfDeveloper(id);
+        if (i < 0) {
+            throw new IllegalArgumentException("Developer ID does not exist: " + id);
+        }
+        return i;
+    }
+
+    private static int requireProject(Snapshot s, String id) {
+        int i = s.indexOfProject(id);
+        if (i < 0) {
+            throw new IllegalArgumentException("Project ID does not exist: " + id);
+        }
+        return i;
+    }
+}
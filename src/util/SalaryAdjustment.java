@@ -0,0 +1,181 @@
+package util;
+
+import entity.Developer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * Plans a bulk salary change: every developer matching a filter gets a new
+ * salary computed by a transform.
+ *
+ * The salaries are copied into a primitive column and the filter and
+ * transform run over it in parallel; only the changed developers are then
+ * copied. The plan is all or nothing: if any new salary would fall below
+ * {@link Validation#MIN_SALARY} it is reported and nothing should be applied.
+ * Apply it with {@link Transaction#adjustSalaries}, which plans again from
+ * the current salaries if one changed in the meantime and commits the
+ * result as one change.
+ */
+public class SalaryAdjustment {
+
+    /**
+     * Outcome of {@link #plan}.
+     */
+    public static class Plan {
+        private final int matched;
+        private final List<Developer> updated;
+        private final List<Developer> belowMinimum;
+        private final long payrollBefore;
+        private final long payrollAfter;
+
+        Plan(int matched, List<Developer> updated, List<Developer> belowMinimum, long payrollBefore,
+                long payrollAfter) {
+            this.matched = matched;
+            this.updated = updated;
+            this.belowMinimum = belowMinimum;
+            this.payrollBefore = payrollBefore;
+            this.payrollAfter = payrollAfter;
+        }
+
+        /**
+         * @return number of developers the filter selected.
+         */
+        public int getMatched() {
+            return matched;
+        }
+
+        /**
+         * @return copies of the developers whose salary changes, with the new salary.
+         */
+        public List<Developer> getUpdated() {
+            return updated;
+        }
+
+        /**
+         * @return developers (with the proposed salary) that would fall below
+         *         the minimum; the plan is valid only if this is empty.
+         */
+        public List<Developer> getBelowMinimum() {
+            return belowMinimum;
+        }
+
+        public boolean isValid() {
+            return belowMinimum.isEmpty();
+        }
+
+        /**
+         * @return sum of all salaries before the change.
+         */
+        public long getPayrollBefore() {
+            return payrollBefore;
+        }
+
+        /**
+         * @return sum of all salaries after the change.
+         */
+        public long getPayrollAfter() {
+            return payrollAfter;
+        }
+    }
+
+    /**
+     * @param skill A skill, any letter case.
+     * @return a filter selecting developers that have it.
+     */
+    public static Predicate<Developer> hasSkill(String skill) {
+        String wanted = skill.trim();
+        return d -> {
+            for (String s : d.getSkills()) {
+                if (s.trim().equalsIgnoreCase(wanted)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    /**
+     * @param min Lowest salary included.
+     * @param max Highest salary included.
+     * @return a filter selecting developers in the salary band.
+     */
+    public static Predicate<Developer> salaryBetween(int min, int max) {
+        return d -> d.getSalary() >= min && d.getSalary() <= max;
+    }
+
+    /**
+     * @param percent Raise in percent (negative for a cut).
+     * @return a transform applying it, rounded to the nearest dollar.
+     */
+    public static IntUnaryOperator percent(double percent) {
+        return salary -> (int) Math.round(salary * (1 + percent / 100));
+    }
+
+    /**
+     * @param amount Amount to add (negative to subtract).
+     * @return a transform applying it.
+     */
+    public static IntUnaryOperator fixed(int amount) {
+        return salary -> salary + amount;
+    }
+
+    /**
+     * Computes the new salaries without changing anything. If an ID appears
+     * more than once (in any case), only its first row is considered, as for
+     * single updates.
+     *
+     * @param developers The roster.
+     * @param filter     Selects the developers to adjust.
+     * @param transform  Maps a current salary to the new one.
+     * @return the plan.
+     */
+    public static Plan plan(List<Developer> developers, Predicate<Developer> filter, IntUnaryOperator transform) {
+        Developer[] devs = developers.toArray(new Developer[0]);
+        int n = devs.length;
+        int[] salaries = new int[n];
+        Arrays.parallelSetAll(salaries, i -> devs[i].getSalary());
+        boolean[] first = new boolean[n];
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            first[i] = seen.add(devs[i].getId().toUpperCase());
+        }
+
+        boolean[] selected = new boolean[n];
+        int[] adjusted = new int[n];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            selected[i] = first[i] && filter.test(devs[i]);
+            adjusted[i] = selected[i] ? transform.applyAsInt(salaries[i]) : salaries[i];
+        });
+        long before = Arrays.stream(salaries).parallel().asLongStream().sum();
+        long after = Arrays.stream(adjusted).parallel().asLongStream().sum();
+
+        int matched = 0;
+        List<Developer> updated = new ArrayList<>();
+        List<Developer> belowMinimum = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (!selected[i]) {
+                continue;
+            }
+            matched++;
+            if (adjusted[i] == salaries[i]) {
+                continue;
+            }
+            Developer d = devs[i];
+            Developer copy = new Developer(d.getId(), d.getName(), d.getSkills(), adjusted[i]);
+            if (adjusted[i] < Validation.MIN_SALARY) {
+                belowMinimum.add(copy);
+            } else {
+                updated.add(copy);
+            }
+        }
+        return new Plan(matched, Collections.unmodifiableList(updated), Collections.unmodifiableList(belowMinimum),
+                before, after);
+    }
+}
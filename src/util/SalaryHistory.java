@@ -0,0 +1,535 @@
+package util;
+
+import entity.Developer;
+import entity.Project;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Timestamped salary history of every developer.
+ *
+ * In memory each developer has a compact series: per change, the time since
+ * the previous change and the difference from the previous salary, both as
+ * zig-zag varints. A typical raise costs 4-6 bytes. A salary of 0 marks a
+ * developer leaving the roster.
+ *
+ * On disk the history is an append-only file of blocks, one per recorded
+ * batch. Each block stores its entries column by column: new developer IDs
+ * (a dictionary shared by the whole file), dictionary index per entry, time
+ * deltas, then salary deltas, followed by a CRC32. A block is written and
+ * forced to disk before the in-memory history takes it in, so memory never
+ * holds dictionary entries or salaries the file lacks; a failed append is
+ * cut off again, and a torn last block (crash while appending) is detected
+ * on load and cut off.
+ *
+ * Changes that could not be recorded (a failed append, or a subscriber
+ * dropped by the {@link EventBus}) leave a gap, reported by
+ * {@link #getIncompleteSince()} until {@link #recordBaseline} catches the
+ * salaries up again.
+ *
+ * All methods are thread-safe.
+ */
+public class SalaryHistory implements AutoCloseable {
+    private static final int BLOCK_MAGIC = 0x53484231; // "SHB1"
+
+    private final String fileName;
+    private final Map<String, Series> series = new HashMap<>();
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final List<String> dictionaryIds = new ArrayList<>();
+    private long lastTimestamp = 0;
+    private long fileBytes = 0;
+    private long entryCount = 0;
+    private long incompleteSince = 0;
+
+    /**
+     * One salary change.
+     */
+    public static class Entry {
+        private final long timestamp;
+        private final int salary;
+
+        Entry(long timestamp, int salary) {
+            this.timestamp = timestamp;
+            this.salary = salary;
+        }
+
+        /**
+         * @return when the salary took effect, in epoch milliseconds.
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * @return the salary, or 0 if the developer left the roster.
+         */
+        public int getSalary() {
+            return salary;
+        }
+    }
+
+    // Delta/varint-encoded changes of one developer, oldest first.
+    private static class Series {
+        byte[] data = new byte[8];
+        int length;
+        long lastTime;
+        int lastSalary;
+
+        void append(long time, int salary) {
+            if (data.length - length < 20) {
+                data = Arrays.copyOf(data, data.length + Math.max(16, data.length / 2));
+            }
+            length = writeVarint(data, length, zigzag(time - lastTime));
+            length = writeVarint(data, length, zigzag(salary - lastSalary));
+            lastTime = time;
+            lastSalary = salary;
+        }
+
+        // Salary in effect at the given time, or -1 if none yet.
+        int asOf(long time) {
+            long t = 0;
+            int salary = -1;
+            int[] pos = { 0 };
+            int value = 0;
+            while (pos[0] < length) {
+                t += unzigzag(readVarint(data, pos));
+                value += (int) unzigzag(readVarint(data, pos));
+                if (t > time) {
+                    break;
+                }
+                salary = value;
+            }
+            return salary;
+        }
+
+        List<Entry> entries() {
+            List<Entry> result = new ArrayList<>();
+            long t = 0;
+            int value = 0;
+            int[] pos = { 0 };
+            while (pos[0] < length) {
+                t += unzigzag(readVarint(data, pos));
+                value += (int) unzigzag(readVarint(data, pos));
+                result.add(new Entry(t, value));
+            }
+            return result;
+        }
+
+        // Adds the salary in effect at each sample time (ascending) to totals.
+        void addTo(long[] sampleTimes, long[] totals) {
+            long t = 0;
+            int value = 0;
+            int current = 0;
+            int[] pos = { 0 };
+            int i = 0;
+            while (i < sampleTimes.length) {
+                if (pos[0] < length) {
+                    int save = pos[0];
+                    long nextT = t + unzigzag(readVarint(data, pos));
+                    int nextValue = value + (int) unzigzag(readVarint(data, pos));
+                    if (nextT <= sampleTimes[i]) {
+                        t = nextT;
+                        value = nextValue;
+                        current = value;
+                        continue;
+                    }
+                    pos[0] = save;
+                }
+                totals[i++] += current;
+            }
+        }
+    }
+
+    /**
+     * Loads the history file, creating it on first use.
+     *
+     * @param fileName The history file.
+     * @throws IOException if the file cannot be read or repaired.
+     */
+    public SalaryHistory(String fileName) throws IOException {
+        this.fileName = fileName;
+        File file = new File(fileName);
+        if (file.exists()) {
+            long good = load(file);
+            if (good < file.length()) {
+                try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                    raf.setLength(good);
+                }
+            }
+            fileBytes = good;
+        }
+    }
+
+    /**
+     * Records the current salary of every developer whose history is missing
+     * or out of date, and a departure for developers no longer in the roster
+     * (for example on first use, or after the data files were edited by
+     * hand).
+     *
+     * @param developers The roster.
+     * @param timestamp  When the salaries were observed.
+     * @return number of entries recorded.
+     * @throws IOException if the file cannot be written.
+     */
+    public synchronized int recordBaseline(Collection<Developer> developers, long timestamp) throws IOException {
+        List<String> ids = new ArrayList<>();
+        List<Integer> salaries = new ArrayList<>();
+        Set<String> present = new HashSet<>();
+        for (Developer d : developers) {
+            Series s = series.get(key(d.getId()));
+            if (present.add(key(d.getId())) && (s == null || s.lastSalary != d.getSalary())) {
+                ids.add(d.getId());
+                salaries.add(d.getSalary());
+            }
+        }
+        for (Map.Entry<String, Series> e : series.entrySet()) {
+            if (e.getValue().lastSalary != 0 && !present.contains(e.getKey())) {
+                ids.add(e.getKey());
+                salaries.add(0);
+            }
+        }
+        appendBlock(ids, salaries, Collections.nCopies(ids.size(), timestamp));
+        incompleteSince = 0;
+        return ids.size();
+    }
+
+    /**
+     * Records salary-related change events; others are ignored. Meant to be
+     * subscribed to an {@link EventBus}: each batch becomes one block. If the
+     * block cannot be written the history is marked incomplete.
+     *
+     * @param events Events in version order.
+     */
+    public synchronized void record(List<ChangeEvent> events) {
+        List<String> ids = new ArrayList<>();
+        List<Integer> salaries = new ArrayList<>();
+        List<Long> times = new ArrayList<>();
+        for (ChangeEvent e : events) {
+            switch (e.getType()) {
+                case DEVELOPER_ADDED:
+                case SALARY_UPDATED:
+                    ids.add(e.getDeveloper().getId());
+                    salaries.add(e.getDeveloper().getSalary());
+                    break;
+                case DEVELOPER_REMOVED:
+                    ids.add(e.getDeveloper().getId());
+                    salaries.add(0);
+                    break;
+                default:
+                    continue;
+            }
+            times.add(e.getTimestamp());
+        }
+        try {
+            appendBlock(ids, salaries, times);
+        } catch (IOException ex) {
+            System.err.println("Error writing salary history: " + ex.getMessage());
+            markIncomplete(times.get(0));
+        }
+    }
+
+    /**
+     * Notes that changes made from the given time on were not recorded.
+     *
+     * @param since Time of the first missing change, in epoch milliseconds.
+     */
+    public synchronized void markIncomplete(long since) {
+        if (incompleteSince == 0 || since < incompleteSince) {
+            incompleteSince = since;
+        }
+    }
+
+    /**
+     * @return time of the first change that was not recorded, or 0 if the
+     *         history is complete (or caught up by a baseline since).
+     */
+    public synchronized long getIncompleteSince() {
+        return incompleteSince;
+    }
+
+    /**
+     * @param devId Developer ID, any case.
+     * @return every recorded change, oldest first.
+     */
+    public synchronized List<Entry> getHistory(String devId) {
+        Series s = series.get(key(devId));
+        return s == null ? new ArrayList<Entry>() : s.entries();
+    }
+
+    /**
+     * @param devId     Developer ID, any case.
+     * @param timestamp Epoch milliseconds.
+     * @return the salary in effect at that time, 0 if the developer had left,
+     *         or -1 if nothing was recorded yet.
+     */
+    public synchronized int salaryAsOf(String devId, long timestamp) {
+        Series s = series.get(key(devId));
+        return s == null ? -1 : s.asOf(timestamp);
+    }
+
+    /**
+     * Total payroll at each sample time, over the whole roster. Each series is
+     * decoded once for all samples, and series are scanned in parallel.
+     *
+     * @param sampleTimes Epoch milliseconds, ascending.
+     * @return the total salary in effect at each time.
+     */
+    public synchronized long[] payrollAt(long[] sampleTimes) {
+        return series.values().parallelStream().collect(() -> new long[sampleTimes.length],
+                (totals, s) -> s.addTo(sampleTimes, totals), (a, b) -> {
+                    for (int i = 0; i < a.length; i++) {
+                        a[i] += b[i];
+                    }
+                });
+    }
+
+    /**
+     * @param epochDay A day (see {@link Project#parseEpochDay}).
+     * @return the last millisecond of that day in the local time zone, so
+     *         "as of" includes the whole day.
+     * @throws IllegalArgumentException if the day is
+     *                                  {@link Project#UNKNOWN_DATE}.
+     */
+    public static long endOfDay(long epochDay) {
+        if (epochDay == Project.UNKNOWN_DATE) {
+            throw new IllegalArgumentException("Unknown date");
+        }
+        return LocalDate.ofEpochDay(epochDay + 1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                - 1;
+    }
+
+    public synchronized int getDeveloperCount() {
+        return series.size();
+    }
+
+    public synchronized long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * @return size of the history file in bytes.
+     */
+    public synchronized long getFileBytes() {
+        return fileBytes;
+    }
+
+    @Override
+    public void close() {
+        // Every block is written and flushed when it is recorded.
+    }
+
+    // Encodes against the current state without changing it, appends, then applies what was written.
+    private void appendBlock(List<String> ids, List<Integer> salaries, List<Long> times) throws IOException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream newIds = new ByteArrayOutputStream();
+        ByteArrayOutputStream idColumn = new ByteArrayOutputStream();
+        ByteArrayOutputStream timeColumn = new ByteArrayOutputStream();
+        ByteArrayOutputStream salaryColumn = new ByteArrayOutputStream();
+        Map<String, Integer> added = new HashMap<>();
+        Map<String, Integer> lastSalaries = new HashMap<>();
+        long previousTime = lastTimestamp;
+        for (int i = 0; i < ids.size(); i++) {
+            String id = key(ids.get(i));
+            Integer index = dictionary.get(id);
+            if (index == null) {
+                index = added.get(id);
+            }
+            if (index == null) {
+                index = dictionaryIds.size() + added.size();
+                added.put(id, index);
+                byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+                writeVarint(newIds, bytes.length);
+                newIds.write(bytes, 0, bytes.length);
+            }
+            Series s = series.get(id);
+            int salary = salaries.get(i);
+            long time = times.get(i);
+            Integer previous = lastSalaries.put(id, salary);
+            int previousSalary = previous != null ? previous : s != null ? s.lastSalary : 0;
+            writeVarint(idColumn, index);
+            writeVarint(timeColumn, zigzag(time - previousTime));
+            writeVarint(salaryColumn, zigzag(salary - previousSalary));
+            previousTime = time;
+        }
+
+        ByteArrayOutputStream block = new ByteArrayOutputStream();
+        writeInt(block, BLOCK_MAGIC);
+        writeVarint(block, ids.size());
+        writeVarint(block, added.size());
+        for (ByteArrayOutputStream column : Arrays.asList(newIds, idColumn, timeColumn, salaryColumn)) {
+            writeVarint(block, column.size());
+            column.writeTo(block);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(block.toByteArray(), 0, block.size());
+        writeInt(block, (int) crc.getValue());
+        try (RandomAccessFile raf = new RandomAccessFile(fileName, "rw")) {
+            try {
+                raf.setLength(fileBytes);
+                raf.seek(fileBytes);
+                raf.write(block.toByteArray());
+                raf.getFD().sync();
+            } catch (IOException e) {
+                try {
+                    raf.setLength(fileBytes);
+                } catch (IOException ignored) {
+                    // The next load cuts the torn block off instead.
+                }
+                throw e;
+            }
+        }
+        fileBytes += block.size();
+        applyBlock(ids.size(), added.size(), new byte[][] { newIds.toByteArray(), idColumn.toByteArray(),
+                timeColumn.toByteArray(), salaryColumn.toByteArray() });
+    }
+
+    // Reads blocks until the end or the first damaged one; returns the length of the good part.
+    private long load(File file) throws IOException {
+        long good = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024))) {
+            while (true) {
+                ByteArrayOutputStream raw = new ByteArrayOutputStream();
+                byte[][] columns = new byte[4][];
+                int count;
+                int newIdCount;
+                try {
+                    int magic = in.readInt();
+                    if (magic != BLOCK_MAGIC) {
+                        break;
+                    }
+                    writeInt(raw, magic);
+                    count = (int) readVarint(in, raw);
+                    newIdCount = (int) readVarint(in, raw);
+                    for (int c = 0; c < columns.length; c++) {
+                        long size = readVarint(in, raw);
+                        if (size > file.length()) {
+                            break;
+                        }
+                        columns[c] = new byte[(int) size];
+                        in.readFully(columns[c]);
+                        raw.write(columns[c], 0, columns[c].length);
+                    }
+                    if (columns[columns.length - 1] == null) {
+                        break;
+                    }
+                    CRC32 crc = new CRC32();
+                    crc.update(raw.toByteArray(), 0, raw.size());
+                    if (in.readInt() != (int) crc.getValue()) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    // Torn last block
+                    break;
+                }
+                applyBlock(count, newIdCount, columns);
+                good += raw.size() + 4;
+            }
+        }
+        return good;
+    }
+
+    private void applyBlock(int count, int newIdCount, byte[][] columns) {
+        int[] pos = { 0 };
+        for (int i = 0; i < newIdCount; i++) {
+            int len = (int) readVarint(columns[0], pos);
+            String id = new String(columns[0], pos[0], len, StandardCharsets.UTF_8);
+            pos[0] += len;
+            dictionary.put(id, dictionaryIds.size());
+            dictionaryIds.add(id);
+        }
+        int[] idPos = { 0 };
+        int[] timePos = { 0 };
+        int[] salaryPos = { 0 };
+        long time = lastTimestamp;
+        for (int i = 0; i < count; i++) {
+            String id = dictionaryIds.get((int) readVarint(columns[1], idPos));
+            time += unzigzag(readVarint(columns[2], timePos));
+            Series s = series.computeIfAbsent(id, k -> new Series());
+            s.append(time, s.lastSalary + (int) unzigzag(readVarint(columns[3], salaryPos)));
+        }
+        lastTimestamp = time;
+        entryCount += count;
+    }
+
+    private static String key(String devId) {
+        return devId.toUpperCase();
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static int writeVarint(byte[] buf, int pos, long v) {
+        while ((v & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[pos++] = (byte) v;
+        return pos;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static long readVarint(byte[] buf, int[] pos) {
+        long v = 0;
+        for (int shift = 0;; shift += 7) {
+            byte b = buf[pos[0]++];
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return v;
+            }
+        }
+    }
+
+    // Reads a varint from the stream and copies its bytes to raw (for the checksum).
+    private static long readVarint(DataInputStream in, ByteArrayOutputStream raw) throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            raw.write(b);
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return v;
+            }
+        }
+        throw new EOFException("Malformed varint");
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int v) {
+        out.write(v >>> 24);
+        out.write(v >>> 16);
+        out.write(v >>> 8);
+        out.write(v);
+    }
+}
@@ -0,0 +1,389 @@
+package util;
+
+import entity.Developer;
+import entity.Project;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Front end of a sharded roster spread over several {@link ShardServer}
+ * processes.
+ *
+ * Developers are partitioned by a hash of their upper-cased ID and each
+ * project lives on the shard of its developer, so point operations go to
+ * exactly one shard. Filter and sort queries are sent to every shard in
+ * parallel and the partial results gathered; the salary sort is a k-way
+ * merge of the per-shard sorted lists. Whole-roster reads (listing, saving)
+ * are made one shard at a time, so the coordinator never holds more than
+ * one shard's rows.
+ *
+ * A shard that cannot be reached surfaces as an {@link UncheckedIOException}
+ * naming the shard.
+ */
+public class ShardCoordinator implements AutoCloseable {
+    private final List<ShardLink> shards = new ArrayList<>();
+    private final List<Process> processes = new ArrayList<>();
+    private final ExecutorService executor;
+
+    /**
+     * Result of one shard request.
+     */
+    private static class Response {
+        final List<Developer> developers = new ArrayList<>();
+        final List<Project> projects = new ArrayList<>();
+        long value;
+    }
+
+    /**
+     * Connects to running shards. The order of the addresses defines the
+     * partitioning, so it must be the same every time.
+     *
+     * @param addresses The shard addresses.
+     * @throws IOException if a shard cannot be reached.
+     */
+    public ShardCoordinator(List<InetSocketAddress> addresses) throws IOException {
+        this.executor = Executors.newFixedThreadPool(Math.max(1, addresses.size()), r -> {
+            Thread t = new Thread(r, "shard-scatter");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            for (InetSocketAddress address : addresses) {
+                shards.add(new ShardLink(shards.size(), new Socket(address.getAddress(), address.getPort())));
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Starts the given number of shard processes on this machine (same Java
+     * and class path as the current process) and connects to them. The
+     * processes stop when the coordinator is closed or this process exits.
+     *
+     * @param count Number of shards.
+     * @return the coordinator.
+     * @throws IOException if a shard fails to start.
+     */
+    public static ShardCoordinator launchLocal(int count) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<Process> started = new ArrayList<>();
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                Process p = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), "Main",
+                        "--shard", "0", "--attached").redirectError(ProcessBuilder.Redirect.INHERIT).start();
+                started.add(p);
+                BufferedReader out = new BufferedReader(
+                        new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8));
+                String ready = out.readLine();
+                if (ready == null || !ready.startsWith("READY ")) {
+                    throw new IOException("Shard " + i + " failed to start");
+                }
+                addresses.add(new InetSocketAddress("127.0.0.1", Integer.parseInt(ready.substring(6).trim())));
+            }
+            ShardCoordinator coordinator = new ShardCoordinator(addresses);
+            coordinator.processes.addAll(started);
+            Runtime.getRuntime().addShutdownHook(new Thread(coordinator::close));
+            return coordinator;
+        } catch (IOException | RuntimeException e) {
+            for (Process p : started) {
+                p.destroy();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Picks the shard of a developer.
+     *
+     * @param devId      Developer ID, any case.
+     * @param shardCount Number of shards.
+     * @return the shard number.
+     */
+    public static int shardOf(String devId, int shardCount) {
+        return Math.floorMod(devId.toUpperCase().hashCode(), shardCount);
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Partitions the data and replaces the contents of every shard.
+     *
+     * @param developers All developers.
+     * @param projects   All projects.
+     */
+    public void load(List<Developer> developers, List<Project> projects) {
+        int n = shards.size();
+        List<List<Developer>> devParts = new ArrayList<>();
+        List<List<Project>> projParts = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            devParts.add(new ArrayList<>());
+            projParts.add(new ArrayList<>());
+        }
+        for (Developer d : developers) {
+            devParts.get(shardOf(d.getId(), n)).add(d);
+        }
+        for (Project p : projects) {
+            projParts.get(shardOf(p.getDevId(), n)).add(p);
+        }
+        List<Future<Response>> futures = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            ShardLink link = shards.get(i);
+            Roster.Snapshot part = new Roster(devParts.get(i), projParts.get(i), 0).snapshot();
+            futures.add(executor.submit(() -> link.call("LOAD", part)));
+        }
+        gather(futures);
+    }
+
+    /**
+     * Routes a change to the shard that owns it.
+     *
+     * @param mutation An add/update/remove of a developer, or an added project.
+     * @throws IllegalArgumentException if the shard rejects the change.
+     */
+    public void apply(Mutation mutation) {
+        String devId;
+        switch (mutation.getType()) {
+            case ADD_DEVELOPER:
+            case UPDATE_SALARY:
+            case REMOVE_DEVELOPER:
+                devId = mutation.getId();
+                break;
+            case ADD_PROJECT:
+                // Project IDs are unique across shards, not only within one.
+                if (findProject(mutation.getId()) != null) {
+                    throw new IllegalArgumentException("Project ID already exists!");
+                }
+                devId = mutation.getProject().getDevId();
+                break;
+            default:
+                throw new IllegalArgumentException("Not supported in sharded mode: " + mutation.getType());
+        }
+        shardFor(devId).call(MutationCodec.encode(0, mutation));
+    }
+
+    /**
+     * @param id Developer ID.
+     * @return the developer, or null.
+     */
+    public Developer findDeveloper(String id) {
+        List<Developer> found = shardFor(id).call("GET_DEV\t" + id).developers;
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * @param id Project ID.
+     * @return the project, or null.
+     */
+    public Project findProject(String id) {
+        for (Response r : scatter("FIND_PROJ\t" + id)) {
+            if (!r.projects.isEmpty()) {
+                return r.projects.get(0);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param shard Shard number, from 0 to {@link #getShardCount()} - 1.
+     * @return the developers on that shard.
+     */
+    public List<Developer> listDevelopers(int shard) {
+        return shards.get(shard).call("DEVS").developers;
+    }
+
+    /**
+     * Reads one shard. Every project is on the shard of its developer, so a
+     * shard's rows can be grouped or checked on their own.
+     *
+     * @param shard      Shard number, from 0 to {@link #getShardCount()} - 1.
+     * @param developers Receives the shard's developers.
+     * @param projects   Receives the shard's projects.
+     */
+    public void dump(int shard, List<Developer> developers, List<Project> projects) {
+        Response r = shards.get(shard).call("DUMP");
+        developers.addAll(r.developers);
+        projects.addAll(r.projects);
+    }
+
+    /**
+     * @param language The skill, any case.
+     * @return developers having it.
+     */
+    public List<Developer> findByLanguage(String language) {
+        List<Developer> all = new ArrayList<>();
+        for (Response r : scatter("LANG\t" + language)) {
+            all.addAll(r.developers);
+        }
+        return all;
+    }
+
+    /**
+     * @return all developers by ascending salary.
+     */
+    public List<Developer> sortedBySalary() {
+        List<List<Developer>> runs = new ArrayList<>();
+        int total = 0;
+        for (Response r : scatter("SORTED")) {
+            runs.add(r.developers);
+            total += r.developers.size();
+        }
+        // k-way merge: heap of {run, position}, ordered by the salary at that position.
+        PriorityQueue<int[]> heap = new PriorityQueue<>(Math.max(1, runs.size()),
+                (a, b) -> Integer.compare(runs.get(a[0]).get(a[1]).getSalary(),
+                        runs.get(b[0]).get(b[1]).getSalary()));
+        for (int i = 0; i < runs.size(); i++) {
+            if (!runs.get(i).isEmpty()) {
+                heap.add(new int[] { i, 0 });
+            }
+        }
+        List<Developer> merged = new ArrayList<>(total);
+        while (!heap.isEmpty()) {
+            int[] top = heap.poll();
+            List<Developer> run = runs.get(top[0]);
+            merged.add(run.get(top[1]));
+            if (++top[1] < run.size()) {
+                heap.add(top);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * @param devId Developer ID.
+     * @return the developer's projects.
+     */
+    public List<Project> projectsOf(String devId) {
+        return shardFor(devId).call("PROJECTS\t" + devId).projects;
+    }
+
+    /**
+     * @param devId Developer ID.
+     * @return total duration of the developer's projects, in months.
+     */
+    public long totalExperience(String devId) {
+        return shardFor(devId).call("EXPERIENCE\t" + devId).value;
+    }
+
+    /**
+     * Disconnects and stops any shard processes started by this coordinator.
+     */
+    @Override
+    public void close() {
+        for (ShardLink link : shards) {
+            link.close();
+        }
+        for (Process p : processes) {
+            p.destroy();
+        }
+        executor.shutdownNow();
+    }
+
+    private ShardLink shardFor(String devId) {
+        return shards.get(shardOf(devId, shards.size()));
+    }
+
+    private List<Response> scatter(String request) {
+        List<Future<Response>> futures = new ArrayList<>();
+        for (ShardLink link : shards) {
+            futures.add(executor.submit(() -> link.call(request)));
+        }
+        return gather(futures);
+    }
+
+    private static List<Response> gather(List<Future<Response>> futures) {
+        List<Response> results = new ArrayList<>();
+        try {
+            for (Future<Response> f : futures) {
+                results.add(f.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shards");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return Collections.unmodifiableList(results);
+    }
+
+    private static class ShardLink {
+        final int number;
+        final Socket socket;
+        final BufferedReader in;
+        final BufferedWriter out;
+
+        ShardLink(int number, Socket socket) throws IOException {
+            this.number = number;
+            this.socket = socket;
+            this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8),
+                    64 * 1024);
+            this.out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8),
+                    64 * 1024);
+        }
+
+        Response call(String request) {
+            return call(request, null);
+        }
+
+        // One request at a time per connection; an optional snapshot follows the request line.
+        synchronized Response call(String request, Roster.Snapshot payload) {
+            try {
+                out.write(request);
+                if (!request.endsWith("\n")) {
+                    out.write('\n');
+                }
+                if (payload != null) {
+                    MutationCodec.writeSnapshot(out, payload);
+                }
+                out.flush();
+                String line = in.readLine();
+                if (line == null) {
+                    throw new IOException("connection closed");
+                }
+                String[] f = MutationCodec.fields(line);
+                if (f[0].equals("ERR")) {
+                    throw new IllegalArgumentException(f.length > 1 ? f[1] : "Shard error");
+                }
+                Response r = new Response();
+                MutationCodec.readRows(in, Integer.parseInt(f[1]), Integer.parseInt(f[2]), r.developers,
+                        r.projects);
+                r.value = Long.parseLong(f[3]);
+                return r;
+            } catch (IOException e) {
+                throw new UncheckedIOException(
+                        "Shard " + number + " (" + socket.getRemoteSocketAddress() + ") failed: " + e.getMessage(), e);
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+    }
+}
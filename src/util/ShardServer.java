@@ -0,0 +1,199 @@
+package util;
+
+import entity.Developer;
+import entity.Project;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * One shard of a sharded roster: holds the developers whose ID hashes to it
+ * (see {@link ShardCoordinator#shardOf}) together with all of their projects,
+ * so every per-developer rule (duplicate IDs, "cannot delete a developer with
+ * projects", experience totals) is checked locally.
+ *
+ * Requests are single tab-separated lines; mutations use the
+ * {@link MutationCodec} format. Every response starts with
+ * "OK devCount projCount value" followed by the rows, or "ERR message".
+ *
+ * <pre>
+ * LOAD + snapshot   replace the shard contents
+ * M ...             apply a mutation
+ * DUMP              all developers and projects
+ * DEVS              all developers
+ * SORTED            developers by salary, ascending
+ * LANG skill        developers having the skill
+ * GET_DEV id        the developer, if here
+ * FIND_PROJ id      the project, if here
+ * PROJECTS id       projects of a developer
+ * EXPERIENCE id     total months of a developer's projects
+ * </pre>
+ */
+public class ShardServer {
+    private final Roster roster = new Roster(new ArrayList<Developer>(), new ArrayList<Project>(), 0);
+    private SkillIndex skillIndex;
+    private long skillIndexVersion = -1;
+
+    /**
+     * Serves coordinators on a loopback port until the process is stopped.
+     * Prints "READY port" once listening, so a parent process can use port 0
+     * and read the real port back.
+     *
+     * @param port The port, or 0 for any free port.
+     * @throws IOException if the port cannot be opened.
+     */
+    public static void serve(int port) throws IOException {
+        ShardServer shard = new ShardServer();
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.out.println("READY " + server.getLocalPort());
+            System.out.flush();
+            while (true) {
+                Socket socket = server.accept();
+                Thread t = new Thread(() -> shard.handle(socket), "shard-conn");
+                t.setDaemon(true);
+                t.start();
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (Socket s = socket;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8), 64 * 1024);
+                BufferedWriter out = new BufferedWriter(
+                        new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8), 64 * 1024)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                try {
+                    execute(MutationCodec.fields(line), in, out);
+                } catch (IllegalArgumentException e) {
+                    out.write("ERR\t" + e.getMessage() + "\n");
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            // Coordinator went away
+        }
+    }
+
+    private void execute(String[] f, BufferedReader in, Writer out) throws IOException {
+        Roster.Snapshot s = roster.snapshot();
+        switch (f[0]) {
+            case "LOAD": {
+                List<Developer> devs = new ArrayList<>();
+                List<Project> projs = new ArrayList<>();
+                String[] header = MutationCodec.fields(in.readLine());
+                roster.resetTo(MutationCodec.readSnapshot(header, in, devs, projs), devs, projs);
+                reply(out, 0, Collections.<Developer>emptyList(), Collections.<Project>emptyList());
+                break;
+            }
+            case MutationCodec.MUTATION:
+                applyChecked(MutationCodec.decodeMutation(f, in));
+                reply(out, 0, Collections.<Developer>emptyList(), Collections.<Project>emptyList());
+                break;
+            case "DUMP":
+                reply(out, 0, s.getDevelopers(), s.getProjects());
+                break;
+            case "DEVS":
+                reply(out, 0, s.getDevelopers(), Collections.<Project>emptyList());
+                break;
+            case "SORTED": {
+                List<Developer> sorted = new ArrayList<>(s.getDevelopers());
+                sorted.sort(Comparator.comparingInt(Developer::getSalary));
+                reply(out, 0, sorted, Collections.<Project>emptyList());
+                break;
+            }
+            case "LANG":
+                reply(out, 0, skillIndex(s).find(f[1]), Collections.<Project>emptyList());
+                break;
+            case "GET_DEV": {
+                Developer d = s.findDeveloper(f[1]);
+                reply(out, 0, d == null ? Collections.<Developer>emptyList() : Collections.singletonList(d),
+                        Collections.<Project>emptyList());
+                break;
+            }
+            case "FIND_PROJ": {
+                Project p = s.findProject(f[1]);
+                reply(out, 0, Collections.<Developer>emptyList(),
+                        p == null ? Collections.<Project>emptyList() : Collections.singletonList(p));
+                break;
+            }
+            case "PROJECTS":
+                reply(out, 0, Collections.<Developer>emptyList(), projectsOf(s, f[1]));
+                break;
+            case "EXPERIENCE": {
+                long months = 0;
+                for (Project p : projectsOf(s, f[1])) {
+                    months += p.getDurationMonths();
+                }
+                reply(out, months, Collections.<Developer>emptyList(), Collections.<Project>emptyList());
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown request: " + f[0]);
+        }
+    }
+
+    // Enforces the rules ManagementController checks before applying the same mutations.
+    private synchronized void applyChecked(Mutation m) {
+        Roster.Snapshot s = roster.snapshot();
+        switch (m.getType()) {
+            case ADD_DEVELOPER:
+                if (s.findDeveloper(m.getId()) != null) {
+                    throw new IllegalArgumentException("Developer ID already exists!");
+                }
+                break;
+            case REMOVE_DEVELOPER:
+                if (!projectsOf(s, m.getId()).isEmpty()) {
+                    throw new IllegalArgumentException("Cannot delete: Developer is assigned to projects.");
+                }
+                break;
+            case ADD_PROJECT:
+                if (s.findProject(m.getId()) != null) {
+                    throw new IllegalArgumentException("Project ID already exists!");
+                }
+                if (s.findDeveloper(m.getProject().getDevId()) == null) {
+                    throw new IllegalArgumentException("Developer ID does not exist!");
+                }
+                break;
+            default:
+                break;
+        }
+        roster.apply(m);
+    }
+
+    private synchronized SkillIndex skillIndex(Roster.Snapshot s) {
+        if (skillIndex == null || skillIndexVersion != s.getVersion()) {
+            skillIndex = new SkillIndex(s.getDevelopers());
+            skillIndexVersion = s.getVersion();
+        }
+        return skillIndex;
+    }
+
+    private static List<Project> projectsOf(Roster.Snapshot s, String devId) {
+        List<Project> result = new ArrayList<>();
+        for (Project p : s.getProjects()) {
+            if (p.getDevId().equalsIgnoreCase(devId)) {
+                result.add(p);
+            }
+        }
+        return result;
+    }
+
+    private static void reply(Writer out, long value, List<Developer> devs, List<Project> projs)
+            throws IOException {
+        out.write("OK\t" + devs.size() + "\t" + projs.size() + "\t" + value + "\n");
+        MutationCodec.writeRows(out, devs, projs);
+    }
+}
@@ -0,0 +1,534 @@
+package util;
+
+import entity.Developer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Finds the developers whose skill sets are closest to a given developer's.
+ *
+ * Skills (case-insensitive) are numbered in a dictionary and each skill set
+ * becomes a bitset, so the Jaccard similarity |A and B| / |A or B| of two sets
+ * is a few popcounts. Many developers share a skill set, so bitsets are kept
+ * once per distinct set with the set's members listed after it, and a query
+ * scores each set once (in parallel when there are many). Members are then
+ * visited set by set from the highest similarity down, and the visit stops as
+ * soon as no remaining set could beat the k-th best score, even with a
+ * perfect salary and experience match.
+ *
+ * When there are many distinct sets, a MinHash signature per set and LSH
+ * buckets over its bands pick the candidate sets: sets sharing a band with
+ * the target are likely to be similar to it, the others are not scored. If
+ * that yields fewer than the requested number of developers, every set is
+ * scored instead.
+ *
+ * The index is immutable. After a salary or experience change
+ * {@link #withDeveloper} makes an updated copy cheaply; rebuild it after any
+ * other change.
+ */
+public class SimilarityIndex {
+    private static final int NUM_HASHES = 32;
+    private static final int BAND_ROWS = 2;
+    private static final int BANDS = NUM_HASHES / BAND_ROWS;
+    // Below this many distinct skill sets scoring them all is cheaper than the LSH lookup.
+    private static final int LSH_MIN_GROUPS = 2048;
+    private static final int PARALLEL_MIN_GROUPS = 1 << 14;
+
+    // Lower score first; on equal scores the later roster position counts as worse.
+    private static final Comparator<Match> WORST_FIRST = (a, b) -> {
+        int c = Double.compare(a.score, b.score);
+        return c != 0 ? c : Integer.compare(b.position, a.position);
+    };
+
+    private final Developer[] developers;
+    private final int[] salaries;
+    private final int[] months;
+    // The first row wins for a duplicated ID, as in the roster lookups.
+    private final Map<String, Integer> positions;
+    private final Map<String, Integer> dictionary;
+    private final int words;
+    private final int[] groupOf;
+    private final long[] groupBits;
+    private final int groupCount;
+    private final int maxSetSize;
+    // Positions of each group's members: members[memberStart[g]] up to memberStart[g + 1].
+    private final int[] memberStart;
+    private final int[] members;
+    // hashes[h][skill] is MinHash function h of a skill number; null without LSH.
+    private final int[][] hashes;
+    // Per band, (bucket hash | group) sorted, the low groupBitCount bits holding the group.
+    private final long[][] bands;
+    private final int groupBitCount;
+
+    /**
+     * One developer found similar, with their scores.
+     */
+    public static class Match {
+        private final Developer developer;
+        private final int position;
+        private final double score;
+        private final double jaccard;
+        private final int months;
+
+        Match(Developer developer, int position, double score, double jaccard, int months) {
+            this.developer = developer;
+            this.position = position;
+            this.score = score;
+            this.jaccard = jaccard;
+            this.months = months;
+        }
+
+        public Developer getDeveloper() {
+            return developer;
+        }
+
+        /**
+         * @return the ranking score, from 0 to 1.
+         */
+        public double getScore() {
+            return score;
+        }
+
+        /**
+         * @return the Jaccard similarity of the two skill sets, from 0 to 1.
+         */
+        public double getJaccard() {
+            return jaccard;
+        }
+
+        /**
+         * @return the developer's total project experience in months.
+         */
+        public int getMonths() {
+            return months;
+        }
+    }
+
+    /**
+     * Builds the dictionary, the skill-set bitsets and (for many distinct
+     * sets) the LSH buckets.
+     *
+     * @param developers The developers to index.
+     * @param experience Total project months of a developer.
+     */
+    public SimilarityIndex(List<Developer> developers, ToIntFunction<Developer> experience) {
+        int n = developers.size();
+        this.developers = developers.toArray(new Developer[n]);
+        this.salaries = new int[n];
+        this.months = new int[n];
+        this.positions = new HashMap<>(n * 2);
+        this.dictionary = new HashMap<>();
+        // Skills as typed map to their number without lower-casing each occurrence.
+        Map<String, Integer> numbers = new HashMap<>();
+        for (Developer d : developers) {
+            for (String skill : d.getSkills()) {
+                if (!numbers.containsKey(skill)) {
+                    Integer number = dictionary.get(key(skill));
+                    if (number == null) {
+                        number = dictionary.size();
+                        dictionary.put(key(skill), number);
+                    }
+                    numbers.put(skill, number);
+                }
+            }
+        }
+        this.words = Math.max(1, (dictionary.size() + 63) / 64);
+
+        // Developers with the same skill set share one group and one bitset.
+        Map<BitsKey, Integer> groups = new HashMap<>();
+        long[] bits = new long[16 * words];
+        int[] sizes = new int[16];
+        int largest = 0;
+        long[] set = new long[words];
+        this.groupOf = new int[n];
+        for (int i = 0; i < n; i++) {
+            Developer d = this.developers[i];
+            positions.putIfAbsent(d.getId().toUpperCase(), i);
+            salaries[i] = d.getSalary();
+            months[i] = experience.applyAsInt(d);
+            Arrays.fill(set, 0);
+            for (String skill : d.getSkills()) {
+                int bit = numbers.get(skill);
+                set[bit >>> 6] |= 1L << bit;
+            }
+            Integer g = groups.get(new BitsKey(set));
+            if (g == null) {
+                g = groups.size();
+                if (g == sizes.length) {
+                    sizes = Arrays.copyOf(sizes, g * 2);
+                    bits = Arrays.copyOf(bits, g * 2 * words);
+                }
+                System.arraycopy(set, 0, bits, g * words, words);
+                groups.put(new BitsKey(set.clone()), g);
+                largest = Math.max(largest, popCount(set));
+            }
+            groupOf[i] = g;
+            sizes[g]++;
+        }
+        this.groupCount = groups.size();
+        this.groupBits = Arrays.copyOf(bits, groupCount * words);
+        this.maxSetSize = largest;
+
+        this.memberStart = new int[groupCount + 1];
+        for (int g = 0; g < groupCount; g++) {
+            memberStart[g + 1] = memberStart[g] + sizes[g];
+        }
+        this.members = new int[n];
+        int[] next = Arrays.copyOf(memberStart, groupCount);
+        for (int i = 0; i < n; i++) {
+            members[next[groupOf[i]]++] = i;
+        }
+
+        this.groupBitCount = 64 - Long.numberOfLeadingZeros(Math.max(1, groupCount));
+        if (groupCount >= LSH_MIN_GROUPS) {
+            this.hashes = hashTable(dictionary.size());
+            this.bands = buildBands();
+        } else {
+            this.hashes = null;
+            this.bands = null;
+        }
+    }
+
+    // Copy sharing everything but the per-developer values.
+    private SimilarityIndex(SimilarityIndex from, Developer[] developers, int[] salaries, int[] months) {
+        this.developers = developers;
+        this.salaries = salaries;
+        this.months = months;
+        this.positions = from.positions;
+        this.dictionary = from.dictionary;
+        this.words = from.words;
+        this.groupOf = from.groupOf;
+        this.groupBits = from.groupBits;
+        this.groupCount = from.groupCount;
+        this.maxSetSize = from.maxSetSize;
+        this.memberStart = from.memberStart;
+        this.members = from.members;
+        this.hashes = from.hashes;
+        this.bands = from.bands;
+        this.groupBitCount = from.groupBitCount;
+    }
+
+    /**
+     * Returns a copy in which one developer's salary and experience are
+     * replaced. The skill sets are shared, so this costs a few array copies
+     * instead of a rebuild.
+     *
+     * @param updated The developer as changed; the skills must be the same.
+     * @param months  The developer's total project months.
+     * @return the updated index.
+     * @throws IllegalArgumentException if the developer is not indexed.
+     */
+    public SimilarityIndex withDeveloper(Developer updated, int months) {
+        Integer position = positions.get(updated.getId().toUpperCase());
+        if (position == null) {
+            throw new IllegalArgumentException("Developer ID does not exist: " + updated.getId());
+        }
+        Developer[] newDevelopers = developers.clone();
+        int[] newSalaries = salaries.clone();
+        int[] newMonths = this.months.clone();
+        newDevelopers[position] = updated;
+        newSalaries[position] = updated.getSalary();
+        newMonths[position] = months;
+        return new SimilarityIndex(this, newDevelopers, newSalaries, newMonths);
+    }
+
+    /**
+     * @param devId Developer ID, any case.
+     * @return the developer's total project months as indexed, or 0 if not
+     *         indexed.
+     */
+    public int getMonths(String devId) {
+        Integer position = positions.get(devId.toUpperCase());
+        return position == null ? 0 : months[position];
+    }
+
+    /**
+     * Finds the developers most similar to one developer, best first.
+     *
+     * The score is the Jaccard similarity of the skill sets, blended with
+     * how close the salaries and the experience are (each 1 for equal
+     * values, falling towards 0 as one becomes a small fraction of the
+     * other). Developers sharing no skill are never returned.
+     *
+     * @param devId            Developer ID, any case.
+     * @param k                Number of developers to return at most.
+     * @param salaryWeight     Share of the score given to salary closeness.
+     * @param experienceWeight Share of the score given to experience
+     *                         closeness.
+     * @return up to k developers, excluding the given one.
+     * @throws IllegalArgumentException if the developer is not indexed or the
+     *                                  weights are out of range.
+     */
+    public List<Match> findSimilar(String devId, int k, double salaryWeight, double experienceWeight) {
+        Integer position = positions.get(devId.toUpperCase());
+        if (position == null) {
+            throw new IllegalArgumentException("Developer ID does not exist: " + devId);
+        }
+        int target = position;
+        if (salaryWeight < 0 || experienceWeight < 0 || salaryWeight + experienceWeight > 1) {
+            throw new IllegalArgumentException("Weights must be non-negative and add up to at most 1");
+        }
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        int targetGroup = groupOf[target];
+        int targetSize = popCount(targetGroup);
+        // A group's level encodes its intersection and union with the target: inter * width + union.
+        int width = targetSize + maxSetSize + 1;
+        int[] level = new int[groupCount];
+
+        int[] scored = null;
+        if (bands != null) {
+            int[] candidates = candidateGroups(targetGroup);
+            int found = 0;
+            for (int g : candidates) {
+                level[g] = level(targetGroup, g, width);
+                found += level[g] >= width ? memberStart[g + 1] - memberStart[g] : 0;
+            }
+            if (found - (level[targetGroup] >= width ? 1 : 0) >= k) {
+                scored = candidates;
+            }
+        }
+        if (scored == null) {
+            IntStream all = IntStream.range(0, groupCount);
+            (groupCount >= PARALLEL_MIN_GROUPS ? all.parallel() : all)
+                    .forEach(g -> level[g] = level(targetGroup, g, width));
+            scored = IntStream.range(0, groupCount).toArray();
+        }
+
+        // Counting sort of the groups sharing a skill by level, best Jaccard first.
+        int[] counts = new int[(targetSize + 1) * width];
+        for (int g : scored) {
+            counts[level[g]]++;
+        }
+        List<Integer> levels = new ArrayList<>();
+        for (int c = width; c < counts.length; c++) {
+            if (counts[c] > 0) {
+                levels.add(c);
+            }
+        }
+        levels.sort((a, b) -> Long.compare((long) (b / width) * (a % width), (long) (a / width) * (b % width)));
+        int[] levelStart = new int[levels.size() + 1];
+        int[] at = new int[counts.length];
+        for (int l = 0; l < levels.size(); l++) {
+            at[levels.get(l)] = levelStart[l];
+            levelStart[l + 1] = levelStart[l] + counts[levels.get(l)];
+        }
+        int[] order = new int[levelStart[levels.size()]];
+        for (int g : scored) {
+            if (level[g] >= width) {
+                order[at[level[g]]++] = g;
+            }
+        }
+
+        double skillWeight = 1 - salaryWeight - experienceWeight;
+        PriorityQueue<Match> top = new PriorityQueue<>(k + 1, WORST_FIRST);
+        for (int l = 0; l < levels.size(); l++) {
+            double j = (double) (levels.get(l) / width) / (levels.get(l) % width);
+            // The best score a member of this level could reach.
+            double bound = skillWeight * j + salaryWeight + experienceWeight;
+            if (top.size() == k && bound < top.peek().score) {
+                break;
+            }
+            for (int o = levelStart[l]; o < levelStart[l + 1]; o++) {
+                int g = order[o];
+                for (int m = memberStart[g]; m < memberStart[g + 1]; m++) {
+                    int i = members[m];
+                    if (i == target) {
+                        continue;
+                    }
+                    double score = skillWeight * j + salaryWeight * closeness(salaries[target], salaries[i])
+                            + experienceWeight * closeness(months[target], months[i]);
+                    if (top.size() < k || score > top.peek().score) {
+                        top.add(new Match(developers[i], i, score, j, months[i]));
+                        if (top.size() > k) {
+                            top.poll();
+                        }
+                    }
+                }
+            }
+        }
+        List<Match> result = new ArrayList<>(top);
+        result.sort(WORST_FIRST.reversed());
+        return result;
+    }
+
+    /**
+     * @return number of distinct skills.
+     */
+    public int getSkillCount() {
+        return dictionary.size();
+    }
+
+    /**
+     * @return number of distinct skill sets.
+     */
+    public int getSkillSetCount() {
+        return groupCount;
+    }
+
+    /**
+     * @return true if queries pre-filter skill sets with LSH.
+     */
+    public boolean usesLsh() {
+        return bands != null;
+    }
+
+    // Intersection and union of two groups' skill sets, see findSimilar.
+    private int level(int target, int g, int width) {
+        int a = target * words;
+        int b = g * words;
+        int inter = 0;
+        int union = 0;
+        for (int w = 0; w < words; w++) {
+            inter += Long.bitCount(groupBits[a + w] & groupBits[b + w]);
+            union += Long.bitCount(groupBits[a + w] | groupBits[b + w]);
+        }
+        return inter * width + union;
+    }
+
+    private int popCount(int g) {
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(groupBits[g * words + w]);
+        }
+        return count;
+    }
+
+    private static int popCount(long[] set) {
+        int count = 0;
+        for (long word : set) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    // 1 for equal values, 0 when one is zero and the other is not.
+    private static double closeness(int a, int b) {
+        int max = Math.max(Math.abs(a), Math.abs(b));
+        return max == 0 ? 1 : 1 - (double) Math.abs(a - b) / max;
+    }
+
+    // Groups sharing at least one band of their MinHash signature with the target.
+    private int[] candidateGroups(int target) {
+        int[] signature = signature(target);
+        long groupMask = (1L << groupBitCount) - 1;
+        boolean[] seen = new boolean[groupCount];
+        int[] found = new int[16];
+        int count = 0;
+        for (int band = 0; band < BANDS; band++) {
+            long[] entries = bands[band];
+            long bucket = bucketOf(signature, band) & ~groupMask;
+            // First entry of the bucket: the group bits are zero in the probe.
+            int lo = 0;
+            int hi = entries.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (entries[mid] < bucket) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            for (int e = lo; e < entries.length && (entries[e] & ~groupMask) == bucket; e++) {
+                int g = (int) (entries[e] & groupMask);
+                if (!seen[g]) {
+                    seen[g] = true;
+                    if (count == found.length) {
+                        found = Arrays.copyOf(found, count * 2);
+                    }
+                    found[count++] = g;
+                }
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    private long[][] buildBands() {
+        long groupMask = (1L << groupBitCount) - 1;
+        long[][] result = new long[BANDS][groupCount];
+        for (int g = 0; g < groupCount; g++) {
+            int[] signature = signature(g);
+            for (int band = 0; band < BANDS; band++) {
+                result[band][g] = bucketOf(signature, band) & ~groupMask | g;
+            }
+        }
+        for (long[] band : result) {
+            Arrays.sort(band);
+        }
+        return result;
+    }
+
+    private static int[][] hashTable(int skills) {
+        int[][] table = new int[NUM_HASHES][skills];
+        for (int h = 0; h < NUM_HASHES; h++) {
+            for (int s = 0; s < skills; s++) {
+                table[h][s] = (int) (mix(s * 0x9E3779B97F4A7C15L + (h + 1) * 0xC2B2AE3D27D4EB4FL) >>> 33);
+            }
+        }
+        return table;
+    }
+
+    private int[] signature(int g) {
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int w = 0; w < words; w++) {
+            long word = groupBits[g * words + w];
+            while (word != 0) {
+                int skill = w * 64 + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                for (int h = 0; h < NUM_HASHES; h++) {
+                    signature[h] = Math.min(signature[h], hashes[h][skill]);
+                }
+            }
+        }
+        return signature;
+    }
+
+    // Non-negative, so the sorted bands can be searched with signed comparisons.
+    private static long bucketOf(int[] signature, int band) {
+        long rows = 0;
+        for (int r = 0; r < BAND_ROWS; r++) {
+            rows = rows * 0x100000001B3L + signature[band * BAND_ROWS + r];
+        }
+        return mix(rows) >>> 1;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    private static String key(String skill) {
+        return skill.trim().toLowerCase();
+    }
+
+    // Hash key over a bitset's contents.
+    private static final class BitsKey {
+        private final long[] bits;
+        private final int hash;
+
+        BitsKey(long[] bits) {
+            this.bits = bits;
+            this.hash = Arrays.hashCode(bits);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof BitsKey && Arrays.equals(bits, ((BitsKey) o).bits);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
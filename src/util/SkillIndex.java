@@ -0,0 +1,56 @@
+package util;
+
+import entity.Developer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inverted index from skill (case-insensitive) to the developers having it.
+ * Lists keep the roster order. The index is immutable: rebuild it after
+ * developers change.
+ */
+public class SkillIndex {
+    private final Map<String, List<Developer>> bySkill = new HashMap<>();
+
+    /**
+     * Builds the index in one pass over the roster.
+     *
+     * @param developers The developers to index.
+     */
+    public SkillIndex(List<Developer> developers) {
+        for (Developer d : developers) {
+            for (String skill : d.getSkills()) {
+                List<Developer> list = bySkill.computeIfAbsent(key(skill), k -> new ArrayList<>());
+                // A developer listing the same skill twice is indexed once.
+                if (list.isEmpty() || list.get(list.size() - 1) != d) {
+                    list.add(d);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param skill The skill, any letter case.
+     * @return developers having the skill, in roster order.
+     */
+    public List<Developer> find(String skill) {
+        List<Developer> list = bySkill.get(key(skill));
+        return list == null ? Collections.<Developer>emptyList() : Collections.unmodifiableList(list);
+    }
+
+    /**
+     * @param skill The skill, any letter case.
+     * @return number of developers having the skill.
+     */
+    public int count(String skill) {
+        List<Developer> list = bySkill.get(key(skill));
+        return list == null ? 0 : list.size();
+    }
+
+    private static String key(String skill) {
+        return skill.trim().toLowerCase();
+    }
+}
@@ -0,0 +1,44 @@
+package util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Folds text for searching: lower case, no diacritics, single spaces.
+ * "Nguyễn Văn Đức" and "nguyen van duc" fold to the same string.
+ */
+public class TextNormalizer {
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALNUM = Pattern.compile("[^a-z0-9]+");
+
+    /**
+     * Folds case and diacritics and collapses whitespace.
+     *
+     * @param text The text.
+     * @return the folded text.
+     */
+    public static String fold(String text) {
+        // Vietnamese đ/Đ is a separate letter, not d plus a mark.
+        String s = text.replace('\u0111', 'd').replace('\u0110', 'D');
+        s = MARKS.matcher(Normalizer.normalize(s, Normalizer.Form.NFD)).replaceAll("");
+        return s.toLowerCase().trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Splits text into folded alphanumeric tokens.
+     *
+     * @param text The text.
+     * @return the tokens in order.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String t : NON_ALNUM.split(fold(text))) {
+            if (!t.isEmpty()) {
+                tokens.add(t);
+            }
+        }
+        return tokens;
+    }
+}
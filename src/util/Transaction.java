@@ -0,0 +1,335 @@
+package util;
+
+import entity.Developer;
+import entity.Project;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Predicate;
+
+/**
+ * Several roster changes that take effect together or not at all.
+ *
+ * A transaction reads one {@link Roster} snapshot and buffers its writes;
+ * reads see the transaction's own writes. Nothing is locked while it runs.
+ * {@link #commit} checks, under the roster's write lock, that no entity the
+ * transaction read or wrote was written by someone else after its snapshot,
+ * and then applies every write as a single {@link Mutation#batch} (one
+ * version, one journal entry for replicas and event subscribers, one undo
+ * step). Otherwise it throws {@link ConflictException} and nothing changes;
+ * {@link #run} retries the work on a fresh snapshot.
+ *
+ * The roster's data rules are checked as the writes are buffered: unique
+ * IDs, existing developers, no removal while projects remain, salaries of
+ * at least {@link Validation#MIN_SALARY} and durations of at least one
+ * month. A failing step throws IllegalArgumentException before anything is
+ * applied. The console's input formats (DEVxxx and PROJxx IDs, two-word
+ * names, future start dates) are checked where the input is read, not
+ * here, so generated and imported data may use other IDs.
+ *
+ * A transaction must end with {@link #commit} or {@link #abort}; until then
+ * the roster keeps the write stamps it may need to check.
+ */
+public class Transaction {
+    private static final int DEFAULT_MAX_ATTEMPTS = 10;
+    private static final long FIRST_BACKOFF_MICROS = 50;
+
+    private final Roster roster;
+    private final Roster.Snapshot base;
+    private Roster.Snapshot working;
+    private final Set<String> readKeys = new HashSet<>();
+    private final List<Mutation> writes = new ArrayList<>();
+    private boolean finished = false;
+    private Mutation committed;
+    private Roster.Snapshot committedSnapshot;
+
+    /**
+     * Thrown by {@link #commit} when an entity the transaction depends on was
+     * changed after its snapshot.
+     */
+    public static class ConflictException extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+        private final String key;
+
+        ConflictException(String key, long readVersion, long writtenVersion) {
+            super("Conflict on " + key + ": read at version " + readVersion + ", written at " + writtenVersion);
+            this.key = key;
+        }
+
+        /**
+         * @return the key of the entity that changed, e.g. "D:DEV001".
+         */
+        public String getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * Starts a transaction on the roster's current snapshot.
+     *
+     * @param roster The roster to change.
+     */
+    public Transaction(Roster roster) {
+        this.roster = roster;
+        this.base = roster.openRead();
+        this.working = base;
+    }
+
+    /**
+     * Runs work in a transaction and commits it, retrying with a fresh
+     * snapshot (after a short random backoff) when the commit conflicts.
+     *
+     * @param roster The roster to change.
+     * @param work   Reads and buffers writes; may run several times, so it
+     *               must not have other side effects.
+     * @return the committed transaction (see {@link #getMutation}).
+     * @throws ConflictException        if every attempt conflicted.
+     * @throws IllegalArgumentException if the work breaks a rule.
+     */
+    public static Transaction run(Roster roster, Consumer<Transaction> work) {
+        return run(roster, DEFAULT_MAX_ATTEMPTS, work);
+    }
+
+    /**
+     * @param roster      The roster to change.
+     * @param maxAttempts Attempts before giving up.
+     * @param work        See {@link #run(Roster, Consumer)}.
+     * @return the committed transaction.
+     */
+    public static Transaction run(Roster roster, int maxAttempts, Consumer<Transaction> work) {
+        long backoff = FIRST_BACKOFF_MICROS;
+        for (int attempt = 1;; attempt++) {
+            Transaction tx = new Transaction(roster);
+            try {
+                work.accept(tx);
+            } catch (RuntimeException e) {
+                tx.abort();
+                throw e;
+            }
+            try {
+                tx.commit();
+                return tx;
+            } catch (ConflictException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                long pause = ThreadLocalRandom.current().nextLong(backoff) + 1;
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(pause));
+                backoff *= 2;
+            }
+        }
+    }
+
+    /**
+     * @param id Developer ID, any case.
+     * @return the developer as this transaction sees it, or null.
+     */
+    public Developer findDeveloper(String id) {
+        readKeys.add(Roster.developerKey(id));
+        return working.findDeveloper(id);
+    }
+
+    /**
+     * @param id Project ID, any case.
+     * @return the project as this transaction sees it, or null.
+     */
+    public Project findProject(String id) {
+        readKeys.add(Roster.projectKey(id));
+        return working.findProject(id);
+    }
+
+    /**
+     * @param devId Developer ID, any case.
+     * @return the developer's projects as this transaction sees them.
+     */
+    public List<Project> projectsOf(String devId) {
+        readKeys.add(Roster.assignmentKey(devId));
+        List<Project> result = new ArrayList<>();
+        for (Project p : working.getProjects()) {
+            if (p.getDevId().equalsIgnoreCase(devId)) {
+                result.add(p);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param developer The developer to add.
+     * @throws IllegalArgumentException if the ID is empty or already exists,
+     *                                  or the salary is below the minimum.
+     */
+    public void addDeveloper(Developer developer) {
+        if (developer.getId() == null || developer.getId().trim().isEmpty()) {
+            throw new IllegalArgumentException("Developer ID is empty");
+        }
+        if (findDeveloper(developer.getId()) != null) {
+            throw new IllegalArgumentException("Developer ID already exists: " + developer.getId());
+        }
+        Validation.requireSalary(developer.getSalary());
+        write(Mutation.addDeveloper(developer));
+    }
+
+    /**
+     * @param id     Developer ID, any case.
+     * @param salary The new salary.
+     * @throws IllegalArgumentException if the developer does not exist or
+     *                                  the salary is below the minimum.
+     */
+    public void updateSalary(String id, int salary) {
+        Developer dev = findDeveloper(id);
+        if (dev == null) {
+            throw new IllegalArgumentException("Developer ID does not exist: " + id);
+        }
+        Validation.requireSalary(salary);
+        write(Mutation.updateSalary(dev.getId(), salary));
+    }
+
+    /**
+     * Plans a bulk salary change against this transaction's view and buffers
+     * it as one write. The adjusted developers count as read, so if one of
+     * their salaries changes before the commit, {@link #run} plans again
+     * from the current values instead of overwriting that change.
+     *
+     * @param filter    Selects the developers to adjust.
+     * @param transform Maps a current salary to the new one.
+     * @return the plan; it is buffered only if it is valid and changes a
+     *         salary.
+     */
+    public SalaryAdjustment.Plan adjustSalaries(Predicate<Developer> filter, IntUnaryOperator transform) {
+        SalaryAdjustment.Plan plan = SalaryAdjustment.plan(working.getDevelopers(), filter, transform);
+        for (Developer d : plan.getUpdated()) {
+            readKeys.add(Roster.developerKey(d.getId()));
+        }
+        if (plan.isValid() && !plan.getUpdated().isEmpty()) {
+            write(Mutation.updateSalaries(plan.getUpdated()));
+        }
+        return plan;
+    }
+
+    /**
+     * @param id Developer ID, any case.
+     * @throws IllegalArgumentException if the developer does not exist or
+     *                                  still has projects.
+     */
+    public void removeDeveloper(String id) {
+        Developer dev = findDeveloper(id);
+        if (dev == null) {
+            throw new IllegalArgumentException("Developer ID does not exist: " + id);
+        }
+        if (!projectsOf(id).isEmpty()) {
+            throw new IllegalArgumentException("Cannot delete " + dev.getId() + ": assigned to projects.");
+        }
+        write(Mutation.removeDeveloper(dev.getId()));
+    }
+
+    /**
+     * @param project The project; its developer must exist (possibly added
+     *                earlier in this transaction).
+     * @throws IllegalArgumentException if the project ID is empty or exists,
+     *                                  the developer does not exist or the
+     *                                  duration is under one month.
+     */
+    public void addProject(Project project) {
+        if (project.getId() == null || project.getId().trim().isEmpty()) {
+            throw new IllegalArgumentException("Project ID is empty");
+        }
+        if (project.getDurationMonths() < 1) {
+            throw new IllegalArgumentException("Duration must be at least 1 month: " + project.getId());
+        }
+        if (findProject(project.getId()) != null) {
+            throw new IllegalArgumentException("Project ID already exists: " + project.getId());
+        }
+        if (findDeveloper(project.getDevId()) == null) {
+            throw new IllegalArgumentException("Developer ID does not exist: " + project.getDevId());
+        }
+        write(Mutation.addProject(project));
+    }
+
+    /**
+     * @param id Project ID, any case.
+     * @throws IllegalArgumentException if the project does not exist.
+     */
+    public void removeProject(String id) {
+        Project project = findProject(id);
+        if (project == null) {
+            throw new IllegalArgumentException("Project ID does not exist: " + id);
+        }
+        write(Mutation.removeProject(project.getId(), -1));
+    }
+
+    /**
+     * @return number of buffered writes.
+     */
+    public int getWriteCount() {
+        return writes.size();
+    }
+
+    /**
+     * Applies the buffered writes if nothing they depend on changed.
+     *
+     * @return the mutation that was applied, or null if there were no
+     *         writes.
+     * @throws ConflictException if an entity read or written by this
+     *                           transaction was changed after its snapshot.
+     */
+    public Mutation commit() {
+        checkOpen();
+        finished = true;
+        try {
+            if (writes.isEmpty()) {
+                return null;
+            }
+            Mutation mutation = writes.size() == 1 ? writes.get(0) : Mutation.batch(writes);
+            committedSnapshot = roster.commit(base.getVersion(), readKeys, mutation);
+            committed = mutation;
+            return mutation;
+        } finally {
+            roster.closeRead(base.getVersion());
+        }
+    }
+
+    /**
+     * Ends the transaction without applying anything. Does nothing if it
+     * already ended.
+     */
+    public void abort() {
+        if (!finished) {
+            finished = true;
+            roster.closeRead(base.getVersion());
+        }
+    }
+
+    /**
+     * @return the mutation that was applied, or null if the transaction was
+     *         not committed or wrote nothing.
+     */
+    public Mutation getMutation() {
+        return committed;
+    }
+
+    /**
+     * @return the snapshot the commit produced, or null if nothing was
+     *         applied.
+     */
+    public Roster.Snapshot getCommittedSnapshot() {
+        return committedSnapshot;
+    }
+
+    private void write(Mutation mutation) {
+        checkOpen();
+        working = Roster.applyTo(working, mutation);
+        writes.add(mutation);
+    }
+
+    private void checkOpen() {
+        if (finished) {
+            throw new IllegalStateException("Transaction already committed");
+        }
+    }
+}
@@ -1,8 +1,7 @@
 package util;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import entity.Project;
+import java.time.LocalDate;
 import java.util.Scanner;
 
 /**
@@ -89,24 +88,31 @@ public class Validation {
 
     /**
      * Checks for a valid date input in format dd/MM/yyyy.
+     * Uses the same strict parser as {@link Project#parseEpochDay}, so a
+     * two-digit year or trailing text is rejected here rather than stored.
      * 
      * @return the valid date string.
      */
     public static String checkInputDate() {
         while (true) {
-            try {
-                String result = checkInputString();
-                SimpleDateFormat df = new SimpleDateFormat(DATE_FORMAT);
-                df.setLenient(false);
-                df.parse(result);
+            String result = checkInputString();
+            if (Project.parseEpochDay(result) != Project.UNKNOWN_DATE) {
                 return result;
-            } catch (ParseException e) {
-                System.err.println("Please input correct date format: " + DATE_FORMAT);
-                System.out.print("Enter again: ");
             }
+            System.err.println("Please input correct date format: " + DATE_FORMAT);
+            System.out.print("Enter again: ");
         }
     }
 
+    /**
+     * Reads a date in format dd/MM/yyyy as an epoch-day.
+     * 
+     * @return the epoch-day; never {@link Project#UNKNOWN_DATE}.
+     */
+    public static long checkInputEpochDay() {
+        return Project.parseEpochDay(checkInputDate());
+    }
+
     /**
      * Reads a raw string line from the scanner.
      * Use this when empty input is allowed.
@@ -153,6 +159,11 @@ public class Validation {
         }
     }
 
+    /**
+     * Lowest salary a developer may have, in USD.
+     */
+    public static final int MIN_SALARY = 1000;
+
     /**
      * Validates Salary: must be a positive integer >= 1000 USD.
      * 
@@ -162,7 +173,7 @@ public class Validation {
         while (true) {
             try {
                 int salary = Integer.parseInt(scanner.nextLine().trim());
-                if (salary >= 1000) {
+                if (isValidSalary(salary)) {
                     return salary;
                 }
                 System.err.println("Salary must be at least 1000 USD!");
@@ -174,6 +185,24 @@ public class Validation {
         }
     }
 
+    /**
+     * @param salary A salary in USD.
+     * @return true if it is at least {@link #MIN_SALARY}.
+     */
+    public static boolean isValidSalary(int salary) {
+        return salary >= MIN_SALARY;
+    }
+
+    /**
+     * @param salary A salary in USD.
+     * @throws IllegalArgumentException if it is below {@link #MIN_SALARY}.
+     */
+    public static void requireSalary(int salary) {
+        if (!isValidSalary(salary)) {
+            throw new IllegalArgumentException("Salary must be at least " + MIN_SALARY + " USD: " + salary);
+        }
+    }
+
     /**
      * Validates that a date is in the future.
      * 
@@ -181,21 +210,12 @@ public class Validation {
      */
     public static String checkFutureDate() {
         while (true) {
-            try {
-                String result = checkInputString();
-                SimpleDateFormat df = new SimpleDateFormat(DATE_FORMAT);
-                df.setLenient(false);
-                Date inputDate = df.parse(result);
-                Date today = new Date();
-                if (inputDate.after(today)) {
-                    return result;
-                }
-                System.err.println("Start date must be in the future!");
-                System.out.print("Enter again: ");
-            } catch (ParseException e) {
-                System.err.println("Please input correct date format: " + DATE_FORMAT);
-                System.out.print("Enter again: ");
+            String result = checkInputDate();
+            if (Project.parseEpochDay(result) > LocalDate.now().toEpochDay()) {
+                return result;
             }
+            System.err.println("Start date must be in the future!");
+            System.out.print("Enter again: ");
         }
     }
 
@@ -207,7 +227,7 @@ public class Validation {
     public static String checkProjectId() {
         while (true) {
             String id = checkInputString().toUpperCase();
-            if (id.matches("PROJ\\d{2,}")) {
+            if (isValidProjectId(id)) {
                 return id;
             }
             System.err.println("Project ID must be in format PROJxx (e.g., PROJ01)!");
@@ -215,6 +235,14 @@ public class Validation {
         }
     }
 
+    /**
+     * @param id Project ID, already uppercased.
+     * @return true if the ID has the PROJxx format.
+     */
+    public static boolean isValidProjectId(String id) {
+        return id.matches("PROJ\\d{2,}");
+    }
+
     /**
      * Validates Duration: must be >= 1 month.
      * 
@@ -2,7 +2,17 @@ package view;
 
 import entity.Developer;
 import entity.Project;
+import util.AssignmentEngine;
+import util.EventBus;
+import util.IntegrityChecker;
+import util.QueryCache;
+import util.ReplicationServer;
+import util.SalaryAdjustment;
+import util.SalaryHistory;
+import util.SimilarityIndex;
 import util.Validation;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
@@ -16,6 +26,35 @@ public class ConsoleView {
      * Displays the main menu options (12 functions as per Lab211).
      */
     public void displayMenu() {
+        displayMainOptions();
+        System.out.println("------------------ MAINTENANCE ---------------------");
+        System.out.println("13. Check data integrity");
+        System.out.println("14. Project timeline queries");
+        System.out.println("15. Auto-assign incoming projects from file");
+        System.out.println("16. Search Developers by name");
+        System.out.println("17. Search Projects by name or client");
+        System.out.println("18. Undo last change");
+        System.out.println("19. Replication status");
+        System.out.println("20. Change-event subscribers");
+        System.out.println("21. Bulk salary adjustment");
+        System.out.println("22. Salary history and payroll over time");
+        System.out.println("23. Query cache statistics");
+        System.out.println("24. Archive of completed projects");
+        System.out.println("25. Find developers with similar skills");
+        System.out.println("====================================================");
+        System.out.print("Choose an option (1-25): ");
+    }
+
+    /**
+     * Displays only the 12 main options, for the sharded mode.
+     */
+    public void displayBasicMenu() {
+        displayMainOptions();
+        System.out.println("====================================================");
+        System.out.print("Choose an option (1-12): ");
+    }
+
+    private void displayMainOptions() {
         System.out.println("\n========== SOFTWARE DEVELOPER MANAGEMENT ==========");
         System.out.println("1.  List all Developers");
         System.out.println("2.  Add a new Developer");
@@ -29,8 +68,72 @@ public class ConsoleView {
         System.out.println("10. Sort Developers by Salary");
         System.out.println("11. Save data to files");
         System.out.println("12. Quit program");
-        System.out.println("====================================================");
-        System.out.print("Choose an option (1-12): ");
+    }
+
+    /**
+     * Displays the project timeline sub-menu.
+     */
+    public void displayTimelineMenu() {
+        System.out.println("\n--- Project Timeline Queries ---");
+        System.out.println("1. Projects active on a date");
+        System.out.println("2. Projects overlapping a date range");
+        System.out.println("3. Developers free during a date range");
+        System.out.print("Choose an option (1-3): ");
+    }
+
+    /**
+     * Displays the salary history sub-menu.
+     * 
+     * @param entries    Recorded salary changes.
+     * @param developers Developers with a history.
+     * @param bytes      Size of the history file.
+     */
+    public void displaySalaryHistoryMenu(long entries, int developers, long bytes) {
+        System.out.println("\n--- Salary History (" + entries + " changes of " + developers + " developers, "
+                + bytes + " bytes) ---");
+        System.out.println("1. Salary history of a developer");
+        System.out.println("2. Salary of a developer as of a date");
+        System.out.println("3. Total payroll as of a date");
+        System.out.println("4. Monthly payroll over a date range");
+        System.out.print("Choose an option (1-4): ");
+    }
+
+    /**
+     * Displays the project archive sub-menu.
+     * 
+     * @param segments Number of archive segments.
+     * @param projects Archived projects.
+     * @param bytes    Size of the segments.
+     */
+    public void displayArchiveMenu(int segments, int projects, long bytes) {
+        System.out.println("\n--- Project Archive (" + projects + " projects in " + segments + " segments, " + bytes
+                + " bytes) ---");
+        System.out.println("1. Archive completed projects now");
+        System.out.println("2. Archived projects of a developer");
+        System.out.print("Choose an option (1-2): ");
+    }
+
+    /**
+     * Displays the developer filters for a bulk salary adjustment.
+     */
+    public void displayBulkFilterMenu() {
+        System.out.println("\n--- Bulk Salary Adjustment: Which Developers? ---");
+        System.out.println("1. Developers with a language");
+        System.out.println("2. Developers in a salary band");
+        System.out.println("3. All developers");
+        System.out.print("Choose an option (1-3): ");
+    }
+
+    /**
+     * Displays the kinds of bulk salary adjustment.
+     */
+    public void displayBulkTransformMenu() {
+        System.out.println("\n--- Bulk Salary Adjustment: What Change? ---");
+        System.out.println("1. Percentage raise");
+        System.out.println("2. Fixed amount raise");
+        System.out.println("3. Percentage cut");
+        System.out.println("4. Fixed amount cut");
+        System.out.print("Choose an option (1-4): ");
     }
 
     /**
@@ -48,15 +151,32 @@ public class ConsoleView {
      * @param developers List of developers to display.
      */
     public void displayDeveloperList(List<Developer> developers) {
-        System.out.println("\n--- Developer List ---");
-        System.out.printf("%-10s | %-20s | %-25s | %s%n", "ID", "Name", "Languages", "Salary (USD)");
-        System.out.println("--------------------------------------------------------------------------------");
+        displayDeveloperListHeader();
         if (developers.isEmpty()) {
             System.out.println("No developers found.");
         } else {
-            for (Developer dev : developers) {
-                System.out.println(dev);
-            }
+            displayDeveloperRows(developers);
+        }
+    }
+
+    /**
+     * Displays the title and column headings of the developer table, for a
+     * list shown in parts with {@link #displayDeveloperRows}.
+     */
+    public void displayDeveloperListHeader() {
+        System.out.println("\n--- Developer List ---");
+        System.out.printf("%-10s | %-20s | %-25s | %s%n", "ID", "Name", "Languages", "Salary (USD)");
+        System.out.println("--------------------------------------------------------------------------------");
+    }
+
+    /**
+     * Displays developer table rows without headings.
+     * 
+     * @param developers Developers to display.
+     */
+    public void displayDeveloperRows(List<Developer> developers) {
+        for (Developer dev : developers) {
+            System.out.println(dev);
         }
     }
 
@@ -84,11 +204,28 @@ public class ConsoleView {
      * @param developerProjects Map of Developer to their projects.
      */
     public void displayProjectsByDeveloper(Map<Developer, List<Project>> developerProjects) {
-        System.out.println("\n--- Projects by Developer (Grouped) ---");
+        displayProjectsByDeveloperHeader();
         if (developerProjects.isEmpty()) {
             System.out.println("No data found.");
             return;
         }
+        displayDeveloperProjects(developerProjects);
+    }
+
+    /**
+     * Displays the title of the grouped project list, for a list shown in
+     * parts with {@link #displayDeveloperProjects}.
+     */
+    public void displayProjectsByDeveloperHeader() {
+        System.out.println("\n--- Projects by Developer (Grouped) ---");
+    }
+
+    /**
+     * Displays each developer with their projects, without the title.
+     * 
+     * @param developerProjects Developers mapped to their projects.
+     */
+    public void displayDeveloperProjects(Map<Developer, List<Project>> developerProjects) {
         for (Map.Entry<Developer, List<Project>> entry : developerProjects.entrySet()) {
             Developer dev = entry.getKey();
             List<Project> projects = entry.getValue();
@@ -111,6 +248,216 @@ public class ConsoleView {
         }
     }
 
+    /**
+     * Displays the result of a data integrity check.
+     * 
+     * @param report The integrity report.
+     */
+    public void displayIntegrityReport(IntegrityChecker.Report report) {
+        System.out.println("\n--- Data Integrity Report ---");
+        if (report.isClean()) {
+            System.out.println("No problems found.");
+            return;
+        }
+        System.out.println("Orphaned projects (developer does not exist): " + report.getOrphanedProjects().size());
+        for (Project proj : report.getOrphanedProjects()) {
+            System.out.println("  " + proj);
+        }
+        System.out.println("Duplicate developer IDs: " + report.getDuplicateDevelopers().size());
+        for (Developer dev : report.getDuplicateDevelopers()) {
+            System.out.println("  " + dev);
+        }
+        System.out.println("Case-variant developer IDs: " + report.getCaseVariantDevelopers().size());
+        for (Developer dev : report.getCaseVariantDevelopers()) {
+            System.out.println("  " + dev);
+        }
+        System.out.println("Duplicate project IDs: " + report.getDuplicateProjects().size());
+        for (Project proj : report.getDuplicateProjects()) {
+            System.out.println("  " + proj);
+        }
+        System.out.println("Case-variant project IDs: " + report.getCaseVariantProjects().size());
+        for (Project proj : report.getCaseVariantProjects()) {
+            System.out.println("  " + proj);
+        }
+    }
+
+    /**
+     * Displays ranked developer suggestions for a project.
+     * 
+     * @param candidates Candidates, best first.
+     */
+    public void displayCandidates(List<AssignmentEngine.Candidate> candidates) {
+        System.out.println("\n--- Suggested Developers ---");
+        if (candidates.isEmpty()) {
+            System.out.println("No suggestion available.");
+            return;
+        }
+        System.out.printf("%-10s | %-20s | %-25s | %-8s | %-7s | %s%n", "ID", "Name", "Languages", "Salary",
+                "Busy", "Score");
+        System.out.println("--------------------------------------------------------------------------------");
+        for (AssignmentEngine.Candidate c : candidates) {
+            Developer dev = c.getDeveloper();
+            System.out.printf("%-10s | %-20s | %-25s | %-8d | %-7d | %.2f%n", dev.getId(), dev.getName(),
+                    dev.getSkills(), dev.getSalary(), c.getOverlappingProjects(), c.getScore());
+        }
+    }
+
+    /**
+     * Displays the developers most similar to one developer.
+     * 
+     * @param dev     The developer compared against.
+     * @param matches Similar developers, best first.
+     */
+    public void displaySimilarDevelopers(Developer dev, List<SimilarityIndex.Match> matches) {
+        System.out.println("\n--- Developers Similar to " + dev.getId() + " " + dev.getSkills() + " ---");
+        if (matches.isEmpty()) {
+            System.out.println("No developer shares a skill with " + dev.getId() + ".");
+            return;
+        }
+        System.out.printf("%-10s | %-20s | %-25s | %-8s | %-6s | %-7s | %s%n", "ID", "Name", "Languages", "Salary",
+                "Months", "Jaccard", "Score");
+        System.out.println("--------------------------------------------------------------------------------");
+        for (SimilarityIndex.Match m : matches) {
+            Developer d = m.getDeveloper();
+            System.out.printf("%-10s | %-20s | %-25s | %-8d | %-6d | %-7.2f | %.2f%n", d.getId(), d.getName(),
+                    d.getSkills(), d.getSalary(), m.getMonths(), m.getJaccard(), m.getScore());
+        }
+    }
+
+    /**
+     * Displays the result of a batch assignment.
+     * 
+     * @param assignments Chosen developer per request.
+     */
+    public void displayAssignments(Map<AssignmentEngine.Request, AssignmentEngine.Candidate> assignments) {
+        System.out.println("\n--- Proposed Assignments ---");
+        System.out.printf("%-10s | %-25s | %-25s | %-10s | %s%n", "Proj ID", "Name", "Required", "Dev ID",
+                "Score");
+        System.out.println("--------------------------------------------------------------------------------");
+        for (Map.Entry<AssignmentEngine.Request, AssignmentEngine.Candidate> entry : assignments.entrySet()) {
+            Project proj = entry.getKey().getProject();
+            System.out.printf("%-10s | %-25s | %-25s | %-10s | %.2f%n", proj.getId(), proj.getName(),
+                    entry.getKey().getRequiredSkills(), entry.getValue().getDeveloper().getId(),
+                    entry.getValue().getScore());
+        }
+    }
+
+    /**
+     * Displays projects together with their assigned developer.
+     * 
+     * @param results Map of Project to its developer (null if it does not exist).
+     */
+    public void displayProjectSearchResults(Map<Project, Developer> results) {
+        System.out.println("\n--- Matching Projects ---");
+        System.out.printf("%-10s | %-25s | %-20s | %-10s | %s%n", "Proj ID", "Name", "Client Name", "Dev ID",
+                "Developer");
+        System.out.println("--------------------------------------------------------------------------------");
+        if (results.isEmpty()) {
+            System.out.println("No projects found.");
+            return;
+        }
+        for (Map.Entry<Project, Developer> entry : results.entrySet()) {
+            Project proj = entry.getKey();
+            Developer dev = entry.getValue();
+            System.out.printf("%-10s | %-25s | %-20s | %-10s | %s%n", proj.getId(), proj.getName(),
+                    proj.getClientName(), proj.getDevId(), dev == null ? "(not found)" : dev.getName());
+        }
+    }
+
+    /**
+     * Displays the replicas connected to this primary.
+     * 
+     * @param port     The replication port.
+     * @param version  The current roster version.
+     * @param replicas Status of each connected replica.
+     */
+    public void displayPrimaryStatus(int port, long version, List<ReplicationServer.ReplicaStatus> replicas) {
+        System.out.println("\n--- Replication (primary on port " + port + ", version " + version + ") ---");
+        if (replicas.isEmpty()) {
+            System.out.println("No replicas connected.");
+            return;
+        }
+        System.out.printf("%-25s | %-12s | %-8s | %s%n", "Replica", "Acked", "Lag", "Queued");
+        System.out.println("--------------------------------------------------------------------------------");
+        for (ReplicationServer.ReplicaStatus r : replicas) {
+            long lag = r.getAckedVersion() < 0 ? version : Math.max(0, version - r.getAckedVersion());
+            System.out.printf("%-25s | %-12d | %-8d | %d%n", r.getAddress(), r.getAckedVersion(), lag,
+                    r.getBacklog());
+        }
+    }
+
+    /**
+     * Displays this replica's position relative to its primary.
+     * 
+     * @param connected          Whether the primary is reachable.
+     * @param applied            Version applied locally.
+     * @param primary            Latest primary version heard of.
+     * @param lag                Versions not applied yet.
+     * @param millisSinceContact Time since the primary was last heard from.
+     */
+    public void displayReplicaStatus(boolean connected, long applied, long primary, long lag,
+            long millisSinceContact) {
+        System.out.println("\n--- Replication (read-only replica) ---");
+        System.out.println("Primary:         " + (connected ? "connected" : "disconnected, retrying"));
+        System.out.println("Applied version: " + applied);
+        System.out.println("Primary version: " + primary);
+        System.out.println("Lag:             " + lag + " change(s), last heard " + millisSinceContact + " ms ago");
+    }
+
+    /**
+     * Displays the change-event subscribers and how far behind they are.
+     * 
+     * @param published     Events published so far.
+     * @param subscriptions The subscribers.
+     */
+    public void displayEventSubscribers(long published, List<EventBus.Subscription> subscriptions) {
+        System.out.println("\n--- Change Events (" + published + " published) ---");
+        if (subscriptions.isEmpty()) {
+            System.out.println("No subscribers.");
+            return;
+        }
+        System.out.printf("%-20s | %-10s | %-10s | %-8s | %s%n", "Subscriber", "Delivered", "Batches", "Lag",
+                "State");
+        System.out.println("--------------------------------------------------------------------------------");
+        for (EventBus.Subscription s : subscriptions) {
+            System.out.printf("%-20s | %-10d | %-10d | %-8d | %s%n", s.getName(), s.getDelivered(), s.getBatches(),
+                    s.getLag(), s.isOverrun() ? "overrun" : s.isActive() ? "active" : "stopped");
+        }
+    }
+
+    /**
+     * Displays the query cache size and hit rate.
+     * 
+     * @param cache The cache.
+     */
+    public void displayQueryCacheStatus(QueryCache cache) {
+        System.out.println("\n--- Query Cache (" + (cache.isEnabled() ? "on" : "off") + ") ---");
+        System.out.println("Entries:   " + cache.getSize() + " / " + cache.getCapacity());
+        System.out.println("Hits:      " + cache.getHits());
+        System.out.println("Misses:    " + cache.getMisses());
+        System.out.printf("Hit rate:  %.1f%%%n", cache.getHitRate() * 100);
+        System.out.println("Evictions: " + cache.getEvictions());
+    }
+
+    /**
+     * Displays the effect of a bulk salary adjustment before it is applied.
+     * 
+     * @param plan The planned adjustment.
+     */
+    public void displaySalaryAdjustmentPlan(SalaryAdjustment.Plan plan) {
+        System.out.println("\n--- Planned Salary Adjustment ---");
+        System.out.println("Developers matched:  " + plan.getMatched());
+        System.out.println("Salaries changing:   " + (plan.getUpdated().size() + plan.getBelowMinimum().size()));
+        System.out.println("Total payroll:       " + plan.getPayrollBefore() + " -> " + plan.getPayrollAfter()
+                + " USD");
+        if (!plan.isValid()) {
+            System.out.println("Would fall below the minimum salary:");
+            for (Developer d : plan.getBelowMinimum().subList(0, Math.min(10, plan.getBelowMinimum().size()))) {
+                System.out.println(d);
+            }
+        }
+    }
+
     /**
      * Displays a single developer's information.
      * 
@@ -148,6 +495,11 @@ public class ConsoleView {
         return Validation.checkInputString().toUpperCase();
     }
 
+    public String getAssigneeIdInput() {
+        System.out.print("Enter Developer ID to assign: ");
+        return Validation.checkInputString().toUpperCase();
+    }
+
     public String getDeveloperNameInput() {
         System.out.print("Enter Full Name (at least 2 words): ");
         return Validation.checkFullName();
@@ -163,6 +515,18 @@ public class ConsoleView {
         return Validation.checkSalary();
     }
 
+    public String getNameSearchInput() {
+        System.out.print("Enter name or part of a name (accents optional): ");
+        return Validation.checkInputString();
+    }
+
+    public String getProjectSearchInput() {
+        System.out.println("Words are combined with AND. Use viet* for prefixes, \"mobile banking\" for phrases,");
+        System.out.println("and client: or name: to search one field (e.g. client:viet*).");
+        System.out.print("Enter search: ");
+        return Validation.checkInputString();
+    }
+
     public String getLanguageSearchInput() {
         System.out.print("Enter Programming Language to search (e.g., Java): ");
         return Validation.checkInputString();
@@ -173,6 +537,32 @@ public class ConsoleView {
         return Validation.checkProjectId();
     }
 
+    public String getRequiredSkillsInput() {
+        System.out.print("Enter Required Skills (comma separated, press Enter to skip): ");
+        return Validation.checkInputScanner();
+    }
+
+    public String getIncomingFileInput(String defaultFile) {
+        System.out.print("Enter incoming projects file (press Enter for " + defaultFile + "): ");
+        String file = Validation.checkInputScanner();
+        return file.isEmpty() ? defaultFile : file;
+    }
+
+    public int getAmountInput(String label) {
+        System.out.print("Enter " + label + ": ");
+        return Validation.checkInputInt();
+    }
+
+    public double getPercentInput(String change) {
+        System.out.print("Enter " + change + " in percent (e.g., 5 or 2.5): ");
+        return Validation.checkInputDouble();
+    }
+
+    public boolean getConfirmation(String question) {
+        System.out.print(question + " (Y/N): ");
+        return Validation.checkInputYN();
+    }
+
     public String getProjectNameInput() {
         System.out.print("Enter Project Name: ");
         return Validation.checkInputString();
@@ -193,6 +583,16 @@ public class ConsoleView {
         return Validation.checkFutureDate();
     }
 
+    public String getDateInput(String label) {
+        System.out.print("Enter " + label + " (dd/MM/yyyy): ");
+        return Validation.checkInputDate();
+    }
+
+    public long getEpochDayInput(String label) {
+        System.out.print("Enter " + label + " (dd/MM/yyyy): ");
+        return Validation.checkInputEpochDay();
+    }
+
     public int getDeveloperSelection(int max) {
         System.out.print("Select Developer (1-" + max + "): ");
         while (true) {
@@ -210,6 +610,11 @@ public class ConsoleView {
         return Validation.checkInputYN();
     }
 
+    public boolean getQuarantineConfirmation() {
+        System.out.print("Move these rows to the quarantine files? (Y/N): ");
+        return Validation.checkInputYN();
+    }
+
     public String getInput(String prompt) {
         System.out.print(prompt);
         return Validation.checkInputScanner();
@@ -231,6 +636,59 @@ public class ConsoleView {
         System.out.println("Total Experience: " + totalMonths + " months");
     }
 
+    /**
+     * Displays every recorded salary of a developer.
+     * 
+     * @param devId   The developer ID.
+     * @param entries The history, oldest first.
+     */
+    public void displaySalaryHistory(String devId, List<SalaryHistory.Entry> entries) {
+        System.out.println("\n--- Salary History of " + devId + " ---");
+        if (entries.isEmpty()) {
+            System.out.println("No salary changes recorded.");
+            return;
+        }
+        SimpleDateFormat format = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
+        System.out.printf("%-20s | %s%n", "Since", "Salary (USD)");
+        System.out.println("--------------------------------------------------------------------------------");
+        for (SalaryHistory.Entry e : entries) {
+            System.out.printf("%-20s | %s%n", format.format(new Date(e.getTimestamp())),
+                    e.getSalary() == 0 ? "(left the roster)" : String.valueOf(e.getSalary()));
+        }
+    }
+
+    /**
+     * Warns that salary changes from some time on were not recorded.
+     *
+     * @param since    Time of the first missing change.
+     * @param caughtUp True if the current salaries were recorded again just
+     *                 now.
+     */
+    public void displaySalaryHistoryGap(long since, boolean caughtUp) {
+        String from = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss").format(new Date(since));
+        if (caughtUp) {
+            displayError("Warning: salary changes made from " + from
+                    + " until now were not recorded; the current salaries have been recorded again.");
+        } else {
+            displayError("Warning: salary changes made since " + from + " are not recorded.");
+        }
+    }
+
+    /**
+     * Displays total payroll at a series of dates.
+     * 
+     * @param dates  Date labels.
+     * @param totals Total payroll at each date.
+     */
+    public void displayPayrollSeries(List<String> dates, long[] totals) {
+        System.out.println("\n--- Total Payroll ---");
+        System.out.printf("%-12s | %s%n", "As of", "Payroll (USD)");
+        System.out.println("--------------------------------------------------------------------------------");
+        for (int i = 0; i < totals.length; i++) {
+            System.out.printf("%-12s | %d%n", dates.get(i), totals[i]);
+        }
+    }
+
     public void displaySaveSuccess() {
         System.out.println("Data saved successfully to developers.txt and projects.txt!");
     }